@@ -0,0 +1,165 @@
+package com.schachspiel.chess.admission;
+
+import com.schachspiel.chess.cluster.ClusterService;
+import com.schachspiel.chess.cluster.ClusterTopology;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Zulassungskontrolle vor dem {@code GameController}: Rate-Limit pro Client
+ * und globale Nebenläufigkeitsgrenzen.
+ * <p>
+ * Anfragen an {@code /api/games/**} zählen als "query" (GET/HEAD, z.B. Lobby,
+ * Spielstand, gültige Züge) oder "move" (alle schreibenden Methoden). Pro
+ * Klasse gibt es einen Token-Bucket je Client (Schlüssel ist die
+ * Client-Adresse; hinter einem Proxy siehe {@code server.forward-headers-strategy})
+ * und eine Obergrenze gleichzeitig bearbeiteter Anfragen. Ist der Bucket leer
+ * oder die Grenze erreicht, wird sofort mit 429 und {@code Retry-After}
+ * abgelehnt, ohne das Spiel zu laden oder Züge zu erzeugen. So kann ein
+ * einzelner Client die Antwortzeiten der übrigen Spieler nicht hochtreiben.
+ * </p>
+ * <p>
+ * Langlebige Streams (SSE) belegen ihren Platz nur bis zum Start der
+ * asynchronen Verarbeitung. Innerhalb des Clusters weitergeleitete Anfragen
+ * wurden schon am Eingangsknoten zugelassen und werden nicht erneut gezählt;
+ * das gilt nur, wenn sie tatsächlich von einem Mitglied kommen
+ * ({@link ClusterTopology#isPeer}). Von außen gesetzte Weiterleitungs-Header
+ * werden ignoriert.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final String QUERY = "query";
+    private static final String MOVE = "move";
+    private static final byte[] RATE_BODY = "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BUSY_BODY = "{\"error\":\"Server busy\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Value("${chess.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chess.admission.query.rate:20}")
+    private double queryRate;
+
+    @Value("${chess.admission.query.burst:40}")
+    private int queryBurst;
+
+    @Value("${chess.admission.query.concurrency:64}")
+    private int queryConcurrency;
+
+    @Value("${chess.admission.move.rate:5}")
+    private double moveRate;
+
+    @Value("${chess.admission.move.burst:20}")
+    private int moveBurst;
+
+    @Value("${chess.admission.move.concurrency:32}")
+    private int moveConcurrency;
+
+    @Value("${chess.admission.max-clients:100000}")
+    private int maxClients;
+
+    @Value("${chess.admission.stripes:64}")
+    private int stripes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ClusterTopology topology;
+
+    /** Grenzen einer Anfrageklasse. */
+    private final class Limit {
+        final TokenBuckets buckets;
+        final Semaphore permits;
+        final int concurrency;
+        final Counter rateRejected;
+        final Counter busyRejected;
+
+        Limit(String name, double rate, int burst, int concurrency) {
+            this.buckets = new TokenBuckets(rate, burst, maxClients, stripes);
+            this.permits = new Semaphore(concurrency);
+            this.concurrency = concurrency;
+            this.rateRejected = Counter.builder("chess.admission.rejected")
+                    .tag("class", name).tag("reason", "rate").register(meterRegistry);
+            this.busyRejected = Counter.builder("chess.admission.rejected")
+                    .tag("class", name).tag("reason", "concurrency").register(meterRegistry);
+            Gauge.builder("chess.admission.in-flight", permits, p -> this.concurrency - p.availablePermits())
+                    .tag("class", name).register(meterRegistry);
+            Gauge.builder("chess.admission.clients", buckets, TokenBuckets::size)
+                    .tag("class", name).register(meterRegistry);
+        }
+    }
+
+    private Limit query;
+    private Limit move;
+
+    @PostConstruct
+    void init() {
+        query = new Limit(QUERY, queryRate, queryBurst, queryConcurrency);
+        move = new Limit(MOVE, moveRate, moveBurst, moveConcurrency);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !enabled
+                || !(path.equals("/api/games") || path.startsWith("/api/games/"))
+                || "OPTIONS".equals(request.getMethod())
+                || request.getHeader(ClusterService.FORWARDED_HEADER) != null
+                        && topology.isPeer(request.getRemoteAddr());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        Limit limit = "GET".equals(method) || "HEAD".equals(method) ? query : move;
+
+        long wait = limit.buckets.acquire(request.getRemoteAddr(), System.nanoTime());
+        if (wait > 0) {
+            limit.rateRejected.increment();
+            reject(response, wait, RATE_BODY);
+            return;
+        }
+        if (!limit.permits.tryAcquire()) {
+            limit.busyRejected.increment();
+            reject(response, 1, BUSY_BODY);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limit.permits.release();
+        }
+    }
+
+    /** @param waitNanos Wartezeit bis zum nächsten Versuch (aufgerundet auf Sekunden, höchstens eine Stunde). */
+    private static void reject(HttpServletResponse response, long waitNanos, byte[] body) throws IOException {
+        long seconds = waitNanos >= 3_600_000_000_000L ? 3600 : Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,101 @@
+package com.schachspiel.chess.admission;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token-Buckets pro Client mit fester Obergrenze der Anzahl Clients.
+ * <p>
+ * Die Clients sind über den Hash ihres Schlüssels auf {@code stripes}
+ * unabhängige Teiltabellen verteilt, jede mit eigener Sperre; gleichzeitige
+ * Anfragen verschiedener Clients warten damit praktisch nie aufeinander. Jede
+ * Teiltabelle hält höchstens {@code maxClients / stripes} Buckets und
+ * verdrängt den am längsten unbenutzten (LRU). Ein verdrängter Client
+ * beginnt wieder mit vollem Bucket; aktive Clients bleiben erhalten.
+ * </p>
+ */
+final class TokenBuckets {
+
+    /** Füllstand eines Buckets zum Zeitpunkt der letzten Abbuchung. */
+    private static final class Bucket {
+        double tokens;
+        long updated;
+    }
+
+    private final double ratePerNano;
+    private final double burst;
+    private final Stripe[] stripes;
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * @param ratePerSecond Nachgefüllte Tokens pro Sekunde.
+     * @param burst         Größe des Buckets (maximale Anfragen am Stück).
+     * @param maxClients    Höchstzahl gleichzeitig verwalteter Clients.
+     * @param stripes       Anzahl Teiltabellen (wird auf eine Zweierpotenz aufgerundet).
+     */
+    TokenBuckets(double ratePerSecond, double burst, int maxClients, int stripes) {
+        this.ratePerNano = ratePerSecond / 1e9;
+        this.burst = Math.max(1, burst);
+        int n = Integer.highestOneBit(Math.max(1, stripes) * 2 - 1);
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) {
+            this.stripes[i] = new Stripe(Math.max(1, maxClients / n));
+        }
+    }
+
+    /**
+     * Bucht ein Token für einen Client ab.
+     *
+     * @param client Schlüssel des Clients.
+     * @param now    Aktuelle Zeit in Nanosekunden ({@link System#nanoTime()}).
+     * @return 0, wenn die Anfrage zugelassen ist, sonst die Wartezeit in
+     *         Nanosekunden bis zum nächsten Token.
+     */
+    long acquire(String client, long now) {
+        int h = client.hashCode();
+        Stripe stripe = stripes[(h ^ h >>> 16) & (stripes.length - 1)];
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(client);
+            if (bucket == null) {
+                bucket = new Bucket();
+                bucket.tokens = burst;
+                bucket.updated = now;
+                stripe.put(client, bucket);
+            } else {
+                bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.updated) * ratePerNano);
+                bucket.updated = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return ratePerNano > 0 ? (long) Math.ceil((1 - bucket.tokens) / ratePerNano) : Long.MAX_VALUE;
+        }
+    }
+
+    /** @return Anzahl aktuell verwalteter Clients. */
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+}
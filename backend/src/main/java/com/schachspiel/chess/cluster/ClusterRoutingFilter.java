@@ -0,0 +1,145 @@
+package com.schachspiel.chess.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Leitet Anfragen zu Spielen, die einem anderen Knoten gehören, an diesen
+ * weiter.
+ * <p>
+ * Betroffen sind alle Pfade {@code /api/games/{id}/...}. Im Modus "forward"
+ * (Standard) wird die Anfrage an den Besitzer durchgereicht und dessen Antwort
+ * gestreamt zurückgegeben (funktioniert auch für Server-Sent Events); im Modus
+ * "redirect" erhält der Client ein 307 auf den Besitzer. Weitergeleitete
+ * Anfragen tragen {@link ClusterService#FORWARDED_HEADER} und werden nie ein
+ * zweites Mal weitergeleitet; der Header zählt nur bei Anfragen von Mitgliedern.
+ * </p>
+ */
+@Component
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+
+    private static final Pattern GAME_PATH = Pattern.compile("^/api/games/(\\d+)(?:/.*)?$");
+
+    /** Header, die HttpClient selbst setzt oder die nur für eine Verbindung gelten. */
+    private static final Set<String> HOP_BY_HOP = Set.of("host", "connection", "content-length", "expect",
+            "upgrade", "keep-alive", "transfer-encoding", "te", "trailer", "proxy-connection");
+
+    @Autowired
+    private ClusterTopology topology;
+
+    @Value("${chess.cluster.mode:forward}")
+    private String mode;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !topology.isEnabled() || request.getHeader(ClusterService.FORWARDED_HEADER) != null
+                && topology.isPeer(request.getRemoteAddr());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Matcher matcher = GAME_PATH.matcher(request.getRequestURI());
+        long id;
+        try {
+            id = matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+        } catch (NumberFormatException e) {
+            id = -1;
+        }
+        if (id < 0 || topology.isLocal(id)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String target = topology.owner(id) + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        if ("redirect".equals(mode)) {
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader("Location", target);
+            return;
+        }
+        forward(request, response, target);
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response, String target) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(target));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!HOP_BY_HOP.contains(name.toLowerCase()) && !ClusterService.FORWARDED_HEADER.equalsIgnoreCase(name)) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    builder.header(name, value);
+                }
+            }
+        }
+        builder.header(ClusterService.FORWARDED_HEADER, topology.self());
+        boolean hasBody = request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+        builder.method(request.getMethod(), hasBody
+                ? HttpRequest.BodyPublishers.ofInputStream(() -> {
+                    try {
+                        return request.getInputStream();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                : HttpRequest.BodyPublishers.noBody());
+
+        HttpResponse<InputStream> upstream;
+        try {
+            upstream = http.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            response.setStatus(HttpStatus.BAD_GATEWAY.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Owner node unreachable\"}");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        response.setStatus(upstream.statusCode());
+        upstream.headers().map().forEach((name, values) -> {
+            if (!HOP_BY_HOP.contains(name.toLowerCase()) && !name.startsWith(":")) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        // Gestreamt weiterreichen; bei Leerlauf sofort flushen (Server-Sent Events)
+        try (InputStream in = upstream.body()) {
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.schachspiel.chess.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schachspiel.chess.model.Game;
+import com.schachspiel.chess.service.GameService;
+import com.schachspiel.chess.service.GameStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mitgliederverwaltung und Umverteilung der Spiele im Cluster.
+ * <p>
+ * Beitritt und Austritt ändern die Mitgliederliste mit neuer Epoche; der
+ * ausführende Knoten verteilt den neuen Ring an alle Mitglieder. Jeder Knoten
+ * gibt danach die Spiele, die ihm nicht mehr gehören, einzeln an den neuen
+ * Besitzer ab (während der Übergabe sind keine Züge möglich, die Sperre des
+ * Spiels wird dabei aber nicht gehalten; entfernt wird erst nach
+ * erfolgreicher Übergabe). Beitritte sollten nacheinander erfolgen.
+ * </p>
+ */
+@Service
+public class ClusterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterService.class);
+
+    /** Markiert knoteninterne Anfragen (werden nie weitergeleitet). */
+    public static final String FORWARDED_HEADER = "X-Chess-Forwarded";
+
+    @Autowired
+    private ClusterTopology topology;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameStore store;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Basis-URL eines Mitglieds, über das dieser Knoten beim Start beitritt. */
+    @Value("${chess.cluster.join:}")
+    private String seed;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    // Umverteilung nacheinander, damit sich Läufe verschiedener Epochen nicht überholen
+    private final ExecutorService rebalancer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "chess-rebalance");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PreDestroy
+    void shutdown() {
+        rebalancer.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void joinOnStartup() {
+        if (!topology.isEnabled() || seed.isBlank()) {
+            return;
+        }
+        try {
+            send(seed, "/api/cluster/join", Map.of("url", topology.self()));
+            log.info("event=cluster_join seed={} self={}", seed, topology.self());
+        } catch (Exception e) {
+            log.error("Could not join cluster via {}", seed, e);
+        }
+    }
+
+    /**
+     * Nimmt einen Knoten auf und verteilt den neuen Ring.
+     *
+     * @param url Basis-URL des neuen Knotens.
+     * @return Der neue Zustand.
+     * @throws Exception Wenn der Cluster-Betrieb aus ist oder die Verteilung scheitert.
+     */
+    public Map<String, Object> join(String url) throws Exception {
+        requireEnabled();
+        TreeSet<String> members = new TreeSet<>(topology.members());
+        members.add(url);
+        broadcast(topology.epoch() + 1, new ArrayList<>(members));
+        return status();
+    }
+
+    /**
+     * Entfernt diesen Knoten aus dem Cluster und gibt alle seine Spiele ab.
+     *
+     * @return Der neue Zustand.
+     * @throws Exception Wenn der Cluster-Betrieb aus ist oder die Verteilung scheitert.
+     */
+    public Map<String, Object> leave() throws Exception {
+        requireEnabled();
+        TreeSet<String> members = new TreeSet<>(topology.members());
+        members.remove(topology.self());
+        if (members.isEmpty()) {
+            throw new Exception("Last node cannot leave");
+        }
+        List<String> remaining = new ArrayList<>(members);
+        long epoch = topology.epoch() + 1;
+        for (String member : remaining) {
+            send(member, "/api/cluster/ring", Map.of("epoch", epoch, "members", remaining));
+        }
+        installRing(epoch, remaining);
+        return status();
+    }
+
+    /**
+     * Übernimmt einen verteilten Ring und gibt fremde Spiele im Hintergrund ab.
+     *
+     * @param epoch   Epoche.
+     * @param members Mitglieder.
+     */
+    public void installRing(long epoch, List<String> members) {
+        if (topology.install(epoch, members)) {
+            log.info("event=cluster_ring epoch={} members={}", epoch, members);
+            rebalancer.execute(this::rebalance);
+        }
+    }
+
+    /**
+     * Übernimmt von einem anderen Knoten abgegebene Spiele.
+     *
+     * @param games Die Spiele.
+     * @throws Exception Wenn der Cluster-Betrieb aus ist oder ein Spiel hier
+     *                   bereits existiert.
+     */
+    public void adopt(List<Game> games) throws Exception {
+        requireEnabled();
+        for (Game game : games) {
+            gameService.adoptGame(game);
+        }
+    }
+
+    /** @return Epoche, Mitglieder und Anzahl lokaler Spiele. */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", topology.isEnabled());
+        status.put("self", topology.self());
+        status.put("epoch", topology.epoch());
+        status.put("members", topology.members());
+        status.put("localGames", store.ids().size());
+        return status;
+    }
+
+    private void broadcast(long epoch, List<String> members) throws Exception {
+        for (String member : members) {
+            if (!member.equals(topology.self())) {
+                send(member, "/api/cluster/ring", Map.of("epoch", epoch, "members", members));
+            }
+        }
+        installRing(epoch, members);
+    }
+
+    private void rebalance() {
+        int moved = 0;
+        int failed = 0;
+        for (Long id : new ArrayList<>(store.ids())) {
+            String owner = topology.owner(id);
+            if (topology.isLocal(id) || owner == null) {
+                continue;
+            }
+            try {
+                gameService.releaseGame(id, game -> {
+                    send(owner, "/api/cluster/games", List.of(game));
+                    return null;
+                });
+                moved++;
+            } catch (Exception e) {
+                failed++;
+                log.warn("Handover of game {} to {} failed: {}", id, owner, e.getMessage());
+            }
+        }
+        log.info("event=cluster_rebalance epoch={} moved={} failed={}", topology.epoch(), moved, failed);
+    }
+
+    private void send(String node, String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(node + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .header(FORWARDED_HEADER, topology.self())
+                .method(path.endsWith("/ring") ? "PUT" : "POST",
+                        HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(node + path + " answered " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    private void requireEnabled() throws Exception {
+        if (!topology.isEnabled()) {
+            throw new Exception("Cluster mode is disabled");
+        }
+    }
+}
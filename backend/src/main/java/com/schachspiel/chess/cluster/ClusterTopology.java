@@ -0,0 +1,180 @@
+package com.schachspiel.chess.cluster;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aktuelle Zusammensetzung des Clusters und Zuordnung Spiel → Knoten.
+ * <p>
+ * Ohne {@code chess.cluster.self} läuft die Anwendung als einzelner Knoten:
+ * alle Spiele sind lokal, IDs werden fortlaufend vergeben. Im Cluster-Betrieb
+ * enthält jede neue ID die Knotennummer in den unteren {@value #NODE_BITS}
+ * Bits (damit IDs clusterweit eindeutig sind) und wird nur vergeben, wenn der
+ * Ring sie diesem Knoten zuordnet – neue Spiele entstehen also immer beim
+ * Besitzer.
+ * </p>
+ * <p>
+ * Jede Änderung der Mitglieder trägt eine Epoche; ältere oder gleich alte
+ * Ringe werden ignoriert. Mit jedem Ring werden die Adressen der Mitglieder
+ * aufgelöst; nur Anfragen von diesen Adressen gelten als knotenintern
+ * ({@link #isPeer}).
+ * </p>
+ */
+@Component
+public class ClusterTopology {
+
+    static final int NODE_BITS = 10;
+
+    @Value("${chess.cluster.self:}")
+    private String self;
+
+    @Value("${chess.cluster.nodes:}")
+    private List<String> nodes;
+
+    @Value("${chess.cluster.node-id:-1}")
+    private int nodeId;
+
+    @Value("${chess.cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile HashRing ring;
+    private volatile long epoch;
+    private volatile Set<InetAddress> peerAddresses = Set.of();
+
+    @PostConstruct
+    void init() {
+        if (self.isBlank()) {
+            return;
+        }
+        TreeSet<String> members = new TreeSet<>();
+        nodes.stream().map(String::trim).filter(node -> !node.isEmpty()).forEach(members::add);
+        if (nodeId < 0) {
+            // Standard: Position in der statischen Knotenliste
+            nodeId = new ArrayList<>(members).indexOf(self);
+            if (nodeId < 0) {
+                throw new IllegalStateException("chess.cluster.node-id is required for nodes outside chess.cluster.nodes");
+            }
+        }
+        if (nodeId >= 1 << NODE_BITS) {
+            throw new IllegalStateException("chess.cluster.node-id must be below " + (1 << NODE_BITS));
+        }
+        members.add(self);
+        ring = new HashRing(new ArrayList<>(members), virtualNodes);
+        peerAddresses = resolve(members);
+    }
+
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public List<String> members() {
+        HashRing current = ring;
+        return current == null ? List.of() : current.members();
+    }
+
+    /**
+     * @param gameId Spiel-ID.
+     * @return true, wenn dieser Knoten das Spiel besitzt (immer im Einzelbetrieb).
+     */
+    public boolean isLocal(long gameId) {
+        HashRing current = ring;
+        return current == null || self.equals(current.owner(gameId));
+    }
+
+    /**
+     * @param gameId Spiel-ID.
+     * @return Basis-URL des Besitzers.
+     */
+    public String owner(long gameId) {
+        HashRing current = ring;
+        return current == null ? self : current.owner(gameId);
+    }
+
+    /**
+     * Übernimmt eine neue Zusammensetzung, wenn sie neuer ist als die aktuelle.
+     *
+     * @param newEpoch   Epoche der Änderung.
+     * @param newMembers Alle Mitglieder.
+     * @return true, wenn der Ring gewechselt wurde.
+     */
+    public synchronized boolean install(long newEpoch, List<String> newMembers) {
+        if (ring == null || newEpoch <= epoch) {
+            return false;
+        }
+        ring = new HashRing(new ArrayList<>(new TreeSet<>(newMembers)), virtualNodes);
+        epoch = newEpoch;
+        peerAddresses = resolve(newMembers);
+        return true;
+    }
+
+    /**
+     * @param remoteAddr Absenderadresse einer Anfrage (IP-Literal).
+     * @return true, wenn die Anfrage von einem Mitglied des Clusters stammt
+     *         (immer false im Einzelbetrieb).
+     */
+    public boolean isPeer(String remoteAddr) {
+        if (ring == null || remoteAddr == null) {
+            return false;
+        }
+        try {
+            // IP-Literal: keine Namensauflösung
+            return peerAddresses.contains(InetAddress.getByName(remoteAddr));
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    private static Set<InetAddress> resolve(Iterable<String> members) {
+        Set<InetAddress> addresses = new HashSet<>();
+        for (String member : members) {
+            try {
+                String host = URI.create(member).getHost();
+                if (host != null) {
+                    addresses.addAll(List.of(InetAddress.getAllByName(host)));
+                }
+            } catch (IllegalArgumentException | UnknownHostException e) {
+                // Nicht auflösbare Mitglieder gelten nicht als Absender
+            }
+        }
+        return Set.copyOf(addresses);
+    }
+
+    /**
+     * Vergibt eine neue Spiel-ID, die diesem Knoten gehört.
+     *
+     * @return Die ID.
+     */
+    public long nextGameId() {
+        HashRing current = ring;
+        if (current == null) {
+            return sequence.incrementAndGet();
+        }
+        while (true) {
+            long id = (sequence.incrementAndGet() << NODE_BITS) | nodeId;
+            // Ein Knoten, der den Cluster verlässt, besitzt nichts mehr
+            if (!current.contains(self) || self.equals(current.owner(id))) {
+                return id;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.schachspiel.chess.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unveränderlicher Consistent-Hashing-Ring.
+ * <p>
+ * Jeder Knoten erscheint mit mehreren virtuellen Punkten auf dem Ring, damit
+ * sich die Spiele gleichmäßig verteilen. Eine Spiel-ID gehört dem Knoten des
+ * ersten Punktes im Uhrzeigersinn. Kommt ein Knoten hinzu oder fällt weg,
+ * wechseln nur etwa 1/N der Spiele den Besitzer.
+ * </p>
+ * <p>
+ * Die Punkte liegen sortiert in einem primitiven Array; die Suche ist eine
+ * Binärsuche ohne Allokation.
+ * </p>
+ */
+public final class HashRing {
+
+    private final List<String> members;
+    private final long[] points;
+    private final String[] owners;
+
+    /**
+     * @param members      Basis-URLs der Knoten (z.B. "http://localhost:8080").
+     * @param virtualNodes Anzahl virtueller Punkte pro Knoten.
+     */
+    public HashRing(List<String> members, int virtualNodes) {
+        this.members = List.copyOf(members);
+        int size = members.size() * virtualNodes;
+        long[] keys = new long[size];
+        String[] values = new String[size];
+        Integer[] order = new Integer[size];
+        int i = 0;
+        for (String member : members) {
+            for (int v = 0; v < virtualNodes; v++) {
+                keys[i] = hash(member + "#" + v);
+                values[i] = member;
+                order[i] = i;
+                i++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int j = 0; j < size; j++) {
+            points[j] = keys[order[j]];
+            owners[j] = values[order[j]];
+        }
+    }
+
+    /**
+     * @param gameId Spiel-ID.
+     * @return Basis-URL des zuständigen Knotens (null bei leerem Ring).
+     */
+    public String owner(long gameId) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, mix(gameId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> members() {
+        return members;
+    }
+
+    public boolean contains(String member) {
+        return members.contains(member);
+    }
+
+    /** FNV-1a über die UTF-8-Bytes, anschließend gemischt. */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /** Finalizer aus MurmurHash3 (verteilt auch aufeinanderfolgende IDs gleichmäßig). */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
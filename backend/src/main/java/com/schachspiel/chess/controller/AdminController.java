@@ -0,0 +1,87 @@
+package com.schachspiel.chess.controller;
+
+import com.schachspiel.chess.position.PositionSearchService;
+import com.schachspiel.chess.rating.RatingService;
+import com.schachspiel.chess.rules.RulesShadow;
+import com.schachspiel.chess.service.GameStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST-Controller für Betriebs- und Diagnose-Endpunkte.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private GameStore gameStore;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private PositionSearchService positionSearchService;
+
+    @Autowired
+    private RulesShadow rulesShadow;
+
+    /**
+     * Kennzahlen des Spielspeichers (residente/ausgelagerte Spiele, Bytes,
+     * Ladezeiten).
+     *
+     * @return Map mit den Kennzahlen.
+     */
+    @GetMapping("/store")
+    public ResponseEntity<Map<String, Object>> getStoreStats() {
+        return ResponseEntity.ok(gameStore.getStats());
+    }
+
+    /**
+     * Berechnet alle Wertungen aus dem Spielarchiv neu (Stapelbetrieb).
+     *
+     * @return Anzahl gewerteter Spiele, Perioden und Spieler oder 409, wenn
+     *         bereits eine Neuberechnung läuft.
+     */
+    @PostMapping("/ratings/recompute")
+    public ResponseEntity<?> recomputeRatings() {
+        try {
+            return ResponseEntity.ok(ratingService.recompute());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Baut den Stellungsindex aus dem Spielarchiv neu auf.
+     *
+     * @return Anzahl Spiele, Stellungen, Einträge und Speicherbedarf oder 409,
+     *         wenn bereits ein Neuaufbau läuft.
+     */
+    @PostMapping("/positions/rebuild")
+    public ResponseEntity<?> rebuildPositions() {
+        try {
+            return ResponseEntity.ok(positionSearchService.rebuild());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stand des Schattenbetriebs der Zugregeln (Stichprobenrate, Prüfungen,
+     * Abweichungen mit reproduzierbarer Stellung).
+     *
+     * @return Map mit Zählern und den letzten Abweichungen.
+     */
+    @GetMapping("/rules/shadow")
+    public ResponseEntity<Map<String, Object>> getRulesShadow() {
+        return ResponseEntity.ok(rulesShadow.getReport());
+    }
+}
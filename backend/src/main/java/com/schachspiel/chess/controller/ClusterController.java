@@ -0,0 +1,110 @@
+package com.schachspiel.chess.controller;
+
+import com.schachspiel.chess.cluster.ClusterService;
+import com.schachspiel.chess.cluster.ClusterTopology;
+import com.schachspiel.chess.model.Game;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST-Controller für den Cluster-Betrieb (Mitglieder, Ring, Spielübergabe).
+ * <p>
+ * Die Endpunkte /ring und /games werden von den Knoten untereinander genutzt.
+ * Sie und /join nehmen nur Anfragen von den Adressen der Mitglieder an
+ * ({@link ClusterTopology#isPeer}); andere erhalten 403, im Einzelbetrieb
+ * also immer. Einen neuen Knoten nimmt man daher von einem Mitglied aus auf.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/cluster")
+public class ClusterController {
+
+    @Autowired
+    private ClusterService clusterService;
+
+    @Autowired
+    private ClusterTopology topology;
+
+    /**
+     * @return Epoche, Mitglieder und Anzahl lokaler Spiele dieses Knotens.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(clusterService.status());
+    }
+
+    /**
+     * Nimmt einen Knoten in den Cluster auf.
+     *
+     * @param request Map mit 'url' (Basis-URL des neuen Knotens).
+     * @return Der neue Zustand, 400 oder 403 (nicht von einem Mitglied).
+     */
+    @PostMapping("/join")
+    public ResponseEntity<?> join(@RequestBody Map<String, String> request, HttpServletRequest http) {
+        if (!topology.isPeer(http.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return ResponseEntity.ok(clusterService.join(request.get("url")));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Entfernt diesen Knoten aus dem Cluster; seine Spiele gehen an die übrigen.
+     *
+     * @return Der neue Zustand oder 400.
+     */
+    @PostMapping("/leave")
+    public ResponseEntity<?> leave() {
+        try {
+            return ResponseEntity.ok(clusterService.leave());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Übernimmt einen neuen Ring (knotenintern).
+     *
+     * @param request Map mit 'epoch' und 'members'.
+     * @return 204 oder 403 (nicht von einem Mitglied).
+     */
+    @PutMapping("/ring")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<Void> installRing(@RequestBody Map<String, Object> request, HttpServletRequest http) {
+        if (!topology.isPeer(http.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        long epoch = ((Number) request.get("epoch")).longValue();
+        clusterService.installRing(epoch, (List<String>) request.get("members"));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Übernimmt abgegebene Spiele (knotenintern).
+     *
+     * @param games Die Spiele.
+     * @return 204, 400 (Spiel existiert hier bereits) oder 403 (nicht von
+     *         einem Mitglied).
+     */
+    @PostMapping("/games")
+    public ResponseEntity<?> adopt(@RequestBody List<Game> games, HttpServletRequest http) {
+        if (!topology.isPeer(http.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            clusterService.adopt(games);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.schachspiel.chess.controller;
+
+import com.schachspiel.chess.explorer.OpeningExplorer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST-Controller für den Eröffnungs-Explorer.
+ */
+@RestController
+@RequestMapping("/api/explorer")
+public class ExplorerController {
+
+    @Autowired
+    private OpeningExplorer openingExplorer;
+
+    /**
+     * Liefert die in einer Stellung gespielten Züge mit ihren Ergebnissen.
+     * <p>
+     * Die Stellung wird als FEN oder als Stellung eines vorhandenen Spiels
+     * (gameId, optional ply) angegeben; ohne Angabe die Grundstellung.
+     * </p>
+     *
+     * @param fen    Die Stellung als FEN.
+     * @param gameId Alternativ: Spiel-ID.
+     * @param ply    Halbzug im Spiel (Standard: aktuelle Stellung).
+     * @return Summen und Züge (häufigster zuerst), oder 400/404.
+     */
+    @GetMapping
+    public ResponseEntity<?> explore(@RequestParam(required = false) String fen,
+                                     @RequestParam(required = false) Long gameId,
+                                     @RequestParam(required = false) Integer ply) {
+        try {
+            if (fen != null) {
+                return ResponseEntity.ok(openingExplorer.explore(fen));
+            }
+            if (gameId != null) {
+                return ResponseEntity.ok(openingExplorer.explore(gameId, ply));
+            }
+            return ResponseEntity.ok(openingExplorer.explore(new com.schachspiel.chess.model.ChessBoard()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            if ("Game not found".equals(e.getMessage())) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
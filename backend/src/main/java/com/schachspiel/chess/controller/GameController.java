@@ -1,14 +1,49 @@
 package com.schachspiel.chess.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schachspiel.chess.engine.AnalysisService;
+import com.schachspiel.chess.engine.EngineService;
 import com.schachspiel.chess.model.Game;
+import com.schachspiel.chess.model.GameDelta;
+import com.schachspiel.chess.model.GameStatus;
+import com.schachspiel.chess.model.GameSummary;
 import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.service.EncodedGame;
 import com.schachspiel.chess.service.GameService;
+import com.schachspiel.chess.service.IllegalPlyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
 
 /**
  * REST-Controller für die Schach-API.
@@ -20,9 +55,28 @@ import java.util.Map;
 @RequestMapping("/api/games")
 public class GameController {
 
+    private static final Logger log = LoggerFactory.getLogger(GameController.class);
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final String PGN_MEDIA_TYPE = "application/x-chess-pgn";
+
+    /** Anteil der Zug-Requests, die geloggt werden (0.0 bis 1.0). */
+    @Value("${chess.logging.move-sample-rate:0.01}")
+    private double moveLogSampleRate;
+
     @Autowired
     private GameService gameService;
 
+    @Autowired
+    private AnalysisService analysisService;
+
+    @Autowired
+    private EngineService engineService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Erstellt ein neues Spiel.
      *
@@ -31,7 +85,6 @@ public class GameController {
      */
     @PostMapping
     public ResponseEntity<Game> createGame(@RequestBody Map<String, Object> request) {
-        System.out.println("Received createGame request: " + request);
         try {
             String whitePlayer = (String) request.get("whitePlayer");
             String blackPlayer = (String) request.get("blackPlayer");
@@ -39,35 +92,284 @@ public class GameController {
             Integer timeLimit = request.containsKey("timeLimit") ? (Integer) request.get("timeLimit") : null;
 
             Game game = gameService.createGame(whitePlayer, blackPlayer, isOnlineMode, timeLimit);
-            System.out.println("Created game: " + game);
+            log.info("event=game_created gameId={} timeLimit={} online={}", game.getId(), timeLimit, isOnlineMode);
             return ResponseEntity.ok(game);
-        } catch (Exception e) {
-            e.printStackTrace();
+        } catch (RuntimeException e) {
+            log.warn("event=game_create_failed error=\"{}\"", e.toString());
             throw e;
         }
     }
 
     /**
-     * Ruft eine Liste aller aktiven Spiele ab.
-     * 
-     * @return Liste von Game-Objekten.
+     * Ruft eine Seite der Spielliste (Lobby) ab.
+     * <p>
+     * Liefert nur Zusammenfassungen (ohne Brett und Historie), neueste zuerst.
+     * Die Einträge werden direkt in die Antwort geschrieben, ohne die Liste
+     * vorher aufzubauen. Antwortformat: {@code {"items": [...], "nextCursor": 42}};
+     * {@code nextCursor} ist null, wenn keine weitere Seite existiert.
+     * </p>
+     *
+     * @param cursor Cursor aus der vorherigen Antwort (optional).
+     * @param limit  Maximale Anzahl Einträge (1 bis {@value #MAX_PAGE_SIZE}).
+     * @param status Optionaler Statusfilter.
+     * @param player Optionaler Spielerfilter.
+     * @return Gestreamte Seite von GameSummary-Objekten.
      */
     @GetMapping
-    public ResponseEntity<List<Game>> getAllGames() {
-        return ResponseEntity.ok(gameService.getAllGames());
+    public ResponseEntity<StreamingResponseBody> listGames(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) GameStatus status,
+            @RequestParam(required = false) String player) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+                    Stream<GameSummary> page = gameService.streamGames(cursor, status, player)) {
+                Iterator<GameSummary> it = page.iterator();
+                json.writeStartObject();
+                json.writeArrayFieldStart("items");
+                Long lastId = null;
+                int written = 0;
+                while (written < pageSize && it.hasNext()) {
+                    GameSummary summary = it.next();
+                    objectMapper.writeValue(json, summary);
+                    lastId = summary.getId();
+                    written++;
+                }
+                json.writeEndArray();
+                if (lastId != null && it.hasNext()) {
+                    json.writeNumberField("nextCursor", lastId);
+                } else {
+                    json.writeNullField("nextCursor");
+                }
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
      * Lädt den aktuellen Spielstand.
+     * <p>
+     * Die Antwort trägt die Spielversion als ETag. Schickt der Client diesen
+     * Wert als {@code If-None-Match}, wird ohne Body mit 304 geantwortet,
+     * solange sich das Spiel nicht geändert hat. Der Body wird aus den pro
+     * Version zwischengespeicherten Bytes geschrieben (bei
+     * {@code Accept-Encoding: gzip} bereits komprimiert).
+     * </p>
      *
-     * @param id Die Spiel-ID.
-     * @return Das Spiel-Objekt (inkl. Brettzustand und Zeiten).
+     * @param id             Die Spiel-ID.
+     * @param legalMoves     Wenn true, enthält die Antwort zusätzlich
+     *                       {@code legalMoves}: alle legalen Züge des Spielers
+     *                       am Zug (Startfeld → Zielfelder).
+     * @param acceptEncoding Accept-Encoding-Header des Clients.
+     * @param request        Der Request (für If-None-Match).
+     * @return Das Spiel-Objekt (inkl. Brettzustand und Zeiten) oder 304.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Game> getGame(@PathVariable Long id) {
-        return gameService.getGame(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getGame(@PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean legalMoves,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        EncodedGame encoded = gameService.getEncodedGame(id, legalMoves).orElse(null);
+        if (encoded == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = etag(id, encoded.getVersion());
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return encodedResponse(encoded, acceptEncoding);
+    }
+
+    private ResponseEntity<byte[]> encodedResponse(EncodedGame encoded, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag(encoded.getId(), encoded.getVersion()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        byte[] gzip = acceptEncoding != null && acceptEncoding.contains("gzip") ? encoded.getGzip() : null;
+        if (gzip != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+        }
+        return response.body(encoded.getJson());
+    }
+
+    /**
+     * Liefert nur die Änderungen seit einer dem Client bekannten Version
+     * (neue Züge, geschlagene Figur, Status, Uhren).
+     *
+     * @param id    Die Spiel-ID.
+     * @param since Die dem Client bekannte Version.
+     * @return Das Delta, 304 wenn sich nichts geändert hat, oder 400 bei
+     *         unbekannter Version.
+     */
+    @GetMapping("/{id}/delta")
+    public ResponseEntity<?> getGameDelta(@PathVariable Long id, @RequestParam long since) {
+        try {
+            GameDelta delta = gameService.getGameDelta(id, since);
+            String etag = etag(id, delta.getVersion());
+            if (delta.getVersion() == since) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(delta);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Liefert die statische Bewertung der aktuellen Stellung (für eine
+     * Bewertungsleiste im Frontend). Es wird nicht gesucht, nur der beim
+     * letzten Zug mitgeschriebene Wert gelesen.
+     *
+     * @param id Die Spiel-ID.
+     * @return Bewertung in Centipawns aus Sicht von Weiß oder 404.
+     */
+    @GetMapping("/{id}/eval")
+    public ResponseEntity<?> getEvaluation(@PathVariable Long id) {
+        try {
+            return gameService.getEvaluation(id)
+                    .<ResponseEntity<?>>map(evaluation -> ResponseEntity.ok()
+                            .eTag(etag(id, (Long) evaluation.get("version")))
+                            .body(evaluation))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Live-Übertragung eines Spiels für Zuschauer (Server-Sent Events).
+     * <p>
+     * Erstes Ereignis ist "snapshot" (vollständiges Spiel), danach folgt pro
+     * Änderung ein "move" (Delta wie bei /delta). Die Ereignis-ID ist die
+     * Version. Nach Spielende wird der Stream geschlossen.
+     * </p>
+     *
+     * @param id Die Spiel-ID.
+     * @return Der Event-Stream oder 404, wenn das Spiel nicht existiert.
+     */
+    @GetMapping(value = "/{id}/spectate", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> spectate(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(gameService.spectate(id));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Analyse einer Stellung mit mehreren Kandidatenzügen (Server-Sent Events).
+     * <p>
+     * Ereignisse: "start" (mit jobId), pro abgeschlossener Tiefe "depth" mit den
+     * besten Varianten, zum Schluss "done" (completed, timeout oder cancelled).
+     * </p>
+     *
+     * @param id      Spiel-ID.
+     * @param ply     Halbzug, nach dem analysiert wird (leer = aktuelle Stellung).
+     * @param multiPv Anzahl der Kandidatenzüge.
+     * @param depth   Maximale Suchtiefe.
+     * @param budget  Zeitbudget als ISO-8601-Dauer (z.B. PT5S).
+     * @return Der Stream, 404 oder 400.
+     */
+    @GetMapping(value = "/{id}/analysis", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> analyze(@PathVariable Long id,
+                                     @RequestParam(required = false) Integer ply,
+                                     @RequestParam(defaultValue = "3") int multiPv,
+                                     @RequestParam(required = false) Integer depth,
+                                     @RequestParam(required = false) Duration budget) {
+        try {
+            return ResponseEntity.ok(analysisService.analyze(id, ply, multiPv, depth, budget));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (Exception e) {
+            if (gameService.getGame(id).isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Bricht eine laufende Analyse ab.
+     *
+     * @param id    Spiel-ID.
+     * @param jobId Auftrags-ID aus dem Ereignis "start".
+     * @return 204 oder 404.
+     */
+    @DeleteMapping("/{id}/analysis/{jobId}")
+    public ResponseEntity<Void> cancelAnalysis(@PathVariable Long id, @PathVariable String jobId) {
+        return analysisService.cancel(id, jobId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Schlägt einen Zug für die Seite am Zug vor.
+     *
+     * @param id     Spiel-ID.
+     * @param budget Zeitbudget als ISO-8601-Dauer (optional).
+     * @return Zug (from/to, SAN) mit Bewertung, 404, 400 oder 503 (Engine ausgelastet).
+     */
+    @GetMapping("/{id}/hint")
+    public DeferredResult<ResponseEntity<?>> hint(@PathVariable Long id,
+                                                  @RequestParam(required = false) Duration budget) {
+        return engineResult(id, () -> engineService.hint(id, budget));
+    }
+
+    /**
+     * Lässt die Engine für die Seite am Zug ziehen.
+     *
+     * @param id     Spiel-ID.
+     * @param budget Zeitbudget als ISO-8601-Dauer (optional).
+     * @return Das aktualisierte Spiel, 409 (Spiel hat sich während der Suche
+     *         geändert), 404, 400 oder 503.
+     */
+    @PostMapping("/{id}/engine-move")
+    public DeferredResult<ResponseEntity<?>> engineMove(@PathVariable Long id,
+                                                        @RequestParam(required = false) Duration budget) {
+        return engineResult(id, () -> engineService.play(id, budget));
+    }
+
+    private interface EngineCall {
+        CompletableFuture<?> start() throws Exception;
+    }
+
+    /** Wartet asynchron auf einen Engine-Auftrag; bricht ihn ab, wenn der Client geht. */
+    private DeferredResult<ResponseEntity<?>> engineResult(Long id, EngineCall call) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+        CompletableFuture<?> future;
+        try {
+            future = call.start();
+        } catch (RejectedExecutionException e) {
+            result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1").body(Map.of("error", e.getMessage())));
+            return result;
+        } catch (Exception e) {
+            result.setResult(gameService.getGame(id).isEmpty()
+                    ? ResponseEntity.notFound().build()
+                    : ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage()))));
+            return result;
+        }
+        result.onTimeout(() -> future.cancel(false));
+        result.onError(e -> future.cancel(false));
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.setResult(ResponseEntity.ok(value));
+            } else if (error instanceof CancellationException || error.getCause() instanceof CancellationException) {
+                result.setResult(ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Engine request cancelled")));
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                result.setResult(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", String.valueOf(cause.getMessage()))));
+            }
+        });
+        return result;
+    }
+
+    private static String etag(Long id, long version) {
+        return "\"" + id + "-" + version + "\"";
     }
 
     /**
@@ -84,25 +386,144 @@ public class GameController {
     /**
      * Führt einen Zug aus.
      *
-     * @param id   Die ID des Spiels aus der URL.
-     * @param move Der Zug (Start/Ziel) als JSON-Body.
+     * @param id    Die ID des Spiels aus der URL.
+     * @param move  Der Zug (Start/Ziel) als JSON-Body.
+     * @param delta Wenn true, wird statt des ganzen Spiels nur das Delta
+     *              gegenüber dem Stand vor dem Zug geliefert.
+     * @param legalMoves Wenn true, enthält die Antwort die legalen Züge der
+     *                   neuen Stellung ({@code legalMoves}).
      * @return Das aktualisierte SpielOder eine Fehlermeldung (HTTP 400), wenn der
      *         Zug ungültig ist.
      */
     @PostMapping("/{id}/move")
-    public ResponseEntity<?> makeMove(@PathVariable Long id, @RequestBody Move move) {
-        System.out.println("Received move request for game " + id + ": " + move);
+    public ResponseEntity<?> makeMove(@PathVariable Long id, @RequestBody Move move,
+            @RequestParam(defaultValue = "false") boolean delta,
+            @RequestParam(defaultValue = "false") boolean legalMoves,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            Game game = gameService.makeMove(id, move);
-            System.out.println("Move successful, new state: " + game.getBoardState());
-            return ResponseEntity.ok(game);
+            // Antwort unter der Spielsperre: ETag, Delta-Basis und Inhalt gehören zur Version dieses Zugs
+            return gameService.makeMove(id, move, game -> {
+                if (sampled()) {
+                    log.info("event=move_applied gameId={} move={}{} status={}", id,
+                            move.getFrom().toNotation(), move.getTo().toNotation(), game.getStatus());
+                }
+                long version = game.getVersion();
+                if (delta) {
+                    return ResponseEntity.ok().eTag(etag(id, version))
+                            .body(gameService.getGameDelta(id, version - 1, legalMoves));
+                }
+                // Die neue Version gleich kodieren: Zuschauer und Polling lesen dieselben Bytes
+                EncodedGame encoded = gameService.getEncodedGame(id, legalMoves).orElse(null);
+                if (encoded != null) {
+                    return encodedResponse(encoded, acceptEncoding);
+                }
+                return ResponseEntity.ok().eTag(etag(id, version)).body(game);
+            });
         } catch (Exception e) {
-            System.out.println("Move failed: " + e.getMessage());
-            e.printStackTrace();
+            // Ungültige Züge sind Client-Fehler: kein Stacktrace, nur stichprobenartig
+            if (sampled()) {
+                log.info("event=move_rejected gameId={} error=\"{}\"", id, e.getMessage());
+            }
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Führt mehrere Züge in einem Durchgang aus (z.B. Synchronisation einer
+     * Fernpartie). Alle Züge werden geprüft; beim ersten ungültigen Zug bleibt
+     * das Spiel unverändert.
+     *
+     * @param id    Die Spiel-ID.
+     * @param moves Die Züge in Spielreihenfolge.
+     * @return Das aktualisierte Spiel oder HTTP 400 mit 'error' und 'ply'.
+     */
+    @PostMapping("/{id}/moves")
+    public ResponseEntity<?> makeMoves(@PathVariable Long id, @RequestBody List<Move> moves) {
+        try {
+            return ResponseEntity.ok(gameService.makeMoves(id, moves));
+        } catch (Exception e) {
+            return batchError(id, e);
+        }
+    }
+
+    /**
+     * Importiert PGN-Zugtext in ein Spiel. Der Request-Body wird gestreamt
+     * gelesen; im Speicher bleiben nur die Züge der Hauptvariante.
+     *
+     * @param id   Die Spiel-ID.
+     * @param body Der PGN-Text (Tags, Kommentare und Varianten sind erlaubt).
+     * @return Das aktualisierte Spiel oder HTTP 400 mit 'error' und 'ply'.
+     */
+    @PostMapping(value = "/{id}/pgn", consumes = { PGN_MEDIA_TYPE, MediaType.TEXT_PLAIN_VALUE })
+    public ResponseEntity<?> importPgn(@PathVariable Long id, InputStream body) {
+        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            return ResponseEntity.ok(gameService.importPgn(id, reader));
+        } catch (Exception e) {
+            return batchError(id, e);
+        }
+    }
+
+    /**
+     * Exportiert ein Spiel als PGN.
+     *
+     * @param id Die Spiel-ID.
+     * @return Der PGN-Text.
+     */
+    @GetMapping(value = "/{id}/pgn", produces = PGN_MEDIA_TYPE)
+    public ResponseEntity<String> exportPgn(@PathVariable Long id) {
+        try {
+            StringWriter out = new StringWriter();
+            gameService.exportPgn(id, out);
+            return ResponseEntity.ok(out.toString());
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Exportiert alle (gefilterten) Spiele als PGN-Archiv.
+     * <p>
+     * Die Antwort wird chunked gestreamt, Spiel für Spiel direkt in den
+     * Response geschrieben.
+     * </p>
+     *
+     * @param status Optionaler Statusfilter.
+     * @param player Optionaler Spielerfilter.
+     * @return Gestreamtes PGN-Archiv.
+     */
+    @GetMapping(value = "/export", produces = PGN_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportArchive(
+            @RequestParam(required = false) GameStatus status,
+            @RequestParam(required = false) String player) {
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            long count = gameService.exportPgnArchive(writer, status, player);
+            writer.flush();
+            log.info("event=pgn_export games={} status={} player={}", count, status, player);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PGN_MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"games.pgn\"")
+                .body(body);
+    }
+
+    private ResponseEntity<?> batchError(Long id, Exception e) {
+        if (sampled()) {
+            log.info("event=batch_rejected gameId={} error=\"{}\"", id, e.getMessage());
+        }
+        if (e instanceof IllegalPlyException illegal) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", e.getMessage(),
+                    "ply", illegal.getPly(),
+                    "move", illegal.getMove()));
+        }
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    private boolean sampled() {
+        return moveLogSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < moveLogSampleRate;
+    }
+
     /**
      * Berechnet alle gültigen Züge für eine Figur auf dem Feld.
      * Hilfreich für das Highlighting im Frontend.
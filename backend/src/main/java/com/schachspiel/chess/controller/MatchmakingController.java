@@ -0,0 +1,113 @@
+package com.schachspiel.chess.controller;
+
+import com.schachspiel.chess.matchmaking.MatchmakingService;
+import com.schachspiel.chess.rating.RatingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * REST-Controller für die Paarung im Online-Modus.
+ * <p>
+ * Ablauf: {@code POST /api/matchmaking} meldet an und liefert ein Ticket;
+ * {@code GET /api/matchmaking/{ticketId}?wait=PT10S} wartet (höchstens die
+ * angegebene Zeit) auf die Paarung und liefert dann Spiel-ID und Farbe.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/matchmaking")
+public class MatchmakingController {
+
+    private static final Duration MAX_WAIT = Duration.ofSeconds(30);
+
+    @Autowired
+    private MatchmakingService matchmakingService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    /**
+     * Meldet einen Spieler an.
+     *
+     * @param request Map mit 'player', optional 'timeLimit' (Sekunden, eine der
+     *                angebotenen Bedenkzeiten), 'rating' (Standard: eigene
+     *                Glicko-2-Wertung) und 'band'.
+     * @return Das Ticket, 400 (Name fehlt, falscher Typ oder Bedenkzeit nicht
+     *         angeboten) oder 409 (Spieler wartet bereits).
+     */
+    @PostMapping
+    public ResponseEntity<?> enqueue(@RequestBody Map<String, Object> request) {
+        try {
+            if (!(request.get("player") instanceof String player) || player.isBlank()) {
+                throw new IllegalArgumentException("Player name is required");
+            }
+            Integer rating = integer(request, "rating");
+            MatchmakingService.Ticket ticket = matchmakingService.enqueue(
+                    player,
+                    integer(request, "timeLimit"),
+                    rating != null ? rating : (int) Math.round(ratingService.getRating(player).rating().rating()),
+                    integer(request, "band"));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(matchmakingService.describe(ticket));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /** Liest eine optionale Ganzzahl aus dem Body; falscher Typ ergibt 400 statt 500. */
+    private static Integer integer(Map<String, Object> request, String key) {
+        Object value = request.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Integer number)) {
+            throw new IllegalArgumentException("'" + key + "' must be an integer");
+        }
+        return number;
+    }
+
+    /**
+     * Liefert den Zustand eines Tickets.
+     *
+     * @param ticketId Ticket-ID.
+     * @param wait     Maximale Wartezeit auf die Paarung (ISO-8601, optional;
+     *                 ohne Angabe wird sofort geantwortet).
+     * @return Ticket-Zustand oder 404.
+     */
+    @GetMapping("/{ticketId}")
+    public DeferredResult<ResponseEntity<?>> getTicket(@PathVariable String ticketId,
+                                                       @RequestParam(required = false) Duration wait) {
+        MatchmakingService.Ticket ticket = matchmakingService.getTicket(ticketId).orElse(null);
+        if (ticket == null || wait == null || wait.isNegative() || wait.isZero() || ticket.getResult().isDone()) {
+            DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+            result.setResult(ticket == null
+                    ? ResponseEntity.notFound().build()
+                    : ResponseEntity.ok(matchmakingService.describe(ticket)));
+            return result;
+        }
+        long timeout = (wait.compareTo(MAX_WAIT) > 0 ? MAX_WAIT : wait).toMillis();
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeout,
+                () -> ResponseEntity.ok(matchmakingService.describe(ticket)));
+        ticket.getResult().thenAccept(done -> result.setResult(ResponseEntity.ok(matchmakingService.describe(done))));
+        return result;
+    }
+
+    /**
+     * Meldet ein wartendes Ticket ab.
+     *
+     * @param ticketId Ticket-ID.
+     * @return 204 oder 409 (bereits gepaart, abgelaufen oder unbekannt).
+     */
+    @DeleteMapping("/{ticketId}")
+    public ResponseEntity<Void> cancel(@PathVariable String ticketId) {
+        return matchmakingService.cancel(ticketId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.schachspiel.chess.controller;
+
+import com.schachspiel.chess.position.PositionSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST-Controller für die Stellungssuche.
+ */
+@RestController
+@RequestMapping("/api/positions")
+public class PositionController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private PositionSearchService positionSearchService;
+
+    /**
+     * Sucht die Spiele, in denen eine Stellung vorkam.
+     * <p>
+     * Die Stellung wird entweder als FEN angegeben oder als Stellung eines
+     * vorhandenen Spiels (gameId, optional ply).
+     * </p>
+     *
+     * @param fen    Die Stellung als FEN.
+     * @param gameId Alternativ: Spiel-ID.
+     * @param ply    Halbzug im Spiel (Standard: aktuelle Stellung).
+     * @param limit  Maximale Anzahl Treffer (1 bis {@value #MAX_LIMIT}).
+     * @return FEN, Hash, Gesamtzahl und Treffer (gameId, ply), oder 400/404.
+     */
+    @GetMapping
+    public ResponseEntity<?> search(@RequestParam(required = false) String fen,
+                                    @RequestParam(required = false) Long gameId,
+                                    @RequestParam(required = false) Integer ply,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        try {
+            if (fen != null) {
+                return ResponseEntity.ok(positionSearchService.search(fen, max));
+            }
+            if (gameId != null) {
+                return ResponseEntity.ok(positionSearchService.search(gameId, ply, max));
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", "fen or gameId required"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            if ("Game not found".equals(e.getMessage())) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
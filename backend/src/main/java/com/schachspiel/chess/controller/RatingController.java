@@ -0,0 +1,48 @@
+package com.schachspiel.chess.controller;
+
+import com.schachspiel.chess.rating.RatingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST-Controller für Spielerwertungen (Glicko-2) und die Rangliste.
+ */
+@RestController
+@RequestMapping("/api/ratings")
+public class RatingController {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private RatingService ratingService;
+
+    /**
+     * Ruft eine Seite der Rangliste ab (beste Wertung zuerst).
+     *
+     * @param offset Anzahl übersprungener Plätze.
+     * @param limit  Maximale Anzahl Einträge (1 bis {@value #MAX_PAGE_SIZE}).
+     * @return Liste mit Platz, Spieler, Wertung, RD und Anzahl Partien.
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<Map<String, Object>>> getLeaderboard(
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(ratingService.getLeaderboard(Math.max(0, offset),
+                Math.max(1, Math.min(limit, MAX_PAGE_SIZE))));
+    }
+
+    /**
+     * Ruft die Wertung eines Spielers ab.
+     *
+     * @param player Spielername.
+     * @return Wertung (ohne gewertete Partie: Startwerte).
+     */
+    @GetMapping("/{player}")
+    public ResponseEntity<Map<String, Object>> getRating(@PathVariable String player) {
+        return ResponseEntity.ok(ratingService.toJson(ratingService.getRating(player)));
+    }
+}
@@ -0,0 +1,240 @@
+package com.schachspiel.chess.engine;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.PieceColor;
+import com.schachspiel.chess.notation.San;
+import com.schachspiel.chess.notation.Uci;
+import com.schachspiel.chess.service.GameService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Stellungsanalyse mit mehreren Kandidatenzügen, gestreamt als Server-Sent
+ * Events.
+ * <p>
+ * Jede Anfrage ist ein Auftrag mit eigener ID. Die {@link Search} läuft als
+ * Hintergrundauftrag im {@link EngineScheduler} und meldet jede
+ * abgeschlossene Tiefe als Ereignis "depth". Der Auftrag endet mit "done", sobald die maximale Tiefe erreicht,
+ * das Zeitbudget verbraucht oder der Auftrag abgebrochen wurde (per DELETE oder
+ * weil der Client die Verbindung geschlossen hat oder das Spiel beendet ist).
+ * </p>
+ */
+@Service
+public class AnalysisService {
+
+    /** Ein laufender Analyseauftrag. */
+    private static final class Job {
+        final String id;
+        final Long gameId;
+        final SseEmitter emitter;
+        final long budgetNanos;
+        /** Ende des Zeitbudgets; 0, solange der Auftrag noch wartet. */
+        volatile long deadline;
+        volatile boolean cancelled;
+        volatile EngineScheduler.Task task;
+
+        Job(String id, Long gameId, SseEmitter emitter, long budgetNanos) {
+            this.id = id;
+            this.gameId = gameId;
+            this.emitter = emitter;
+            this.budgetNanos = budgetNanos;
+        }
+
+        boolean shouldStop() {
+            EngineScheduler.Task t = task;
+            long end = deadline;
+            return cancelled || (t != null && t.isCancelled()) || (end != 0 && System.nanoTime() - end > 0);
+        }
+    }
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private EngineScheduler scheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chess.analysis.max-budget:PT10S}")
+    private Duration maxBudget;
+
+    @Value("${chess.analysis.queue-timeout:PT30S}")
+    private Duration queueTimeout;
+
+    @Value("${chess.analysis.max-depth:8}")
+    private int maxDepth;
+
+    @Value("${chess.analysis.max-multi-pv:5}")
+    private int maxMultiPv;
+
+    private Counter nodeCounter;
+
+    @PostConstruct
+    void init() {
+        nodeCounter = Counter.builder("chess.analysis.nodes").description("Durchsuchte Knoten").register(meterRegistry);
+        Gauge.builder("chess.analysis.active", jobs, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Startet eine Analyse.
+     *
+     * @param gameId  Spiel-ID.
+     * @param ply     Halbzug, nach dem analysiert wird (null = aktuelle Stellung).
+     * @param multiPv Anzahl der Kandidatenzüge (wird auf das Maximum begrenzt).
+     * @param depth   Maximale Tiefe (null = konfiguriertes Maximum).
+     * @param budget  Zeitbudget (null oder zu groß = konfiguriertes Maximum).
+     * @return Der Emitter für die Antwort.
+     * @throws RejectedExecutionException Wenn die Engine ausgelastet ist.
+     * @throws Exception                  Wenn das Spiel nicht existiert oder ply ungültig ist.
+     */
+    public SseEmitter analyze(Long gameId, Integer ply, int multiPv, Integer depth, Duration budget) throws Exception {
+        ChessBoard board = gameService.getBoardAt(gameId, ply);
+        int lines = Math.max(1, Math.min(multiPv, maxMultiPv));
+        int depthLimit = depth == null ? maxDepth : Math.max(1, Math.min(depth, maxDepth));
+        Duration limit = budget == null || budget.compareTo(maxBudget) > 0 || budget.isNegative() ? maxBudget : budget;
+
+        // Das Budget zählt ab Start der Suche; die Wartezeit in der Engine-Warteschlange begrenzt der Emitter
+        SseEmitter emitter = new SseEmitter(limit.toMillis() + queueTimeout.toMillis());
+        Job job = new Job(UUID.randomUUID().toString(), gameId, emitter, limit.toNanos());
+        jobs.put(job.id, job);
+        emitter.onCompletion(() -> cancel(job));
+        emitter.onTimeout(() -> cancel(job));
+        emitter.onError(e -> cancel(job));
+
+        Map<String, Object> start = new LinkedHashMap<>();
+        start.put("jobId", job.id);
+        start.put("gameId", gameId);
+        start.put("ply", ply);
+        start.put("multiPv", lines);
+        start.put("maxDepth", depthLimit);
+        start.put("budgetMillis", limit.toMillis());
+        send(job, "start", start);
+        try {
+            job.task = scheduler.submit(gameId, EngineScheduler.Priority.ANALYSIS,
+                    task -> run(job, task, board, lines, depthLimit));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        return emitter;
+    }
+
+    /**
+     * Bricht einen laufenden Auftrag ab; der Stream endet mit "done".
+     *
+     * @param gameId Spiel-ID.
+     * @param jobId  Auftrags-ID aus dem Ereignis "start".
+     * @return true, wenn der Auftrag lief.
+     */
+    public boolean cancel(Long gameId, String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.gameId.equals(gameId)) {
+            return false;
+        }
+        job.cancelled = true;
+        return true;
+    }
+
+    private void cancel(Job job) {
+        job.cancelled = true;
+        jobs.remove(job.id);
+    }
+
+    private void run(Job job, EngineScheduler.Task task, ChessBoard board, int multiPv, int depthLimit) {
+        job.task = task;
+        job.deadline = System.nanoTime() + job.budgetNanos;
+        Search search = new Search(job::shouldStop);
+        String reason = "completed";
+        try {
+            if (!job.shouldStop()) {
+                search.run(board, multiPv, depthLimit, result -> send(job, "depth", toJson(board, result)));
+            }
+            if (job.cancelled || task.isCancelled()) {
+                reason = "cancelled";
+            } else if (search.isStopped()) {
+                reason = "timeout";
+            }
+            Map<String, Object> done = new LinkedHashMap<>();
+            done.put("reason", reason);
+            done.put("nodes", search.getNodes());
+            send(job, "done", done);
+            job.emitter.complete();
+        } catch (RuntimeException e) {
+            job.emitter.completeWithError(e);
+        } finally {
+            nodeCounter.increment(search.getNodes());
+            jobs.remove(job.id);
+        }
+    }
+
+    private void send(Job job, String event, Object data) {
+        try {
+            job.emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Client ist weg – Suche beim nächsten Prüfen beenden
+            job.cancelled = true;
+        }
+    }
+
+    /** Wandelt ein Tiefenergebnis in die Antwort um (Bewertung aus Sicht von Weiß, SAN). */
+    private static Map<String, Object> toJson(ChessBoard root, Search.DepthResult result) {
+        int sign = root.getCurrentTurn() == PieceColor.WHITE ? 1 : -1;
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (Search.Line line : result.lines()) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("rank", lines.size() + 1);
+            int score = line.score();
+            if (Math.abs(score) >= Search.MATE - 1_000) {
+                // Matt in n Zügen (positiv = Weiß setzt matt)
+                int plies = Search.MATE - Math.abs(score);
+                json.put("mate", sign * Integer.signum(score) * ((plies + 1) / 2));
+            } else {
+                json.put("score", sign * score);
+            }
+            List<String> san = new ArrayList<>();
+            List<String> moves = new ArrayList<>();
+            ChessBoard board = root.copy();
+            for (Move move : line.moves()) {
+                san.add(San.toSan(board, move));
+                moves.add(Uci.toUci(move));
+                Move played = new Move();
+                played.setFrom(move.getFrom());
+                played.setTo(move.getTo());
+                played.setPromotionPiece(move.getPromotionPiece());
+                board.makeMove(played);
+            }
+            json.put("san", san);
+            json.put("moves", moves);
+            lines.add(json);
+        }
+        long millis = result.elapsedNanos() / 1_000_000;
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("depth", result.depth());
+        json.put("elapsedMillis", millis);
+        json.put("nodes", result.nodes());
+        json.put("nps", millis > 0 ? result.nodes() * 1000 / millis : result.nodes());
+        json.put("lines", lines);
+        return json;
+    }
+}
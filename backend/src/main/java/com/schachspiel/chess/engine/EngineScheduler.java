@@ -0,0 +1,363 @@
+package com.schachspiel.chess.engine;
+
+import com.schachspiel.chess.service.GameFinishedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Verteilt Suchaufträge (Engine-Züge, Hinweise, Analysen) auf einen eigenen,
+ * begrenzten Thread-Pool.
+ * <p>
+ * Reihenfolge: zuerst {@link Priority#LIVE}, dann {@link Priority#HINT}, dann
+ * {@link Priority#ANALYSIS}. Innerhalb einer Klasse kommen die Spiele reihum
+ * dran, sodass ein Spiel mit vielen Aufträgen die anderen nicht verdrängt.
+ * Die Warteschlange ist begrenzt (insgesamt und pro Spiel); ist sie voll,
+ * verdrängt ein höher priorisierter Auftrag den jüngsten der niedrigsten
+ * Klasse, sonst wird er abgelehnt.
+ * </p>
+ * <p>
+ * Die Reihenfolge allein hilft einem Engine-Zug nicht, wenn alle Threads mit
+ * langen Analysen belegt sind. Deshalb bleiben
+ * {@code chess.engine.live-reserved} Threads für {@link Priority#LIVE}
+ * reserviert; Hinweise und Analysen belegen höchstens die übrigen.
+ * </p>
+ * <p>
+ * Die Such-Threads laufen mit niedrigerer Thread-Priorität und sind weniger
+ * als die Prozessorkerne, damit Zug-Requests ({@code makeMove}) immer CPU
+ * bekommen. Abgebrochen wird kooperativ über {@link Task#isCancelled()}: beim
+ * Spielende ({@link GameFinishedEvent}), wenn der Client weg ist oder beim
+ * Verdrängen aus der Warteschlange.
+ * </p>
+ */
+@Component
+public class EngineScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineScheduler.class);
+
+    /** Prioritätsklassen, höchste zuerst. */
+    public enum Priority {
+        LIVE, HINT, ANALYSIS
+    }
+
+    /** Ein Suchauftrag. Die Arbeit prüft regelmäßig {@link #isCancelled()}. */
+    public static final class Task {
+        private final Long gameId;
+        private final Priority priority;
+        private final Consumer<Task> work;
+        private final long enqueuedNanos = System.nanoTime();
+        private volatile boolean cancelled;
+
+        private Task(Long gameId, Priority priority, Consumer<Task> work) {
+            this.gameId = gameId;
+            this.priority = priority;
+            this.work = work;
+        }
+
+        public Long getGameId() {
+            return gameId;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** Bricht den Auftrag ab (wartend oder laufend). */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /** Wartende Aufträge pro Klasse, pro Spiel in Ankunftsreihenfolge (Reihum über die Spiele). */
+    private final Map<Priority, LinkedHashMap<Long, ArrayDeque<Task>>> queues = new EnumMap<>(Priority.class);
+    private final Map<Long, Integer> queuedPerGame = new HashMap<>();
+    private final Map<Priority, Integer> queuedPerClass = new EnumMap<>(Priority.class);
+    private int queued;
+    // Laufende Aufträge außer LIVE (unter der Sperre)
+    private int runningBelowLive;
+
+    private final Set<Task> running = ConcurrentHashMap.newKeySet();
+
+    @Value("${chess.engine.threads:0}")
+    private int threads;
+
+    @Value("${chess.engine.queue-capacity:64}")
+    private int capacity;
+
+    @Value("${chess.engine.per-game-limit:4}")
+    private int perGameLimit;
+
+    @Value("${chess.engine.live-reserved:1}")
+    private int liveReserved;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private final Map<Priority, Timer> queueWait = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+    private Counter cancelledCounter;
+    private volatile boolean shutdown;
+
+    @PostConstruct
+    void init() {
+        if (threads <= 0) {
+            // Mindestens ein Kern bleibt für die Request-Verarbeitung frei
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        liveReserved = Math.max(0, liveReserved);
+        if (threads <= liveReserved) {
+            // Neben den reservierten muss mindestens ein Thread für Hinweise und Analysen bleiben
+            threads = liveReserved + 1;
+        }
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new LinkedHashMap<>());
+            queuedPerClass.put(priority, 0);
+            String tag = priority.name().toLowerCase();
+            queueWait.put(priority, Timer.builder("chess.engine.queue.wait").tag("priority", tag)
+                    .publishPercentileHistogram().register(meterRegistry));
+            rejected.put(priority, Counter.builder("chess.engine.rejected").tag("priority", tag).register(meterRegistry));
+            Gauge.builder("chess.engine.queue.size", this, s -> s.queuedIn(priority)).tag("priority", tag)
+                    .register(meterRegistry);
+        }
+        cancelledCounter = Counter.builder("chess.engine.cancelled")
+                .description("Durch Spielende oder Verdrängen abgebrochene Aufträge").register(meterRegistry);
+        Gauge.builder("chess.engine.running", running, Set::size).register(meterRegistry);
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(this::workLoop, "chess-engine-" + i);
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            t.start();
+            workers.add(t);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            queues.values().forEach(games -> games.values().forEach(q -> q.forEach(Task::cancel)));
+            notifyAll();
+        }
+        running.forEach(Task::cancel);
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Reiht einen Auftrag ein.
+     *
+     * @param gameId   Spiel, zu dem der Auftrag gehört.
+     * @param priority Prioritätsklasse.
+     * @param work     Die Arbeit; läuft auf einem Such-Thread und soll
+     *                 {@link Task#isCancelled()} beachten. Wird auch für
+     *                 abgebrochene Aufträge aufgerufen, damit sie aufräumen kann.
+     * @return Der Auftrag (zum Abbrechen).
+     * @throws RejectedExecutionException Wenn die Warteschlange voll ist.
+     */
+    public Task submit(Long gameId, Priority priority, Consumer<Task> work) {
+        Task task = new Task(gameId, priority, work);
+        Task evicted = null;
+        synchronized (this) {
+            if (shutdown) {
+                throw reject(priority, "Engine is shutting down");
+            }
+            if (queuedPerGame.getOrDefault(gameId, 0) >= perGameLimit) {
+                throw reject(priority, "Too many engine requests for this game");
+            }
+            if (queued >= capacity) {
+                evicted = evictBelow(priority);
+                if (evicted == null) {
+                    throw reject(priority, "Engine queue is full");
+                }
+            }
+            queues.get(priority).computeIfAbsent(gameId, id -> new ArrayDeque<>()).addLast(task);
+            queuedPerGame.merge(gameId, 1, Integer::sum);
+            queuedPerClass.merge(priority, 1, Integer::sum);
+            queued++;
+            notifyAll();
+        }
+        if (evicted != null) {
+            // Verdrängt: abbrechen und sofort aufräumen lassen (nicht unter der Sperre)
+            evicted.cancel();
+            cancelledCounter.increment();
+            execute(evicted);
+        }
+        return task;
+    }
+
+    /**
+     * Bricht alle wartenden und laufenden Aufträge eines Spiels ab.
+     *
+     * @param gameId Spiel-ID.
+     */
+    public void cancelGame(Long gameId) {
+        List<Task> tasks = new ArrayList<>();
+        synchronized (this) {
+            for (LinkedHashMap<Long, ArrayDeque<Task>> games : queues.values()) {
+                tasks.addAll(games.getOrDefault(gameId, new ArrayDeque<>()));
+            }
+        }
+        for (Task task : running) {
+            if (task.gameId.equals(gameId)) {
+                tasks.add(task);
+            }
+        }
+        for (Task task : tasks) {
+            if (!task.cancelled) {
+                task.cancel();
+                cancelledCounter.increment();
+            }
+        }
+    }
+
+    @EventListener
+    public void onGameFinished(GameFinishedEvent event) {
+        cancelGame(event.gameId());
+    }
+
+    /** @return Anzahl wartender Aufträge einer Klasse. */
+    public synchronized int queuedIn(Priority priority) {
+        return queuedPerClass.get(priority);
+    }
+
+    private RejectedExecutionException reject(Priority priority, String message) {
+        rejected.get(priority).increment();
+        return new RejectedExecutionException(message);
+    }
+
+    /** Entfernt den jüngsten Auftrag der niedrigsten Klasse unterhalb von priority. */
+    private Task evictBelow(Priority priority) {
+        Priority[] classes = Priority.values();
+        for (int i = classes.length - 1; i > priority.ordinal(); i--) {
+            LinkedHashMap<Long, ArrayDeque<Task>> games = queues.get(classes[i]);
+            Long newestGame = null;
+            Task newest = null;
+            for (Map.Entry<Long, ArrayDeque<Task>> entry : games.entrySet()) {
+                Task candidate = entry.getValue().peekLast();
+                if (newest == null || candidate.enqueuedNanos > newest.enqueuedNanos) {
+                    newest = candidate;
+                    newestGame = entry.getKey();
+                }
+            }
+            if (newest != null) {
+                ArrayDeque<Task> tasks = games.get(newestGame);
+                tasks.pollLast();
+                if (tasks.isEmpty()) {
+                    games.remove(newestGame);
+                }
+                dequeued(newest);
+                return newest;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Nächster Auftrag: höchste Klasse, darin das am längsten nicht bediente
+     * Spiel. Aufträge unterhalb von LIVE nur, solange dafür ein nicht
+     * reservierter Thread frei ist.
+     */
+    private synchronized Task take() throws InterruptedException {
+        while (true) {
+            if (shutdown) {
+                return null;
+            }
+            for (Map.Entry<Priority, LinkedHashMap<Long, ArrayDeque<Task>>> queue : queues.entrySet()) {
+                LinkedHashMap<Long, ArrayDeque<Task>> games = queue.getValue();
+                Iterator<Map.Entry<Long, ArrayDeque<Task>>> it = games.entrySet().iterator();
+                if (!it.hasNext()) {
+                    continue;
+                }
+                if (queue.getKey() != Priority.LIVE) {
+                    if (runningBelowLive >= threads - liveReserved) {
+                        break;
+                    }
+                    runningBelowLive++;
+                }
+                Map.Entry<Long, ArrayDeque<Task>> first = it.next();
+                ArrayDeque<Task> tasks = first.getValue();
+                Task task = tasks.pollFirst();
+                it.remove();
+                if (!tasks.isEmpty()) {
+                    // Ans Ende: die anderen Spiele dieser Klasse kommen zuerst dran
+                    games.put(first.getKey(), tasks);
+                }
+                dequeued(task);
+                return task;
+            }
+            wait();
+        }
+    }
+
+    private void dequeued(Task task) {
+        queuedPerGame.computeIfPresent(task.gameId, (id, n) -> n > 1 ? n - 1 : null);
+        queuedPerClass.merge(task.priority, -1, Integer::sum);
+        queued--;
+    }
+
+    private void workLoop() {
+        while (true) {
+            Task task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == null) {
+                return;
+            }
+            queueWait.get(task.priority).record(System.nanoTime() - task.enqueuedNanos, TimeUnit.NANOSECONDS);
+            try {
+                execute(task);
+            } finally {
+                if (task.priority != Priority.LIVE) {
+                    finishedBelowLive();
+                }
+            }
+        }
+    }
+
+    private synchronized void finishedBelowLive() {
+        runningBelowLive--;
+        // Ein wartender Thread darf jetzt wieder Hinweise oder Analysen nehmen
+        notifyAll();
+    }
+
+    private void execute(Task task) {
+        running.add(task);
+        try {
+            task.work.accept(task);
+        } catch (RuntimeException e) {
+            log.warn("event=engine_task_failed gameId={} priority={} error=\"{}\"", task.gameId, task.priority, e.toString());
+        } finally {
+            running.remove(task);
+        }
+    }
+}
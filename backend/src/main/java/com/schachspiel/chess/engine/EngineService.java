@@ -0,0 +1,162 @@
+package com.schachspiel.chess.engine;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Game;
+import com.schachspiel.chess.model.GameStatus;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.PieceColor;
+import com.schachspiel.chess.notation.San;
+import com.schachspiel.chess.notation.Uci;
+import com.schachspiel.chess.service.GameService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Engine-Züge und Hinweise für laufende Spiele.
+ * <p>
+ * Beide laufen über den {@link EngineScheduler}: Engine-Züge als
+ * {@link EngineScheduler.Priority#LIVE} (ein Spieler wartet auf die Antwort),
+ * Hinweise als {@link EngineScheduler.Priority#HINT}. Gesucht wird auf einer
+ * Kopie der Stellung, ohne die Spielsperre zu halten; der Engine-Zug wird nur
+ * ausgeführt, wenn sich das Spiel in der Zwischenzeit nicht verändert hat.
+ * </p>
+ */
+@Service
+public class EngineService {
+
+    /** Ergebnis einer Suche nach dem besten Zug. */
+    private record Best(Move move, Search.Line line, int depth, long nodes) {
+    }
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private EngineScheduler scheduler;
+
+    @Value("${chess.engine.move-budget:PT2S}")
+    private Duration moveBudget;
+
+    @Value("${chess.engine.hint-budget:PT1S}")
+    private Duration hintBudget;
+
+    @Value("${chess.engine.max-depth:6}")
+    private int maxDepth;
+
+    /**
+     * Sucht einen Hinweis (besten Zug) für die Seite am Zug.
+     *
+     * @param gameId Spiel-ID.
+     * @param budget Zeitbudget (null oder zu groß = konfiguriertes Maximum).
+     * @return Zug mit Bewertung; ein cancel() auf dem Future bricht die Suche ab.
+     * @throws RejectedExecutionException Wenn die Engine ausgelastet ist.
+     * @throws Exception                  Wenn das Spiel nicht existiert oder beendet ist.
+     */
+    public CompletableFuture<Map<String, Object>> hint(Long gameId, Duration budget) throws Exception {
+        GameService.Snapshot snapshot = gameService.getSnapshot(gameId);
+        requireInProgress(snapshot);
+        return submit(gameId, EngineScheduler.Priority.HINT, limit(budget, hintBudget), snapshot.board(),
+                best -> toJson(snapshot.board(), best));
+    }
+
+    /**
+     * Lässt die Engine für die Seite am Zug ziehen.
+     *
+     * @param gameId Spiel-ID.
+     * @param budget Zeitbudget (null oder zu groß = konfiguriertes Maximum).
+     * @return Das Spiel nach dem Engine-Zug.
+     * @throws RejectedExecutionException Wenn die Engine ausgelastet ist.
+     * @throws Exception                  Wenn das Spiel nicht existiert oder beendet ist.
+     */
+    public CompletableFuture<Game> play(Long gameId, Duration budget) throws Exception {
+        GameService.Snapshot snapshot = gameService.getSnapshot(gameId);
+        requireInProgress(snapshot);
+        return submit(gameId, EngineScheduler.Priority.LIVE, limit(budget, moveBudget), snapshot.board(), best -> {
+            try {
+                return gameService.makeMove(gameId, best.move(), snapshot.version());
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Long gameId, EngineScheduler.Priority priority, Duration budget,
+                                            ChessBoard board, Function<Best, T> result) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        EngineScheduler.Task task = scheduler.submit(gameId, priority, t -> {
+            if (t.isCancelled() || future.isDone()) {
+                future.completeExceptionally(new CancellationException("Engine request cancelled"));
+                return;
+            }
+            // Das Budget zählt ab Start der Suche, nicht ab dem Einreihen
+            long deadline = System.nanoTime() + budget.toNanos();
+            try {
+                Best best = search(board, () -> t.isCancelled() || System.nanoTime() - deadline > 0);
+                if (t.isCancelled() || best == null) {
+                    future.completeExceptionally(new CancellationException("Engine request cancelled"));
+                } else {
+                    future.complete(result.apply(best));
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        // Client weg oder Timeout: auch die Suche abbrechen
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled()) {
+                task.cancel();
+            }
+        });
+        return future;
+    }
+
+    private Best search(ChessBoard board, BooleanSupplier stop) {
+        Search search = new Search(stop);
+        Search.DepthResult[] last = new Search.DepthResult[1];
+        search.run(board, 1, maxDepth, result -> last[0] = result);
+        if (last[0] == null) {
+            return null;
+        }
+        Search.Line line = last[0].lines().get(0);
+        return new Best(line.moves().get(0), line, last[0].depth(), search.getNodes());
+    }
+
+    private static void requireInProgress(GameService.Snapshot snapshot) throws Exception {
+        if (snapshot.status() != GameStatus.IN_PROGRESS) {
+            throw new Exception("Game is over");
+        }
+    }
+
+    private static Duration limit(Duration requested, Duration max) {
+        return requested == null || requested.isNegative() || requested.compareTo(max) > 0 ? max : requested;
+    }
+
+    private static Map<String, Object> toJson(ChessBoard board, Best best) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("move", Uci.toUci(best.move()));
+        json.put("san", San.toSan(board, best.move()));
+        json.put("from", best.move().getFrom());
+        json.put("to", best.move().getTo());
+        json.put("promotionPiece", best.move().getPromotionPiece());
+        int sign = board.getCurrentTurn() == PieceColor.WHITE ? 1 : -1;
+        int score = best.line().score();
+        if (Math.abs(score) >= Search.MATE - 1_000) {
+            json.put("mate", sign * Integer.signum(score) * ((Search.MATE - Math.abs(score) + 1) / 2));
+        } else {
+            json.put("score", sign * score);
+        }
+        json.put("depth", best.depth());
+        json.put("nodes", best.nodes());
+        return json;
+    }
+}
@@ -0,0 +1,273 @@
+package com.schachspiel.chess.engine;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Evaluation;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.Piece;
+import com.schachspiel.chess.model.PieceColor;
+import com.schachspiel.chess.model.Position;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Alpha-Beta-Suche mit iterativer Vertiefung und mehreren Hauptvarianten
+ * (Multi-PV).
+ * <p>
+ * Pro Tiefe werden alle Wurzelzüge durchsucht; das Fenster wird dabei auf die
+ * Bewertung der aktuell N-t besten Variante gesetzt, sodass nur für die besten
+ * N Züge exakte Werte berechnet werden. Nach jeder vollständig durchsuchten
+ * Tiefe wird das Ergebnis gemeldet und die Wurzelzüge für die nächste Tiefe
+ * nach Bewertung sortiert. Blattknoten werden mit einer Schlagzug-Ruhesuche
+ * und der statischen {@link Evaluation} bewertet.
+ * </p>
+ * <p>
+ * Abgebrochen wird kooperativ: die übergebene Abbruchbedingung (Zeitbudget,
+ * Client weg, Spiel beendet) wird regelmäßig geprüft; eine angefangene Tiefe
+ * wird dann verworfen.
+ * </p>
+ */
+public class Search {
+
+    /** Bewertung eines Matts in 0 Halbzügen; Matt in n Halbzügen = MATE - n. */
+    public static final int MATE = 100_000;
+
+    private static final int INFINITY = 1_000_000;
+    private static final int QUIESCENCE_DEPTH = 4;
+    private static final int CHECK_INTERVAL = 255;
+
+    /** Eine Variante: Bewertung aus Sicht des Spielers am Zug und Zugfolge. */
+    public record Line(int score, List<Move> moves) {
+    }
+
+    /** Ergebnis einer vollständig durchsuchten Tiefe. */
+    public record DepthResult(int depth, List<Line> lines, long nodes, long elapsedNanos) {
+    }
+
+    /** Abbruch der laufenden Tiefe (ohne Stacktrace, wird nur intern gefangen). */
+    private static final class Aborted extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Aborted() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final Aborted ABORTED = new Aborted();
+
+    private final BooleanSupplier stop;
+    private long nodes;
+    private boolean stopped;
+
+    /**
+     * @param stop Abbruchbedingung, wird alle paar hundert Knoten geprüft.
+     */
+    public Search(BooleanSupplier stop) {
+        this.stop = stop;
+    }
+
+    /**
+     * Führt die iterative Vertiefung aus.
+     *
+     * @param root     Die Stellung (wird nicht verändert).
+     * @param multiPv  Anzahl der gemeldeten Varianten.
+     * @param maxDepth Maximale Suchtiefe in Halbzügen.
+     * @param listener Erhält das Ergebnis jeder abgeschlossenen Tiefe.
+     * @return Die zuletzt vollständig durchsuchte Tiefe (0, wenn keine).
+     */
+    public int run(ChessBoard root, int multiPv, int maxDepth, Consumer<DepthResult> listener) {
+        List<Move> rootMoves = new ArrayList<>();
+        for (Move move : root.getAllLegalMoves()) {
+            rootMoves.add(fresh(move));
+        }
+        if (rootMoves.isEmpty()) {
+            return 0;
+        }
+        orderMoves(root, rootMoves);
+
+        long start = System.nanoTime();
+        int completed = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            List<Line> lines;
+            try {
+                lines = searchRoot(root, rootMoves, depth, Math.min(multiPv, rootMoves.size()));
+            } catch (Aborted e) {
+                break;
+            }
+            completed = depth;
+            listener.accept(new DepthResult(depth, lines, nodes, System.nanoTime() - start));
+
+            // Beste Züge der letzten Tiefe zuerst (besseres Fenster, mehr Schnitte)
+            List<Move> ordered = new ArrayList<>();
+            lines.forEach(line -> ordered.add(line.moves().get(0)));
+            rootMoves.removeAll(ordered);
+            ordered.addAll(rootMoves);
+            rootMoves = ordered;
+
+            if (Math.abs(lines.get(0).score()) >= MATE - depth) {
+                // Kürzestes Matt gefunden, tiefer suchen ändert nichts mehr
+                break;
+            }
+        }
+        return completed;
+    }
+
+    /** @return Anzahl besuchter Knoten. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** @return true, wenn die Suche durch die Abbruchbedingung beendet wurde. */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    private List<Line> searchRoot(ChessBoard root, List<Move> rootMoves, int depth, int multiPv) {
+        List<Line> best = new ArrayList<>();
+        for (Move move : rootMoves) {
+            int alpha = best.size() >= multiPv ? best.get(multiPv - 1).score() : -INFINITY;
+            ChessBoard child = root.copy();
+            child.makeMove(fresh(move));
+            List<Move> pv = new ArrayList<>();
+            int score = -negamax(child, depth - 1, 1, -INFINITY, -alpha, pv);
+            if (score > alpha || best.size() < multiPv) {
+                List<Move> line = new ArrayList<>();
+                line.add(move);
+                line.addAll(pv);
+                best.add(new Line(score, line));
+                best.sort(Comparator.comparingInt(Line::score).reversed());
+                if (best.size() > multiPv) {
+                    best.remove(best.size() - 1);
+                }
+            }
+        }
+        return best;
+    }
+
+    private int negamax(ChessBoard board, int depth, int ply, int alpha, int beta, List<Move> pv) {
+        checkStop();
+        if (depth <= 0) {
+            return quiesce(board, alpha, beta, QUIESCENCE_DEPTH);
+        }
+        List<Move> moves = board.getAllLegalMoves();
+        if (moves.isEmpty()) {
+            return board.isInCheck(board.getCurrentTurn()) ? -(MATE - ply) : 0;
+        }
+        if (board.isInsufficientMaterial()) {
+            return 0;
+        }
+        orderMoves(board, moves);
+
+        List<Move> childPv = new ArrayList<>();
+        for (Move move : moves) {
+            ChessBoard child = board.copy();
+            Move played = fresh(move);
+            child.makeMove(played);
+            childPv.clear();
+            int score = -negamax(child, depth - 1, ply + 1, -beta, -alpha, childPv);
+            if (score >= beta) {
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                pv.clear();
+                pv.add(fresh(move));
+                pv.addAll(childPv);
+            }
+        }
+        return alpha;
+    }
+
+    /** Ruhesuche: nur Schlagzüge, bis die Stellung "ruhig" ist. */
+    private int quiesce(ChessBoard board, int alpha, int beta, int depth) {
+        checkStop();
+        int standPat = staticScore(board);
+        if (standPat >= beta) {
+            return beta;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+        if (depth == 0) {
+            return alpha;
+        }
+        List<Move> captures = captures(board);
+        orderMoves(board, captures);
+        for (Move move : captures) {
+            ChessBoard child = board.copy();
+            child.makeMove(fresh(move));
+            int score = -quiesce(child, -beta, -alpha, depth - 1);
+            if (score >= beta) {
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    /** Legale Schlagzüge: nur Paare eigene Figur / gegnerische Figur prüfen. */
+    private static List<Move> captures(ChessBoard board) {
+        PieceColor side = board.getCurrentTurn();
+        Piece[][] squares = board.getBoard();
+        List<Position> own = new ArrayList<>();
+        List<Position> enemy = new ArrayList<>();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = squares[row][col];
+                if (piece != null) {
+                    (piece.getColor() == side ? own : enemy).add(new Position(row, col));
+                }
+            }
+        }
+        List<Move> captures = new ArrayList<>();
+        for (Position from : own) {
+            for (Position to : enemy) {
+                Move move = new Move();
+                move.setFrom(from);
+                move.setTo(to);
+                if (board.isLegalMove(move)) {
+                    captures.add(move);
+                }
+            }
+        }
+        return captures;
+    }
+
+    /** Schlagzüge nach MVV-LVA (wertvollstes Opfer, billigster Angreifer) zuerst. */
+    private static void orderMoves(ChessBoard board, List<Move> moves) {
+        moves.sort(Comparator.comparingInt((Move move) -> {
+            Piece victim = board.getPieceAt(move.getTo());
+            if (victim == null) {
+                return 0;
+            }
+            Piece attacker = board.getPieceAt(move.getFrom());
+            return 10 * Evaluation.value(victim.getType()) - Evaluation.value(attacker.getType()) / 10;
+        }).reversed());
+    }
+
+    private static int staticScore(ChessBoard board) {
+        int score = board.getEvaluation();
+        return board.getCurrentTurn() == PieceColor.WHITE ? score : -score;
+    }
+
+    private void checkStop() {
+        if ((++nodes & CHECK_INTERVAL) == 0 && stop.getAsBoolean()) {
+            stopped = true;
+            throw ABORTED;
+        }
+    }
+
+    /** Neuer Zug nur mit Start, Ziel und Umwandlung (makeMove beschreibt Züge). */
+    private static Move fresh(Move move) {
+        Move copy = new Move();
+        copy.setFrom(move.getFrom());
+        copy.setTo(move.getTo());
+        copy.setPromotionPiece(move.getPromotionPiece());
+        return copy;
+    }
+}
@@ -0,0 +1,317 @@
+package com.schachspiel.chess.engine;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.PieceColor;
+import com.schachspiel.chess.model.Zobrist;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Selbstspiel-Wettkampf zweier Engine-Konfigurationen mit SPRT.
+ * <p>
+ * Spielt auf allen Kernen schnelle Partien A gegen B. Jede Eröffnung
+ * (zufällige legale Halbzüge, reproduzierbar über den Seed) wird zweimal mit
+ * getauschten Farben gespielt. Bewertet wird mit den Regeln von
+ * {@link ChessBoard} (Matt, Patt, ungenügendes Material) sowie dreifacher
+ * Stellungswiederholung (Zobrist-Hashes seit dem letzten Bauern- oder
+ * Schlagzug) und 50-Züge-Regel ({@code halfmoveClock}) als Remis. Die
+ * Grenze {@code --max-plies} (ebenfalls Remis) ist nur noch eine Notbremse.
+ * Nach jeder Partie wird der sequentielle Likelihood-Quotienten-Test (SPRT,
+ * H0: Elo = elo0, H1: Elo = elo1, Sicht A) fortgeschrieben; der Lauf endet, sobald eine Grenze
+ * erreicht ist, spätestens nach {@code --games} Partien.
+ * </p>
+ * <p>
+ * Optionen: {@code --a "depth=4,nodes=20000" --b "depth=4,time=PT0.05S"
+ * --games 20000 --threads <Kerne> --elo0 0 --elo1 5 --alpha 0.05
+ * --beta 0.05 --random-plies 6 --max-plies 1000 --seed 1}. Eine Konfiguration
+ * begrenzt die Suche pro Zug über Tiefe, Knoten und/oder Zeit. Exit-Code: 0
+ * bei angenommener H1, 1 bei angenommener H0, 2 ohne Entscheidung.
+ * </p>
+ */
+public class SelfPlay {
+
+    /** Remis bei so vielen gleichen Stellungen. */
+    private static final int DRAW_REPETITIONS = 3;
+
+    /** Remis nach so vielen Halbzügen ohne Bauern- oder Schlagzug. */
+    private static final int DRAW_HALFMOVES = 100;
+
+    /** Suchgrenzen pro Zug (0 bzw. null = unbegrenzt). */
+    record Config(String name, int depth, long nodes, Duration time) {
+
+        static Config parse(String name, String spec) {
+            Map<String, String> values = new HashMap<>();
+            for (String part : spec.split(",")) {
+                String[] kv = part.trim().split("=", 2);
+                if (kv.length == 2) {
+                    values.put(kv[0].trim(), kv[1].trim());
+                }
+            }
+            return new Config(name,
+                    Integer.parseInt(values.getOrDefault("depth", "64")),
+                    Long.parseLong(values.getOrDefault("nodes", "0")),
+                    values.containsKey("time") ? Duration.parse(values.get("time")) : null);
+        }
+
+        @Override
+        public String toString() {
+            return name + "(depth=" + depth + (nodes > 0 ? ", nodes=" + nodes : "")
+                    + (time != null ? ", time=" + time : "") + ")";
+        }
+    }
+
+    /** Knoten und Suchzeit einer Konfiguration (über alle Threads). */
+    private static final class Stats {
+        final AtomicLong nodes = new AtomicLong();
+        final AtomicLong nanos = new AtomicLong();
+        final AtomicLong moves = new AtomicLong();
+        final AtomicLong depths = new AtomicLong();
+    }
+
+    private final Config a;
+    private final Config b;
+    private final Stats statsA = new Stats();
+    private final Stats statsB = new Stats();
+    private final int maxGames;
+    private final int randomPlies;
+    private final int maxPlies;
+    private final long seed;
+    private final double elo0;
+    private final double elo1;
+    private final double lower;
+    private final double upper;
+
+    /** Ergebnisse aus Sicht von A. */
+    private int wins;
+    private int draws;
+    private int losses;
+    private double llr;
+    private volatile boolean finished;
+    private final AtomicInteger nextPair = new AtomicInteger();
+
+    SelfPlay(Map<String, String> options) {
+        a = Config.parse("A", options.getOrDefault("a", "depth=3"));
+        b = Config.parse("B", options.getOrDefault("b", "depth=3"));
+        maxGames = Integer.parseInt(options.getOrDefault("games", "20000"));
+        randomPlies = Integer.parseInt(options.getOrDefault("random-plies", "6"));
+        maxPlies = Integer.parseInt(options.getOrDefault("max-plies", "1000"));
+        seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        elo0 = Double.parseDouble(options.getOrDefault("elo0", "0"));
+        elo1 = Double.parseDouble(options.getOrDefault("elo1", "5"));
+        double alpha = Double.parseDouble(options.getOrDefault("alpha", "0.05"));
+        double beta = Double.parseDouble(options.getOrDefault("beta", "0.05"));
+        lower = Math.log(beta / (1 - alpha));
+        upper = Math.log((1 - beta) / alpha);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        SelfPlay match = new SelfPlay(options);
+        System.out.printf(Locale.ROOT, "%s gegen %s, %d Threads, SPRT elo0=%.1f elo1=%.1f, LLR-Grenzen [%.2f, %.2f]%n",
+                match.a, match.b, threads, match.elo0, match.elo1, match.lower, match.upper);
+
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.execute(match::work);
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        System.exit(match.report((System.nanoTime() - start) / 1e9));
+    }
+
+    /** Spielt Partiepaare, bis der Test entschieden oder die Partiezahl erreicht ist. */
+    private void work() {
+        while (!finished) {
+            int pair = nextPair.getAndIncrement();
+            if (pair * 2 >= maxGames) {
+                return;
+            }
+            ChessBoard opening = opening(new Random(seed * 1_000_003L + pair));
+            for (boolean aWhite : new boolean[]{true, false}) {
+                if (finished) {
+                    return;
+                }
+                record(play(opening.copy(), aWhite), aWhite);
+            }
+        }
+    }
+
+    /** Zufällige legale Halbzüge; Stellungen, in denen die Partie schon vorbei ist, werden verworfen. */
+    private ChessBoard opening(Random random) {
+        while (true) {
+            ChessBoard board = new ChessBoard();
+            for (int ply = 0; ply < randomPlies; ply++) {
+                List<Move> moves = board.getAllLegalMoves();
+                if (moves.isEmpty()) {
+                    break;
+                }
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+            if (!board.getAllLegalMoves().isEmpty()) {
+                return board;
+            }
+        }
+    }
+
+    /**
+     * @return Ergebnis aus Sicht von Weiß: 1 Sieg, 0.5 Remis, 0 Niederlage.
+     */
+    private double play(ChessBoard board, boolean aWhite) {
+        // Stellungen seit dem letzten Bauern- oder Schlagzug (einschließlich der aktuellen)
+        List<Long> positions = new ArrayList<>();
+        positions.add(Zobrist.hash(board));
+        for (int ply = 0; ; ply++) {
+            PieceColor turn = board.getCurrentTurn();
+            if (board.isCheckmate(turn)) {
+                return turn == PieceColor.WHITE ? 0 : 1;
+            }
+            if (board.isStalemate(turn) || board.isInsufficientMaterial()
+                    || board.getHalfmoveClock() >= DRAW_HALFMOVES || repetitions(positions) >= DRAW_REPETITIONS
+                    || ply >= maxPlies) {
+                return 0.5;
+            }
+            boolean aToMove = (turn == PieceColor.WHITE) == aWhite;
+            Move move = bestMove(board, aToMove ? a : b, aToMove ? statsA : statsB);
+            Move played = new Move();
+            played.setFrom(move.getFrom());
+            played.setTo(move.getTo());
+            played.setPromotionPiece(move.getPromotionPiece());
+            board.makeMove(played);
+            if (board.getHalfmoveClock() == 0) {
+                positions.clear();
+            }
+            positions.add(Zobrist.hash(board));
+        }
+    }
+
+    /** Wie oft die aktuelle (letzte) Stellung vorkam. */
+    private static int repetitions(List<Long> positions) {
+        long current = positions.get(positions.size() - 1);
+        int count = 0;
+        // Gleiche Stellung nur bei gleicher Seite am Zug: jede zweite
+        for (int i = positions.size() - 1; i >= 0; i -= 2) {
+            if (positions.get(i) == current) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Move bestMove(ChessBoard board, Config config, Stats stats) {
+        long start = System.nanoTime();
+        long deadline = config.time() != null ? start + config.time().toNanos() : Long.MAX_VALUE;
+        Search[] search = new Search[1];
+        search[0] = new Search(() -> (config.nodes() > 0 && search[0].getNodes() >= config.nodes())
+                || (config.time() != null && System.nanoTime() - deadline > 0));
+        Search.DepthResult[] last = new Search.DepthResult[1];
+        search[0].run(board, 1, config.depth(), result -> last[0] = result);
+        stats.nodes.addAndGet(search[0].getNodes());
+        stats.nanos.addAndGet(System.nanoTime() - start);
+        stats.moves.incrementAndGet();
+        if (last[0] == null) {
+            // Nicht einmal Tiefe 1 geschafft: erster legaler Zug
+            return board.getAllLegalMoves().get(0);
+        }
+        stats.depths.addAndGet(last[0].depth());
+        return last[0].lines().get(0).moves().get(0);
+    }
+
+    private synchronized void record(double whiteScore, boolean aWhite) {
+        double score = aWhite ? whiteScore : 1 - whiteScore;
+        if (score == 1) {
+            wins++;
+        } else if (score == 0) {
+            losses++;
+        } else {
+            draws++;
+        }
+        int games = wins + draws + losses;
+        llr = llr();
+        if (llr <= lower || llr >= upper || games >= maxGames) {
+            finished = true;
+        }
+        if (games % 100 == 0 || finished) {
+            System.out.printf(Locale.ROOT, "%6d Partien  +%d =%d -%d  Elo %+.1f  LLR %.2f%n",
+                    games, wins, draws, losses, elo(score()), llr);
+        }
+    }
+
+    private double score() {
+        int games = wins + draws + losses;
+        return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+    }
+
+    /**
+     * Log-Likelihood-Quotient für H1 gegen H0 (Normalapproximation über das
+     * trinomiale Ergebnis, wie in üblichen Engine-Testumgebungen).
+     */
+    private double llr() {
+        int games = wins + draws + losses;
+        double s = score();
+        double variance = (wins * Math.pow(1 - s, 2) + draws * Math.pow(0.5 - s, 2) + losses * Math.pow(s, 2)) / games;
+        if (variance <= 0) {
+            return 0;
+        }
+        double s0 = expected(elo0);
+        double s1 = expected(elo1);
+        return games * (s1 - s0) * (2 * s - s0 - s1) / (2 * variance);
+    }
+
+    private static double expected(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double elo(double score) {
+        double clamped = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+
+    private int report(double seconds) {
+        int games = wins + draws + losses;
+        double s = score();
+        double variance = games == 0 ? 0
+                : (wins * Math.pow(1 - s, 2) + draws * Math.pow(0.5 - s, 2) + losses * Math.pow(s, 2)) / games;
+        double margin = games == 0 ? 0 : 1.96 * Math.sqrt(variance / games);
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Partien: %d in %.1f s (+%d =%d -%d), Punkte A: %.1f %%%n",
+                games, seconds, wins, draws, losses, 100 * s);
+        System.out.printf(Locale.ROOT, "Elo A - B: %+.1f (95 %%: %+.1f bis %+.1f)%n",
+                elo(s), elo(s - margin), elo(s + margin));
+        for (Config config : new Config[]{a, b}) {
+            Stats stats = config == a ? statsA : statsB;
+            double nanos = Math.max(1, stats.nanos.get());
+            System.out.printf(Locale.ROOT, "%s: %.0f Knoten/s, %.2f ms/Zug, Tiefe %.2f%n", config,
+                    stats.nodes.get() / (nanos / 1e9), nanos / 1e6 / Math.max(1, stats.moves.get()),
+                    (double) stats.depths.get() / Math.max(1, stats.moves.get()));
+        }
+        String verdict = llr >= upper ? "H1 angenommen" : llr <= lower ? "H0 angenommen" : "keine Entscheidung";
+        System.out.printf(Locale.ROOT, "SPRT: LLR %.2f [%.2f, %.2f] -> %s%n", llr, lower, upper, verdict);
+        return llr >= upper ? 0 : llr <= lower ? 1 : 2;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
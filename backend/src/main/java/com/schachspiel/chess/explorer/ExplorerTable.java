@@ -0,0 +1,195 @@
+package com.schachspiel.chess.explorer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Zugstatistik pro Stellung: Stellungs-Hash → Fortsetzungen mit Ergebnissen.
+ * <p>
+ * Nur primitive Arrays, keine Objekte pro Eintrag: Die Stellungen liegen in
+ * einer Hash-Tabelle mit offener Adressierung ({@code keys}/{@code heads}),
+ * die Fortsetzungen als verkettete Datensätze zu je fünf int (Zug, Weiß
+ * gewinnt, Remis, Schwarz gewinnt, nächster Datensatz) in {@code entries}.
+ * Eine Abfrage läuft nur über die Fortsetzungen einer Stellung und ist damit
+ * unabhängig von der Anzahl gespielter Partien.
+ * </p>
+ * <p>
+ * Nicht thread-sicher; die Synchronisation übernimmt {@link OpeningExplorer}.
+ * </p>
+ */
+final class ExplorerTable {
+
+    static final int WHITE = 0;
+    static final int DRAW = 1;
+    static final int BLACK = 2;
+
+    private static final int STRIDE = 5;
+    private static final int NONE = -1;
+    private static final long EMPTY = 0;
+    private static final long ZERO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private int[] heads;
+    private int mask;
+    private int positions;
+    private int[] entries = new int[STRIDE * 1024];
+    private int continuations;
+
+    ExplorerTable(int expectedPositions) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedPositions) * 2 - 1) << 1;
+        keys = new long[capacity];
+        heads = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /** Eine Fortsetzung mit ihren Ergebnissen (Weiß, Remis, Schwarz). */
+    record Continuation(int move, int white, int draws, int black) {
+
+        int total() {
+            return white + draws + black;
+        }
+    }
+
+    /**
+     * Zählt ein Ergebnis für einen Zug aus einer Stellung.
+     *
+     * @param hash   Stellungs-Hash vor dem Zug.
+     * @param move   Kodierter Zug.
+     * @param result {@link #WHITE}, {@link #DRAW} oder {@link #BLACK}.
+     * @param count  Anzahl Partien.
+     */
+    void add(long hash, int move, int result, int count) {
+        if (positions * 2 >= mask + 1) {
+            grow();
+        }
+        long key = hash == EMPTY ? ZERO : hash;
+        int slot = find(key);
+        int entry;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            heads[slot] = NONE;
+            positions++;
+            entry = NONE;
+        } else {
+            entry = heads[slot];
+            while (entry != NONE && entries[entry] != move) {
+                entry = entries[entry + 4];
+            }
+        }
+        if (entry == NONE) {
+            entry = continuations++ * STRIDE;
+            if (entry + STRIDE > entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entries[entry] = move;
+            entries[entry + 4] = heads[slot];
+            heads[slot] = entry;
+        }
+        entries[entry + 1 + result] += count;
+    }
+
+    /**
+     * @param hash Stellungs-Hash.
+     * @return Alle Fortsetzungen der Stellung (leer, wenn unbekannt).
+     */
+    Continuation[] get(long hash) {
+        int slot = find(hash == EMPTY ? ZERO : hash);
+        if (keys[slot] == EMPTY) {
+            return new Continuation[0];
+        }
+        int n = 0;
+        for (int entry = heads[slot]; entry != NONE; entry = entries[entry + 4]) {
+            n++;
+        }
+        Continuation[] result = new Continuation[n];
+        int i = 0;
+        for (int entry = heads[slot]; entry != NONE; entry = entries[entry + 4]) {
+            result[i++] = new Continuation(entries[entry], entries[entry + 1], entries[entry + 2], entries[entry + 3]);
+        }
+        return result;
+    }
+
+    private int find(long key) {
+        int index = (int) key & mask;
+        while (keys[index] != key && keys[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldHeads = heads;
+        keys = new long[oldKeys.length * 2];
+        heads = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    /** @return Unabhängige Kopie (für das Schreiben ohne Sperre). */
+    ExplorerTable copy() {
+        ExplorerTable copy = new ExplorerTable(0);
+        copy.keys = keys.clone();
+        copy.heads = heads.clone();
+        copy.mask = mask;
+        copy.positions = positions;
+        copy.entries = Arrays.copyOf(entries, continuations * STRIDE);
+        copy.continuations = continuations;
+        return copy;
+    }
+
+    /** Schreibt alle Stellungen mit ihren Fortsetzungen. */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(positions);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == EMPTY) {
+                continue;
+            }
+            out.writeLong(keys[slot]);
+            int n = 0;
+            for (int entry = heads[slot]; entry != NONE; entry = entries[entry + 4]) {
+                n++;
+            }
+            out.writeShort(n);
+            for (int entry = heads[slot]; entry != NONE; entry = entries[entry + 4]) {
+                out.writeShort(entries[entry]);
+                out.writeInt(entries[entry + 1]);
+                out.writeInt(entries[entry + 2]);
+                out.writeInt(entries[entry + 3]);
+            }
+        }
+    }
+
+    /** Liest Daten im Format von {@link #write}. */
+    static ExplorerTable read(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        ExplorerTable table = new ExplorerTable(count);
+        for (int i = 0; i < count; i++) {
+            long hash = in.readLong();
+            int n = in.readUnsignedShort();
+            for (int j = 0; j < n; j++) {
+                int move = in.readUnsignedShort();
+                table.add(hash, move, WHITE, in.readInt());
+                table.add(hash, move, DRAW, in.readInt());
+                table.add(hash, move, BLACK, in.readInt());
+            }
+        }
+        return table;
+    }
+
+    int positions() {
+        return positions;
+    }
+
+    int continuations() {
+        return continuations;
+    }
+}
@@ -0,0 +1,454 @@
+package com.schachspiel.chess.explorer;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.GameStatus;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.MoveCode;
+import com.schachspiel.chess.model.Piece;
+import com.schachspiel.chess.model.PieceType;
+import com.schachspiel.chess.model.Position;
+import com.schachspiel.chess.model.Zobrist;
+import com.schachspiel.chess.notation.Fen;
+import com.schachspiel.chess.notation.San;
+import com.schachspiel.chess.notation.Uci;
+import com.schachspiel.chess.service.GameFinishedEvent;
+import com.schachspiel.chess.service.GameService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Eröffnungsbuch aus den eigenen Partien: Welche Züge wurden in einer
+ * Stellung gespielt und wie gingen die Partien aus?
+ * <p>
+ * Bei jedem Spielende ({@link GameFinishedEvent}) werden die ersten
+ * {@code chess.explorer.max-plies} Halbzüge der Partie mit ihrem Ergebnis
+ * gezählt ({@link ExplorerTable}). Das geschieht auf einem eigenen Thread:
+ * Das Ereignis kommt unter der Sperre des Spiels (bzw. vom Thread der
+ * Schachuhr) und darf weder durch das Nachspielen noch durch Plattenzugriffe
+ * aufgehalten werden. Abfragen lesen nur die Fortsetzungen einer Stellung,
+ * ihr Aufwand hängt nicht von der Anzahl der Partien ab.
+ * </p>
+ * <p>
+ * Persistenz: Jede gezählte Partie wird an ein Journal angehängt (außerhalb
+ * der Sperre der Tabelle; Journal und Tabelle ändert nur der Zähl-Thread).
+ * Wird das Journal zu groß (und beim Herunterfahren), wird der Stand als
+ * Snapshot geschrieben und die abgedeckten Journale gelöscht. Beim Start werden
+ * Snapshot und Journale wieder eingelesen – die Spiele selbst werden dafür
+ * nicht benötigt.
+ * </p>
+ */
+@Service
+public class OpeningExplorer {
+
+    private static final Logger log = LoggerFactory.getLogger(OpeningExplorer.class);
+
+    private static final int MAGIC = 0x4558504C;
+    private static final String SNAPSHOT = "explorer.bin";
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ExplorerTable table;
+    private DataOutputStream journal;
+    private long journalSeq;
+    private long journalBytes;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    // Zählt beendete Partien und schreibt das Journal (einziger Schreiber von Tabelle und Journal)
+    private final ExecutorService recorder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "explorer-record");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "explorer-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chess.explorer.directory:${java.io.tmpdir}/chess-explorer}")
+    private String directory;
+
+    @Value("${chess.explorer.max-plies:30}")
+    private int maxPlies;
+
+    @Value("${chess.explorer.journal-limit:16MB}")
+    private DataSize journalLimit;
+
+    private Path root;
+    private Counter gamesCounter;
+
+    @PostConstruct
+    void init() throws IOException {
+        gamesCounter = Counter.builder("chess.explorer.games").description("Gezählte Partien").register(meterRegistry);
+        Gauge.builder("chess.explorer.positions", this, explorer -> explorer.stat(ExplorerTable::positions))
+                .register(meterRegistry);
+        Gauge.builder("chess.explorer.continuations", this, explorer -> explorer.stat(ExplorerTable::continuations))
+                .register(meterRegistry);
+
+        root = Paths.get(directory);
+        Files.createDirectories(root);
+        load();
+    }
+
+    /** Liest Snapshot und nicht abgedeckte Journale und öffnet ein neues Journal. */
+    private void load() throws IOException {
+        long firstJournal = 0;
+        Path snapshot = root.resolve(SNAPSHOT);
+        table = new ExplorerTable(1 << 16);
+        if (Files.exists(snapshot)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Unknown explorer snapshot format");
+                }
+                firstJournal = in.readLong();
+                table = ExplorerTable.read(in);
+            }
+        }
+        long lastJournal = firstJournal - 1;
+        int games = 0;
+        for (Path file : journals()) {
+            long seq = journalSeq(file);
+            if (seq < firstJournal) {
+                Files.delete(file);
+                continue;
+            }
+            games += replay(file);
+            lastJournal = Math.max(lastJournal, seq);
+        }
+        journalSeq = lastJournal + 1;
+        openJournal();
+        log.info("event=explorer_loaded positions={} continuations={} journaled_games={}", table.positions(),
+                table.continuations(), games);
+    }
+
+    /** Spielt ein Journal ein; ein abgeschnittener letzter Eintrag (Absturz) wird verworfen. */
+    private int replay(Path file) throws IOException {
+        int games = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                int result;
+                int plies;
+                long[] hashes;
+                int[] moves;
+                try {
+                    result = in.readByte();
+                    plies = in.readUnsignedShort();
+                    hashes = new long[plies];
+                    moves = new int[plies];
+                    for (int i = 0; i < plies; i++) {
+                        hashes[i] = in.readLong();
+                        moves[i] = in.readUnsignedShort();
+                    }
+                } catch (EOFException e) {
+                    return games;
+                }
+                for (int i = 0; i < plies; i++) {
+                    table.add(hashes[i], moves[i], result, 1);
+                }
+                games++;
+            }
+        }
+    }
+
+    private List<Path> journals() throws IOException {
+        try (Stream<Path> files = Files.list(root)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(JOURNAL_PREFIX)
+                            && f.getFileName().toString().endsWith(JOURNAL_SUFFIX))
+                    .sorted(Comparator.comparingLong(OpeningExplorer::journalSeq))
+                    .toList();
+        }
+    }
+
+    private static long journalSeq(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(JOURNAL_PREFIX.length(), name.length() - JOURNAL_SUFFIX.length()));
+    }
+
+    private Path journalFile(long seq) {
+        return root.resolve(JOURNAL_PREFIX + seq + JOURNAL_SUFFIX);
+    }
+
+    private void openJournal() throws IOException {
+        journal = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(journalFile(journalSeq).toFile(), true)));
+        journalBytes = 0;
+    }
+
+    /**
+     * Nimmt eine beendete Partie zur Zählung entgegen (kehrt sofort zurück).
+     *
+     * @param event Das beendete Spiel.
+     */
+    @EventListener
+    public void onGameFinished(GameFinishedEvent event) {
+        Integer result = result(event.status(), event.winner());
+        if (result == null) {
+            return;
+        }
+        try {
+            recorder.execute(() -> record(event.gameId(), result));
+        } catch (RejectedExecutionException e) {
+            // Beim Herunterfahren
+        }
+    }
+
+    /** Zählt eine beendete Partie (nur auf dem Zähl-Thread). */
+    private void record(Long gameId, int result) {
+        List<Move> history;
+        try {
+            history = gameService.getHistory(gameId);
+        } catch (Exception e) {
+            return;
+        }
+        if (history == null || history.isEmpty()) {
+            return;
+        }
+        int plies = Math.min(history.size(), maxPlies);
+        long[] hashes = new long[plies];
+        int[] moves = new int[plies];
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < plies; i++) {
+            Move move = history.get(i);
+            hashes[i] = Zobrist.hash(board);
+            moves[i] = encode(board, move);
+            board.makeMove(move);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < plies; i++) {
+                table.add(hashes[i], moves[i], result, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        gamesCounter.increment();
+        if (journal(result, hashes, moves) && compacting.compareAndSet(false, true)) {
+            try {
+                Snapshot snapshot = rotate();
+                compactor.execute(() -> writeSnapshot(snapshot));
+            } catch (IOException | RuntimeException e) {
+                log.warn("event=explorer_snapshot_failed error={}", e.getMessage());
+                compacting.set(false);
+            }
+        }
+    }
+
+    /** Hängt eine Partie an das Journal an; true, wenn ein Snapshot fällig ist. */
+    private boolean journal(int result, long[] hashes, int[] moves) {
+        try {
+            journal.writeByte(result);
+            journal.writeShort(hashes.length);
+            for (int i = 0; i < hashes.length; i++) {
+                journal.writeLong(hashes[i]);
+                journal.writeShort(moves[i]);
+            }
+            journal.flush();
+            journalBytes += 3 + hashes.length * 10L;
+        } catch (IOException e) {
+            log.warn("event=explorer_journal_failed error={}", e.getMessage());
+        }
+        return journalBytes >= journalLimit.toBytes();
+    }
+
+    /** Kopie der Tabelle und erstes nicht darin enthaltenes Journal. */
+    private record Snapshot(ExplorerTable table, long covered) {
+    }
+
+    /**
+     * Kopiert die Tabelle und wechselt das Journal (auf dem Zähl-Thread, damit
+     * keine Partie zwischen Kopie und Wechsel gezählt wird).
+     */
+    private Snapshot rotate() throws IOException {
+        ExplorerTable copy;
+        lock.readLock().lock();
+        try {
+            copy = table.copy();
+        } finally {
+            lock.readLock().unlock();
+        }
+        journal.close();
+        journalSeq++;
+        openJournal();
+        return new Snapshot(copy, journalSeq);
+    }
+
+    /** Schreibt einen Snapshot und löscht die abgedeckten Journale. */
+    private void writeSnapshot(Snapshot snapshot) {
+        try {
+            Path file = root.resolve(SNAPSHOT);
+            Path tmp = root.resolve(SNAPSHOT + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeLong(snapshot.covered());
+                snapshot.table().write(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (Path journalFile : journals()) {
+                if (journalSeq(journalFile) < snapshot.covered()) {
+                    Files.delete(journalFile);
+                }
+            }
+            log.info("event=explorer_snapshot positions={} continuations={}", snapshot.table().positions(),
+                    snapshot.table().continuations());
+        } catch (IOException e) {
+            log.warn("event=explorer_snapshot_failed error={}", e.getMessage());
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws Exception {
+        recorder.shutdown();
+        recorder.awaitTermination(30, TimeUnit.SECONDS);
+        compactor.shutdown();
+        compactor.awaitTermination(30, TimeUnit.SECONDS);
+        writeSnapshot(rotate());
+    }
+
+    /**
+     * @param fen Die Stellung als FEN.
+     * @return Siehe {@link #explore(ChessBoard)}.
+     * @throws IllegalArgumentException Wenn die FEN ungültig ist.
+     */
+    public Map<String, Object> explore(String fen) {
+        return explore(Fen.parse(fen));
+    }
+
+    /**
+     * @param gameId Spiel-ID.
+     * @param ply    Halbzug (null für die aktuelle Stellung).
+     * @return Siehe {@link #explore(ChessBoard)}.
+     * @throws Exception Wenn das Spiel nicht existiert oder ply ungültig ist.
+     */
+    public Map<String, Object> explore(Long gameId, Integer ply) throws Exception {
+        return explore(gameService.getBoardAt(gameId, ply));
+    }
+
+    /**
+     * @param board Die Stellung.
+     * @return FEN, Summen und pro Zug (häufigster zuerst) UCI, SAN, Siege Weiß,
+     *         Remis, Siege Schwarz und Anzahl Partien.
+     */
+    public Map<String, Object> explore(ChessBoard board) {
+        ExplorerTable.Continuation[] continuations;
+        lock.readLock().lock();
+        try {
+            continuations = table.get(Zobrist.hash(board));
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(continuations, Comparator.comparingInt(ExplorerTable.Continuation::total).reversed());
+
+        int white = 0;
+        int draws = 0;
+        int black = 0;
+        List<Map<String, Object>> moves = new ArrayList<>(continuations.length);
+        for (ExplorerTable.Continuation continuation : continuations) {
+            Move move = MoveCode.decode(continuation.move());
+            String san;
+            try {
+                san = San.toSan(board, move);
+            } catch (IllegalArgumentException e) {
+                // Hash-Kollision: Zug passt nicht zur Stellung
+                continue;
+            }
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("uci", Uci.toUci(move));
+            json.put("san", san);
+            json.put("white", continuation.white());
+            json.put("draws", continuation.draws());
+            json.put("black", continuation.black());
+            json.put("total", continuation.total());
+            moves.add(json);
+            white += continuation.white();
+            draws += continuation.draws();
+            black += continuation.black();
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fen", Fen.toFen(board));
+        result.put("white", white);
+        result.put("draws", draws);
+        result.put("black", black);
+        result.put("total", white + draws + black);
+        result.put("moves", moves);
+        return result;
+    }
+
+    /**
+     * @param status Endstatus.
+     * @param winner "WHITE", "BLACK" oder null.
+     * @return Ergebnisklasse für die Statistik, null für nicht gezählte Spiele.
+     */
+    static Integer result(GameStatus status, String winner) {
+        return switch (status) {
+            case CHECKMATE, VICTORY_BY_TIME, RESIGNED -> "WHITE".equals(winner) ? Integer.valueOf(ExplorerTable.WHITE)
+                    : "BLACK".equals(winner) ? Integer.valueOf(ExplorerTable.BLACK) : null;
+            case STALEMATE, DRAW -> ExplorerTable.DRAW;
+            default -> null;
+        };
+    }
+
+    /** Zugcode ({@link MoveCode}); Umwandlung nur bei Bauern auf der letzten Reihe, ohne Angabe zur Dame. */
+    private static int encode(ChessBoard board, Move move) {
+        Position to = move.getTo();
+        Piece piece = board.getPieceAt(move.getFrom());
+        PieceType promotion = null;
+        if (piece != null && piece.getType() == PieceType.PAWN && (to.getRow() == 0 || to.getRow() == 7)) {
+            promotion = move.getPromotionPiece() != null ? move.getPromotionPiece() : PieceType.QUEEN;
+        }
+        return MoveCode.encode(move.getFrom(), to, promotion);
+    }
+
+    private double stat(java.util.function.ToIntFunction<ExplorerTable> metric) {
+        lock.readLock().lock();
+        try {
+            return metric.applyAsInt(table);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.schachspiel.chess.matchmaking;
+
+import com.schachspiel.chess.model.Game;
+import com.schachspiel.chess.model.PieceColor;
+import com.schachspiel.chess.service.GameService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Paarungs-Warteschlange für den Online-Modus.
+ * <p>
+ * Spieler melden sich mit Bedenkzeit und Wertung an und erhalten ein
+ * {@link Ticket}. Pro Bedenkzeit gibt es einen eigenen Pool: Anmeldungen
+ * landen ohne Sperre in dessen Eingangs-Queue, gepaart wird in festen
+ * Intervallen stapelweise. Ein Paarungsdurchlauf sortiert die Wartenden eines
+ * Pools nach Wertung und paart Nachbarn, deren Wertungsdifferenz in beider
+ * Suchband liegt; das Band wächst mit der Wartezeit. Verschiedene Pools werden
+ * parallel gepaart, ein Pool nie von zwei Threads gleichzeitig. Erlaubt sind
+ * nur die Bedenkzeiten aus {@code chess.matchmaking.time-controls}, damit die
+ * Zahl der Pools (die nie entfernt werden) begrenzt bleibt.
+ * </p>
+ * <p>
+ * Ein Ticket wechselt genau einmal per CAS von WAITING nach PAIRING; erst dann
+ * wird das Spiel über {@link GameService#createGame} angelegt. Schlägt das
+ * fehl, gehen beide Tickets zurück in den Pool. Abmelden ist nur im Zustand
+ * WAITING möglich, sodass ein Spieler nie gleichzeitig gepaart und abgemeldet
+ * wird.
+ * </p>
+ */
+@Service
+public class MatchmakingService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchmakingService.class);
+
+    /** Zustand eines Tickets. */
+    public enum State {
+        WAITING, PAIRING, MATCHED, CANCELLED, EXPIRED
+    }
+
+    /** Eine Anmeldung in der Warteschlange. */
+    public static final class Ticket {
+        private final String id = UUID.randomUUID().toString();
+        private final String player;
+        private final Integer timeLimit;
+        private final int rating;
+        private final int band;
+        private final long enqueuedNanos = System.nanoTime();
+        private final AtomicReference<State> state = new AtomicReference<>(State.WAITING);
+        private final CompletableFuture<Ticket> result = new CompletableFuture<>();
+        private volatile Long gameId;
+        private volatile PieceColor color;
+        private volatile String opponent;
+        private volatile long resolvedNanos;
+
+        private Ticket(String player, Integer timeLimit, int rating, int band) {
+            this.player = player;
+            this.timeLimit = timeLimit;
+            this.rating = rating;
+            this.band = band;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getPlayer() {
+            return player;
+        }
+
+        public State getState() {
+            return state.get();
+        }
+
+        /** @return Wird abgeschlossen, sobald das Ticket gepaart, abgemeldet oder abgelaufen ist. */
+        public CompletableFuture<Ticket> getResult() {
+            return result;
+        }
+
+        private boolean isActive() {
+            State s = state.get();
+            return s == State.WAITING || s == State.PAIRING;
+        }
+    }
+
+    /** Wartende einer Bedenkzeit. */
+    private static final class Pool {
+        final Integer timeLimit;
+        /** Neue Anmeldungen (ohne Sperre). */
+        final ConcurrentLinkedQueue<Ticket> inbox = new ConcurrentLinkedQueue<>();
+        /** Bereits übernommene Wartende; nur unter {@link #pairing} verändert. */
+        final List<Ticket> waiting = new ArrayList<>();
+        final ReentrantLock pairing = new ReentrantLock();
+        /** Größe von {@link #waiting} für Leser ohne Sperre. */
+        volatile int size;
+
+        Pool(Integer timeLimit) {
+            this.timeLimit = timeLimit;
+        }
+    }
+
+    private final Map<Integer, Pool> pools = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> byPlayer = new ConcurrentHashMap<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chess.matchmaking.interval:PT0.1S}")
+    private Duration interval;
+
+    @Value("${chess.matchmaking.threads:2}")
+    private int threads;
+
+    @Value("${chess.matchmaking.band:100}")
+    private int defaultBand;
+
+    @Value("${chess.matchmaking.band-growth:50}")
+    private int bandGrowthPerSecond;
+
+    @Value("${chess.matchmaking.max-band:400}")
+    private int maxBand;
+
+    @Value("${chess.matchmaking.time-controls:0,60,180,300,600,900}")
+    private List<Integer> timeControls;
+
+    @Value("${chess.matchmaking.ticket-ttl:PT5M}")
+    private Duration ticketTtl;
+
+    @Value("${chess.matchmaking.result-ttl:PT1M}")
+    private Duration resultTtl;
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService pairers;
+    private Timer waitTimer;
+    private Timer passTimer;
+    private Counter matchCounter;
+
+    @PostConstruct
+    void init() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chess-matchmaking");
+            t.setDaemon(true);
+            return t;
+        });
+        pairers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "chess-matchmaking-pair");
+            t.setDaemon(true);
+            return t;
+        });
+        waitTimer = Timer.builder("chess.matchmaking.wait").description("Wartezeit bis zur Paarung")
+                .publishPercentileHistogram().register(meterRegistry);
+        passTimer = Timer.builder("chess.matchmaking.pass").register(meterRegistry);
+        matchCounter = Counter.builder("chess.matchmaking.matches").register(meterRegistry);
+        Gauge.builder("chess.matchmaking.waiting", waitingCount, AtomicInteger::get).register(meterRegistry);
+        long period = interval.toMillis();
+        ticker.scheduleWithFixedDelay(this::pairAll, period, period, TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(this::purge, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+        pairers.shutdownNow();
+    }
+
+    /**
+     * Meldet einen Spieler zur Paarung an.
+     *
+     * @param player    Spielername.
+     * @param timeLimit Bedenkzeit in Sekunden (null oder 0 für unbegrenzt); muss
+     *                  in {@code chess.matchmaking.time-controls} stehen.
+     * @param rating    Wertung des Spielers.
+     * @param band      Anfängliche maximale Wertungsdifferenz (null = Standard).
+     * @return Das Ticket.
+     * @throws IllegalArgumentException Wenn der Name fehlt oder die Bedenkzeit
+     *                                  nicht angeboten wird.
+     * @throws IllegalStateException    Wenn der Spieler bereits wartet.
+     */
+    public Ticket enqueue(String player, Integer timeLimit, int rating, Integer band) {
+        if (player == null || player.isBlank()) {
+            throw new IllegalArgumentException("Player name is required");
+        }
+        Integer limit = timeLimit != null && timeLimit > 0 ? timeLimit : null;
+        if (!timeControls.contains(limit == null ? 0 : limit)) {
+            throw new IllegalArgumentException("Unsupported time control: " + timeLimit);
+        }
+        Ticket ticket = new Ticket(player, limit, rating, band != null && band >= 0 ? band : defaultBand);
+        Ticket previous = byPlayer.putIfAbsent(player, ticket);
+        if (previous != null) {
+            if (previous.isActive() || !byPlayer.replace(player, previous, ticket)) {
+                throw new IllegalStateException("Player is already waiting");
+            }
+        }
+        tickets.put(ticket.id, ticket);
+        waitingCount.incrementAndGet();
+        pools.computeIfAbsent(limit == null ? 0 : limit, key -> new Pool(limit)).inbox.add(ticket);
+        return ticket;
+    }
+
+    /**
+     * Meldet ein wartendes Ticket ab.
+     *
+     * @param ticketId Ticket-ID.
+     * @return true, wenn das Ticket noch wartete (danach wird es nicht mehr gepaart).
+     */
+    public boolean cancel(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.state.compareAndSet(State.WAITING, State.CANCELLED)) {
+            return false;
+        }
+        resolve(ticket);
+        return true;
+    }
+
+    /**
+     * @param ticketId Ticket-ID.
+     * @return Das Ticket (solange es wartet oder bis kurz nach der Paarung).
+     */
+    public Optional<Ticket> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.get(ticketId));
+    }
+
+    /**
+     * @param ticket Das Ticket.
+     * @return Zustand, Wartezeit und ggf. Spiel-ID und Farbe als JSON-Map.
+     */
+    public Map<String, Object> describe(Ticket ticket) {
+        State state = ticket.state.get();
+        long end = ticket.resolvedNanos != 0 ? ticket.resolvedNanos : System.nanoTime();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("ticketId", ticket.id);
+        json.put("player", ticket.player);
+        json.put("state", state == State.PAIRING ? State.WAITING : state);
+        json.put("timeLimit", ticket.timeLimit);
+        json.put("rating", ticket.rating);
+        json.put("band", bandAt(ticket, end));
+        json.put("waitedMillis", TimeUnit.NANOSECONDS.toMillis(end - ticket.enqueuedNanos));
+        json.put("gameId", ticket.gameId);
+        json.put("color", ticket.color);
+        json.put("opponent", ticket.opponent);
+        return json;
+    }
+
+    /** Startet für jeden Pool mit Wartenden einen Paarungsdurchlauf (auch für Ablauf und Bandwachstum). */
+    private void pairAll() {
+        for (Pool pool : pools.values()) {
+            if (!pool.inbox.isEmpty() || pool.size > 0) {
+                pairers.execute(() -> pair(pool));
+            }
+        }
+    }
+
+    private void pair(Pool pool) {
+        if (!pool.pairing.tryLock()) {
+            return; // läuft bereits
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            long now = System.nanoTime();
+            long ttl = ticketTtl.toNanos();
+            for (Ticket ticket; (ticket = pool.inbox.poll()) != null; ) {
+                pool.waiting.add(ticket);
+            }
+            pool.waiting.removeIf(ticket -> {
+                if (ticket.state.get() != State.WAITING) {
+                    return true;
+                }
+                if (now - ticket.enqueuedNanos > ttl && ticket.state.compareAndSet(State.WAITING, State.EXPIRED)) {
+                    resolve(ticket);
+                    return true;
+                }
+                return false;
+            });
+            pool.waiting.sort(Comparator.comparingInt((Ticket ticket) -> ticket.rating)
+                    .thenComparingLong(ticket -> ticket.enqueuedNanos));
+
+            List<Ticket> remaining = new ArrayList<>(pool.waiting.size());
+            int i = 0;
+            while (i < pool.waiting.size()) {
+                Ticket a = pool.waiting.get(i);
+                Ticket b = i + 1 < pool.waiting.size() ? pool.waiting.get(i + 1) : null;
+                if (b != null && compatible(a, b, now) && match(pool, a, b)) {
+                    i += 2;
+                } else {
+                    if (a.state.get() == State.WAITING) {
+                        remaining.add(a);
+                    }
+                    i++;
+                }
+            }
+            pool.waiting.clear();
+            pool.waiting.addAll(remaining);
+            pool.size = remaining.size();
+        } catch (RuntimeException e) {
+            log.warn("event=matchmaking_pass_failed timeLimit={} error=\"{}\"", pool.timeLimit, e.toString());
+        } finally {
+            sample.stop(passTimer);
+            pool.pairing.unlock();
+        }
+    }
+
+    private boolean compatible(Ticket a, Ticket b, long now) {
+        int diff = Math.abs(a.rating - b.rating);
+        return !a.player.equals(b.player) && diff <= bandAt(a, now) && diff <= bandAt(b, now);
+    }
+
+    private int bandAt(Ticket ticket, long now) {
+        long waitedSeconds = TimeUnit.NANOSECONDS.toSeconds(now - ticket.enqueuedNanos);
+        return (int) Math.min(Math.max(ticket.band, maxBand), ticket.band + waitedSeconds * bandGrowthPerSecond);
+    }
+
+    /** Paart zwei Tickets und legt das Spiel an; false, wenn eines nicht mehr wartet. */
+    private boolean match(Pool pool, Ticket a, Ticket b) {
+        if (!a.state.compareAndSet(State.WAITING, State.PAIRING)) {
+            return false;
+        }
+        if (!b.state.compareAndSet(State.WAITING, State.PAIRING)) {
+            a.state.set(State.WAITING);
+            return false;
+        }
+        boolean aWhite = ThreadLocalRandom.current().nextBoolean();
+        Ticket white = aWhite ? a : b;
+        Ticket black = aWhite ? b : a;
+        Game game;
+        try {
+            game = gameService.createGame(white.player, black.player, true, pool.timeLimit);
+        } catch (RuntimeException e) {
+            a.state.set(State.WAITING);
+            b.state.set(State.WAITING);
+            throw e;
+        }
+        white.color = PieceColor.WHITE;
+        black.color = PieceColor.BLACK;
+        white.opponent = black.player;
+        black.opponent = white.player;
+        for (Ticket ticket : List.of(white, black)) {
+            ticket.gameId = game.getId();
+            ticket.state.set(State.MATCHED);
+            resolve(ticket);
+        }
+        matchCounter.increment();
+        return true;
+    }
+
+    private void resolve(Ticket ticket) {
+        ticket.resolvedNanos = System.nanoTime();
+        waitingCount.decrementAndGet();
+        byPlayer.remove(ticket.player, ticket);
+        if (ticket.state.get() == State.MATCHED) {
+            waitTimer.record(ticket.resolvedNanos - ticket.enqueuedNanos, TimeUnit.NANOSECONDS);
+        }
+        ticket.result.complete(ticket);
+    }
+
+    /** Entfernt erledigte Tickets nach der Aufbewahrungszeit. */
+    private void purge() {
+        long now = System.nanoTime();
+        long ttl = resultTtl.toNanos();
+        tickets.values().removeIf(ticket -> ticket.resolvedNanos != 0 && now - ticket.resolvedNanos > ttl);
+    }
+}
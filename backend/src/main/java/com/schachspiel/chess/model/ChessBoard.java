@@ -1,8 +1,16 @@
 package com.schachspiel.chess.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +41,24 @@ public class ChessBoard {
      */
     private Position enPassantTarget;
 
+    /**
+     * Halbzüge seit dem letzten Bauernzug oder Schlagzug (50- bzw. 75-Züge-Regel).
+     * Wird in {@link #makeMove(Move)} fortgeschrieben.
+     */
+    private int halfmoveClock;
+
+    /**
+     * Fortgeschriebene Stellungsbewertung (abgeleiteter Zustand, wird nicht
+     * serialisiert). null bedeutet "ungültig": dann wird sie beim nächsten
+     * Zugriff einmal aus dem Brett berechnet.
+     */
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Evaluation evaluation;
+
     /**
      * Erstellt ein neues Schachbrett in der Standard-Startaufstellung.
      */
@@ -43,6 +69,57 @@ public class ChessBoard {
         initializeBoard();
     }
 
+    /**
+     * Setzt das Spielfeld (z.B. beim Deserialisieren) und verwirft die
+     * fortgeschriebene Bewertung.
+     *
+     * @param board Das 8x8 Spielfeld.
+     */
+    public void setBoard(Piece[][] board) {
+        this.board = board;
+        this.evaluation = null;
+    }
+
+    /**
+     * Liefert die statische Bewertung der Stellung (Material, Figur-Feld-Tabellen,
+     * Bauernstruktur) in Centipawns aus Sicht von Weiß.
+     * <p>
+     * Die Bewertung wird in {@link #makeMove(Move)} fortgeschrieben und kostet
+     * hier nur eine Addition weniger Summen.
+     * </p>
+     *
+     * @return Bewertung (positiv = Vorteil Weiß).
+     */
+    @JsonIgnore
+    public int getEvaluation() {
+        if (evaluation == null) {
+            evaluation = Evaluation.of(board);
+        }
+        return evaluation.score();
+    }
+
+    /**
+     * Übernimmt eine außerhalb des Brettes mitgeführte Bewertung derselben
+     * Stellung (z.B. nach dem Deserialisieren), damit sie nicht neu aus den 64
+     * Feldern berechnet werden muss.
+     *
+     * @param evaluation Bewertung dieser Stellung (wird kopiert; null = keine).
+     */
+    public void restoreEvaluation(Evaluation evaluation) {
+        this.evaluation = evaluation != null ? evaluation.copy() : null;
+    }
+
+    /**
+     * @return Die fortgeschriebene Bewertung dieser Stellung zum Mitführen
+     *         außerhalb des Brettes (wird bei weiteren Zügen verändert).
+     */
+    public Evaluation evaluationState() {
+        if (evaluation == null) {
+            evaluation = Evaluation.of(board);
+        }
+        return evaluation;
+    }
+
     /**
      * Copy-Konstruktor zur Erstellung einer tiefen Kopie (Deep Copy) des Brettes.
      * <p>
@@ -68,6 +145,8 @@ public class ChessBoard {
         this.currentTurn = other.currentTurn;
         this.moveHistory = new ArrayList<>(other.moveHistory);
         this.enPassantTarget = other.enPassantTarget;
+        this.halfmoveClock = other.halfmoveClock;
+        this.evaluation = other.evaluation != null ? other.evaluation.copy() : null;
     }
 
     /**
@@ -123,6 +202,7 @@ public class ChessBoard {
     public void setPieceAt(Position position, Piece piece) {
         if (position.isValid()) {
             board[position.getRow()][position.getCol()] = piece;
+            evaluation = null;
         }
     }
 
@@ -180,6 +260,55 @@ public class ChessBoard {
         return validMoves;
     }
 
+    /**
+     * Ermittelt alle legalen Züge des Spielers am Zug.
+     *
+     * @return Liste aller legalen Züge (leer bei Matt oder Patt).
+     */
+    @JsonIgnore
+    public List<Move> getAllLegalMoves() {
+        List<Move> moves = new ArrayList<>();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board[row][col];
+                if (piece != null && piece.getColor() == currentTurn) {
+                    moves.addAll(getValidMoves(new Position(row, col)));
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Ermittelt in einem Durchgang alle legalen Züge des Spielers am Zug,
+     * gruppiert nach Startfeld (für die Zughervorhebung im Frontend ohne
+     * weitere Anfragen).
+     *
+     * @return Startfeld → Zielfelder in Schachnotation (z.B. "e2" → ["e3", "e4"]),
+     *         nur Felder mit mindestens einem Zug; leer bei Matt oder Patt.
+     */
+    @JsonIgnore
+    public Map<String, List<String>> getLegalMoveMap() {
+        Map<String, List<String>> moves = new LinkedHashMap<>();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board[row][col];
+                if (piece == null || piece.getColor() != currentTurn) {
+                    continue;
+                }
+                List<Move> valid = getValidMoves(new Position(row, col));
+                if (!valid.isEmpty()) {
+                    List<String> targets = new ArrayList<>(valid.size());
+                    for (Move move : valid) {
+                        targets.add(move.getTo().toNotation());
+                    }
+                    moves.put(new Position(row, col).toNotation(), targets);
+                }
+            }
+        }
+        return moves;
+    }
+
     /**
      * Prüft die rein geometrische Gültigkeit eines Zuges für eine Figur.
      * <p>
@@ -385,6 +514,8 @@ public class ChessBoard {
 
         move.setPiece(piece);
         move.setCapturedPiece(getPieceAt(to));
+        // Bauernzüge und Schlagzüge (auch en passant) sind unumkehrbar
+        halfmoveClock = piece.getType() == PieceType.PAWN || move.getCapturedPiece() != null ? 0 : halfmoveClock + 1;
 
         // Auto-detect En Passant
         boolean isEnPassantMove = false;
@@ -397,9 +528,21 @@ public class ChessBoard {
             move.setEnPassant(true);
         }
 
+        // Bewertung fortschreiben: Figur verlässt das Startfeld, Geschlagenes verschwindet
+        Evaluation eval = evaluation;
+        if (eval != null) {
+            eval.remove(piece, from.getRow(), from.getCol());
+            if (move.getCapturedPiece() != null) {
+                eval.remove(move.getCapturedPiece(), to.getRow(), to.getCol());
+            }
+        }
+
         // Handle En Passant Execution
         if (isEnPassantMove) {
             int captureRow = piece.getColor() == PieceColor.WHITE ? to.getRow() - 1 : to.getRow() + 1;
+            if (eval != null && board[captureRow][to.getCol()] != null) {
+                eval.remove(board[captureRow][to.getCol()], captureRow, to.getCol());
+            }
             board[captureRow][to.getCol()] = null; // Remove captured pawn
         }
 
@@ -433,14 +576,23 @@ public class ChessBoard {
             Piece rook = board[from.getRow()][rookFromCol];
             board[from.getRow()][rookToCol] = rook;
             board[from.getRow()][rookFromCol] = null;
-            if (rook != null)
+            if (rook != null) {
                 rook.setHasMoved(true);
+                if (eval != null) {
+                    eval.remove(rook, from.getRow(), rookFromCol);
+                    eval.add(rook, from.getRow(), rookToCol);
+                }
+            }
         }
 
-        // Move the piece
-        setPieceAt(to, piece);
-        setPieceAt(from, null);
+        // Move the piece (direkt, setPieceAt würde die Bewertung verwerfen)
+        board[to.getRow()][to.getCol()] = piece;
+        board[from.getRow()][from.getCol()] = null;
         piece.setHasMoved(true);
+        if (eval != null) {
+            // Nach einer Umwandlung mit dem neuen Figurentyp
+            eval.add(piece, to.getRow(), to.getCol());
+        }
 
         // Add to history and switch turn
         moveHistory.add(move);
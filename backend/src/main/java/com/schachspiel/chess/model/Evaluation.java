@@ -0,0 +1,226 @@
+package com.schachspiel.chess.model;
+
+/**
+ * Statische Stellungsbewertung, die Zug für Zug fortgeschrieben wird.
+ * <p>
+ * Bewertet werden Material, Figur-Feld-Tabellen (Piece-Square-Tables) und eine
+ * einfache Bauernstruktur (Doppel- und isolierte Bauern). Die Summen werden
+ * beim Setzen und Entfernen einer Figur angepasst ({@link #add}/{@link #remove}),
+ * sodass {@link #score()} ohne Durchlauf über die 64 Felder auskommt. Die
+ * Königstabelle wird zwischen Mittel- und Endspiel anhand der verbliebenen
+ * Leichtfiguren, Türme und Damen interpoliert.
+ * </p>
+ * <p>
+ * Alle Werte sind Centipawns aus Sicht von Weiß (positiv = Weiß steht besser).
+ * Tabellen nach der "Simplified Evaluation Function" (T. Michniewski).
+ * </p>
+ */
+public final class Evaluation {
+
+    private static final int MAX_PHASE = 24;
+    private static final int DOUBLED_PAWN = -15;
+    private static final int ISOLATED_PAWN = -15;
+
+    // Tabellen aus Sicht von Weiß, erste Zeile = 8. Reihe
+    private static final int[] PAWN = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0 };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50 };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20 };
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0 };
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20 };
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20 };
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50 };
+
+    /** Material + Tabelle aller Figuren außer den Königen. */
+    private int pieceSquare;
+    private int kingMiddlegame;
+    private int kingEndgame;
+    private int phase;
+    /** Bauern pro Linie: Index 0-7 Weiß, 8-15 Schwarz. */
+    private final int[] pawnsPerFile;
+
+    private Evaluation() {
+        this.pawnsPerFile = new int[16];
+    }
+
+    private Evaluation(Evaluation other) {
+        this.pieceSquare = other.pieceSquare;
+        this.kingMiddlegame = other.kingMiddlegame;
+        this.kingEndgame = other.kingEndgame;
+        this.phase = other.phase;
+        this.pawnsPerFile = other.pawnsPerFile.clone();
+    }
+
+    /**
+     * Berechnet die Bewertung einmal vollständig aus dem Brett.
+     *
+     * @param board Das 8x8 Spielfeld.
+     * @return Die Bewertung.
+     */
+    public static Evaluation of(Piece[][] board) {
+        Evaluation evaluation = new Evaluation();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                if (board[row][col] != null) {
+                    evaluation.add(board[row][col], row, col);
+                }
+            }
+        }
+        return evaluation;
+    }
+
+    public Evaluation copy() {
+        return new Evaluation(this);
+    }
+
+    /** Eine Figur wurde auf (row, col) gesetzt. */
+    public void add(Piece piece, int row, int col) {
+        update(piece, row, col, 1);
+    }
+
+    /** Eine Figur wurde von (row, col) entfernt. */
+    public void remove(Piece piece, int row, int col) {
+        update(piece, row, col, -1);
+    }
+
+    private void update(Piece piece, int row, int col, int sign) {
+        PieceColor color = piece.getColor();
+        int index = tableIndex(color, row, col);
+        int side = color == PieceColor.WHITE ? sign : -sign;
+        PieceType type = piece.getType();
+        if (type == PieceType.KING) {
+            kingMiddlegame += side * KING_MIDDLEGAME[index];
+            kingEndgame += side * KING_ENDGAME[index];
+            return;
+        }
+        pieceSquare += side * (value(type) + table(type)[index]);
+        phase += sign * phaseWeight(type);
+        if (type == PieceType.PAWN) {
+            pawnsPerFile[(color == PieceColor.WHITE ? 0 : 8) + col] += sign;
+        }
+    }
+
+    /**
+     * @return Bewertung in Centipawns aus Sicht von Weiß.
+     */
+    public int score() {
+        int p = Math.min(phase, MAX_PHASE);
+        int king = (kingMiddlegame * p + kingEndgame * (MAX_PHASE - p)) / MAX_PHASE;
+        return pieceSquare + king + pawnStructure(0) - pawnStructure(8);
+    }
+
+    private int pawnStructure(int offset) {
+        int score = 0;
+        for (int file = 0; file < 8; file++) {
+            int pawns = pawnsPerFile[offset + file];
+            if (pawns == 0) {
+                continue;
+            }
+            if (pawns > 1) {
+                score += DOUBLED_PAWN * (pawns - 1);
+            }
+            boolean left = file > 0 && pawnsPerFile[offset + file - 1] > 0;
+            boolean right = file < 7 && pawnsPerFile[offset + file + 1] > 0;
+            if (!left && !right) {
+                score += ISOLATED_PAWN * pawns;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * @param type Figurentyp.
+     * @return Materialwert in Centipawns (König 0).
+     */
+    public static int value(PieceType type) {
+        return switch (type) {
+            case PAWN -> 100;
+            case KNIGHT -> 320;
+            case BISHOP -> 330;
+            case ROOK -> 500;
+            case QUEEN -> 900;
+            case KING -> 0;
+        };
+    }
+
+    private static int phaseWeight(PieceType type) {
+        return switch (type) {
+            case KNIGHT, BISHOP -> 1;
+            case ROOK -> 2;
+            case QUEEN -> 4;
+            default -> 0;
+        };
+    }
+
+    private static int[] table(PieceType type) {
+        return switch (type) {
+            case PAWN -> PAWN;
+            case KNIGHT -> KNIGHT;
+            case BISHOP -> BISHOP;
+            case ROOK -> ROOK;
+            case QUEEN -> QUEEN;
+            case KING -> KING_MIDDLEGAME;
+        };
+    }
+
+    /** Brettzeile 0 ist die 1. Reihe; Schwarz liest die Tabelle gespiegelt. */
+    private static int tableIndex(PieceColor color, int row, int col) {
+        int rank = color == PieceColor.WHITE ? row : 7 - row;
+        return (7 - rank) * 8 + col;
+    }
+}
@@ -1,9 +1,13 @@
 package com.schachspiel.chess.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Repräsentiert eine Spielinstanz (Session).
@@ -40,6 +44,36 @@ public class Game {
     /** Der Gewinner des Spiels (null, wenn noch nicht entschieden). */
     private String winner; // "WHITE" or "BLACK"
 
+    /**
+     * Versionsnummer des Spielstands; steigt mit jeder Änderung.
+     * <p>
+     * Jeder Halbzug erhöht die Version um genau 1, ein Spielende ohne Zug
+     * (Zeitablauf) ebenfalls um 1. Damit gilt: bei Version v waren
+     * {@code min(v, moveCount)} Züge gespielt.
+     * </p>
+     */
+    private long version;
+
+    /** Anzahl gespielter Halbzüge. */
+    private int moveCount;
+
+    /**
+     * Statische Bewertung der aktuellen Stellung in Centipawns aus Sicht von
+     * Weiß (siehe {@link Evaluation}); wird bei jedem Zug aktualisiert.
+     */
+    private Integer evaluation;
+
+    /**
+     * Fortgeschriebene Bewertungssummen zu {@link #boardState}; nur serverintern.
+     * Wird von Zug zu Zug übernommen, damit das Brett nach dem Deserialisieren
+     * nicht neu bewertet werden muss. null = noch nicht aufgebaut (z.B. nach
+     * dem Laden aus dem Cold-Tier).
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Evaluation evaluationState;
+
     /** Der aktuelle Status (LÄUFT, MATT, etc.). */
     private GameStatus status;
 
@@ -60,12 +94,42 @@ public class Game {
 
     private Integer blackTimeRemaining;
 
+    /** Restzeit Weiß in Millisekunden (genaue Schachuhr; null = unbegrenzt). */
+    private Long whiteClockMillis;
+
+    /** Restzeit Schwarz in Millisekunden (genaue Schachuhr; null = unbegrenzt). */
+    private Long blackClockMillis;
+
+    /** Monotoner Zeitstempel ({@link System#nanoTime()}) des Zugbeginns; nur serverintern. */
+    @JsonIgnore
+    private long turnStartedNanos;
+
+    /**
+     * Zobrist-Hashes der Stellungen seit dem letzten Bauern- oder Schlagzug
+     * (einschließlich der aktuellen) für die Wiederholungserkennung; nur
+     * serverintern. null = noch nicht aufgebaut (z.B. nach dem Laden als JSON).
+     */
+    @JsonIgnore
+    private List<Long> positionHashes;
+
     public void onCreate() {
         createdAt = LocalDateTime.now();
         lastMoveAt = LocalDateTime.now();
+        turnStartedNanos = System.nanoTime();
     }
 
     public void onUpdate() {
         lastMoveAt = LocalDateTime.now();
+        turnStartedNanos = System.nanoTime();
+    }
+
+    /**
+     * Prüft, ob für dieses Spiel eine Schachuhr läuft.
+     *
+     * @return true bei Zeitlimit und laufendem Spiel.
+     */
+    @JsonIgnore
+    public boolean isClockRunning() {
+        return timeLimit != null && timeLimit > 0 && status == GameStatus.IN_PROGRESS;
     }
 }
@@ -0,0 +1,83 @@
+package com.schachspiel.chess.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Änderungen eines Spiels seit einer dem Client bekannten Version.
+ * <p>
+ * Statt des vollständigen Spiels (Brett plus gesamte Historie) enthält das
+ * Delta nur die neuen Züge sowie Status und Uhren. Der Client spielt die
+ * Züge auf seinem lokalen Brett nach.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameDelta {
+    private Long id;
+
+    /** Version, auf die sich das Delta bezieht (vom Client geliefert). */
+    private long sinceVersion;
+
+    /** Aktuelle Version nach Anwendung des Deltas. */
+    private long version;
+
+    /** Züge, die seit {@code sinceVersion} gespielt wurden. */
+    private List<Move> moves;
+
+    /** Die beim letzten neuen Zug geschlagene Figur (falls vorhanden). */
+    private Piece capturedPiece;
+
+    private GameStatus status;
+    private String winner;
+    private PieceColor currentTurn;
+    private boolean check;
+    private Integer evaluation;
+    private Long whiteClockMillis;
+    private Long blackClockMillis;
+    private Integer whiteTimeRemaining;
+    private Integer blackTimeRemaining;
+    private LocalDateTime lastMoveAt;
+
+    /**
+     * Legale Züge des Spielers am Zug (Startfeld → Zielfelder), nur auf
+     * Anfrage ({@code legalMoves=true}) gesetzt.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, List<String>> legalMoves;
+
+    /**
+     * Erstellt das Delta aus dem aktuellen Spielstand.
+     *
+     * @param game  Das Spiel.
+     * @param since Die Ausgangsversion.
+     * @param moves Die neuen Züge.
+     * @return Das Delta.
+     */
+    public static GameDelta of(Game game, long since, List<Move> moves) {
+        Piece captured = moves.isEmpty() ? null : moves.get(moves.size() - 1).getCapturedPiece();
+        return new GameDelta(
+                game.getId(),
+                since,
+                game.getVersion(),
+                moves,
+                captured,
+                game.getStatus(),
+                game.getWinner(),
+                game.getCurrentTurn(),
+                game.isCheck(),
+                game.getEvaluation(),
+                game.getWhiteClockMillis(),
+                game.getBlackClockMillis(),
+                game.getWhiteTimeRemaining(),
+                game.getBlackTimeRemaining(),
+                game.getLastMoveAt(),
+                null);
+    }
+}
@@ -0,0 +1,51 @@
+package com.schachspiel.chess.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Kompakte Projektion eines Spiels für die Lobby-Ansicht.
+ * <p>
+ * Enthält nur die Metadaten, die für eine Spielliste benötigt werden –
+ * ohne serialisiertes Brett und ohne Zughistorie.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameSummary {
+    private Long id;
+    private long version;
+    private String whitePlayer;
+    private String blackPlayer;
+    private GameStatus status;
+    private PieceColor currentTurn;
+    private String winner;
+    private Integer timeLimit;
+    private Integer whiteTimeRemaining;
+    private Integer blackTimeRemaining;
+    private LocalDateTime lastMoveAt;
+
+    /**
+     * Erstellt die Projektion aus einem vollständigen Spiel.
+     *
+     * @param game Das Spiel.
+     * @return Die Zusammenfassung.
+     */
+    public static GameSummary of(Game game) {
+        return new GameSummary(
+                game.getId(),
+                game.getVersion(),
+                game.getWhitePlayer(),
+                game.getBlackPlayer(),
+                game.getStatus(),
+                game.getCurrentTurn(),
+                game.getWinner(),
+                game.getTimeLimit(),
+                game.getWhiteTimeRemaining(),
+                game.getBlackTimeRemaining(),
+                game.getLastMoveAt());
+    }
+}
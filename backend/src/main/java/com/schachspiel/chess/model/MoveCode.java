@@ -0,0 +1,82 @@
+package com.schachspiel.chess.model;
+
+/**
+ * 16-Bit-Kodierung eines Halbzugs für kompakte Speicherung.
+ * <p>
+ * Startfeld (Bits 0-5), Zielfeld (6-11), jeweils {@code Reihe * 8 + Linie},
+ * und Umwandlungsfigur (12-14): 0 = keine, 1 Springer, 2 Läufer, 3 Turm,
+ * 4 Dame. Das Format wird dauerhaft gespeichert (Eröffnungsbuch, ausgelagerte
+ * Spiele); die Zuordnung darf sich daher nicht ändern.
+ * </p>
+ */
+public final class MoveCode {
+
+    private static final PieceType[] PROMOTIONS = {null, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK,
+            PieceType.QUEEN};
+
+    private MoveCode() {
+    }
+
+    /**
+     * @param move Der Zug (Start und Ziel auf dem Brett).
+     * @return Der Zugcode.
+     * @throws IllegalArgumentException Wenn ein Feld fehlt oder außerhalb liegt
+     *                                  oder die Umwandlungsfigur unmöglich ist.
+     */
+    public static int encode(Move move) {
+        return encode(move.getFrom(), move.getTo(), move.getPromotionPiece());
+    }
+
+    /**
+     * @param from      Startfeld.
+     * @param to        Zielfeld.
+     * @param promotion Umwandlungsfigur oder null.
+     * @return Der Zugcode.
+     * @throws IllegalArgumentException Wenn ein Feld fehlt oder außerhalb liegt
+     *                                  oder die Umwandlungsfigur unmöglich ist.
+     */
+    public static int encode(Position from, Position to, PieceType promotion) {
+        if (from == null || to == null || !from.isValid() || !to.isValid()) {
+            throw new IllegalArgumentException("Move needs two squares on the board");
+        }
+        return square(from) | square(to) << 6 | promotionCode(promotion) << 12;
+    }
+
+    /**
+     * @param code Zugcode aus {@link #encode}.
+     * @return Ein neuer Zug mit Start, Ziel und ggf. Umwandlungsfigur.
+     * @throws IllegalArgumentException Bei ungültiger Umwandlungsfigur.
+     */
+    public static Move decode(int code) {
+        int promotion = code >> 12 & 7;
+        if (promotion >= PROMOTIONS.length) {
+            throw new IllegalArgumentException("Invalid promotion in move code " + code);
+        }
+        Move move = new Move();
+        move.setFrom(position(code & 63));
+        move.setTo(position(code >> 6 & 63));
+        move.setPromotionPiece(PROMOTIONS[promotion]);
+        return move;
+    }
+
+    private static int promotionCode(PieceType promotion) {
+        if (promotion == null) {
+            return 0;
+        }
+        return switch (promotion) {
+            case KNIGHT -> 1;
+            case BISHOP -> 2;
+            case ROOK -> 3;
+            case QUEEN -> 4;
+            default -> throw new IllegalArgumentException("Invalid promotion piece " + promotion);
+        };
+    }
+
+    private static int square(Position position) {
+        return position.getRow() * 8 + position.getCol();
+    }
+
+    private static Position position(int square) {
+        return new Position(square / 8, square % 8);
+    }
+}
@@ -0,0 +1,102 @@
+package com.schachspiel.chess.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist-Hash einer Stellung (64 Bit).
+ * <p>
+ * Berücksichtigt Figuren, Seite am Zug, Rochaderechte und die
+ * En-Passant-Linie. Die En-Passant-Linie zählt nur, wenn tatsächlich ein
+ * Bauer schlagen kann, sodass Zugumstellungen denselben Hash ergeben. Die
+ * Zufallswerte sind fest (Seed), damit Hashes über Neustarts hinweg stabil
+ * bleiben und gespeichert werden können.
+ * </p>
+ */
+public final class Zobrist {
+
+    private static final long[] PIECES = new long[12 * 64];
+    private static final long BLACK_TO_MOVE;
+    /** Weiß kurz, Weiß lang, Schwarz kurz, Schwarz lang. */
+    private static final long[] CASTLING = new long[4];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5C4AC45C4AC4L);
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            EN_PASSANT_FILE[i] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param board Die Stellung.
+     * @return Der Hash.
+     */
+    public static long hash(ChessBoard board) {
+        Piece[][] squares = board.getBoard();
+        long hash = 0;
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = squares[row][col];
+                if (piece != null) {
+                    int kind = piece.getType().ordinal() * 2 + (piece.getColor() == PieceColor.WHITE ? 0 : 1);
+                    hash ^= PIECES[kind * 64 + row * 8 + col];
+                }
+            }
+        }
+        if (board.getCurrentTurn() == PieceColor.BLACK) {
+            hash ^= BLACK_TO_MOVE;
+        }
+        if (canCastle(squares, 0, 7)) {
+            hash ^= CASTLING[0];
+        }
+        if (canCastle(squares, 0, 0)) {
+            hash ^= CASTLING[1];
+        }
+        if (canCastle(squares, 7, 7)) {
+            hash ^= CASTLING[2];
+        }
+        if (canCastle(squares, 7, 0)) {
+            hash ^= CASTLING[3];
+        }
+        Position ep = board.getEnPassantTarget();
+        if (ep != null && canCaptureEnPassant(squares, board.getCurrentTurn(), ep)) {
+            hash ^= EN_PASSANT_FILE[ep.getCol()];
+        }
+        return hash;
+    }
+
+    /** Rochaderecht: König und Turm stehen unbewegt auf ihren Ausgangsfeldern. */
+    private static boolean canCastle(Piece[][] squares, int row, int rookCol) {
+        PieceColor color = row == 0 ? PieceColor.WHITE : PieceColor.BLACK;
+        Piece king = squares[row][4];
+        Piece rook = squares[row][rookCol];
+        return king != null && king.getType() == PieceType.KING && king.getColor() == color && !king.isHasMoved()
+                && rook != null && rook.getType() == PieceType.ROOK && rook.getColor() == color && !rook.isHasMoved();
+    }
+
+    private static boolean canCaptureEnPassant(Piece[][] squares, PieceColor side, Position target) {
+        int row = side == PieceColor.WHITE ? target.getRow() - 1 : target.getRow() + 1;
+        if (row < 0 || row > 7) {
+            return false;
+        }
+        for (int col = target.getCol() - 1; col <= target.getCol() + 1; col += 2) {
+            if (col >= 0 && col < 8) {
+                Piece piece = squares[row][col];
+                if (piece != null && piece.getType() == PieceType.PAWN && piece.getColor() == side) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
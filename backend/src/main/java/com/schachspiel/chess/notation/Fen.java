@@ -0,0 +1,163 @@
+package com.schachspiel.chess.notation;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Piece;
+import com.schachspiel.chess.model.PieceColor;
+import com.schachspiel.chess.model.PieceType;
+import com.schachspiel.chess.model.Position;
+
+/**
+ * Forsyth-Edwards-Notation (FEN).
+ * <p>
+ * Liest und schreibt Figurenstellung, Seite am Zug, Rochaderechte und
+ * En-Passant-Feld sowie den Halbzugzähler (fehlt er, gilt 0). Die Zugnummer
+ * wird beim Lesen ignoriert und beim Schreiben als 1 ausgegeben.
+ * Rochaderechte werden über das {@code hasMoved}-Flag von König und Türmen
+ * abgebildet.
+ * </p>
+ */
+public final class Fen {
+
+    private Fen() {
+    }
+
+    /**
+     * @param fen Die FEN (mindestens die ersten beiden Felder).
+     * @return Ein neues Brett mit der Stellung.
+     * @throws IllegalArgumentException Wenn die FEN nicht lesbar ist.
+     */
+    public static ChessBoard parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] ranks = fields[0].split("/");
+        if (fields.length < 2 || ranks.length != 8) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+        Piece[][] squares = new Piece[8][8];
+        for (int i = 0; i < 8; i++) {
+            int row = 7 - i;
+            int col = 0;
+            for (char c : ranks[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                } else {
+                    if (col > 7) {
+                        throw new IllegalArgumentException("Invalid FEN rank: " + ranks[i]);
+                    }
+                    Piece piece = new Piece(type(c), Character.isUpperCase(c) ? PieceColor.WHITE : PieceColor.BLACK);
+                    // Bauern außerhalb der Grundreihe haben schon gezogen (kein Doppelschritt)
+                    piece.setHasMoved(piece.getType() == PieceType.PAWN
+                            && row != (piece.getColor() == PieceColor.WHITE ? 1 : 6));
+                    squares[row][col++] = piece;
+                }
+            }
+            if (col != 8) {
+                throw new IllegalArgumentException("Invalid FEN rank: " + ranks[i]);
+            }
+        }
+
+        String castling = fields.length > 2 ? fields[2] : "-";
+        markCastling(squares, 0, castling.indexOf('K') >= 0, castling.indexOf('Q') >= 0);
+        markCastling(squares, 7, castling.indexOf('k') >= 0, castling.indexOf('q') >= 0);
+
+        ChessBoard board = new ChessBoard();
+        board.setBoard(squares);
+        board.setCurrentTurn(switch (fields[1]) {
+            case "w" -> PieceColor.WHITE;
+            case "b" -> PieceColor.BLACK;
+            default -> throw new IllegalArgumentException("Invalid side to move: " + fields[1]);
+        });
+        board.setEnPassantTarget(fields.length > 3 && !fields[3].equals("-") ? new Position(fields[3]) : null);
+        board.setHalfmoveClock(fields.length > 4 ? Integer.parseInt(fields[4]) : 0);
+        return board;
+    }
+
+    /**
+     * @param board Die Stellung.
+     * @return Die FEN (Zugnummer 1).
+     */
+    public static String toFen(ChessBoard board) {
+        Piece[][] squares = board.getBoard();
+        StringBuilder fen = new StringBuilder();
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                Piece piece = squares[row][col];
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char c = letter(piece.getType());
+                fen.append(piece.getColor() == PieceColor.WHITE ? Character.toUpperCase(c) : c);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(board.getCurrentTurn() == PieceColor.WHITE ? " w " : " b ");
+        StringBuilder castling = new StringBuilder();
+        if (castlingRight(squares, 0, 7)) castling.append('K');
+        if (castlingRight(squares, 0, 0)) castling.append('Q');
+        if (castlingRight(squares, 7, 7)) castling.append('k');
+        if (castlingRight(squares, 7, 0)) castling.append('q');
+        fen.append(castling.length() > 0 ? castling : "-");
+        Position ep = board.getEnPassantTarget();
+        fen.append(' ').append(ep != null ? ep.toNotation() : "-")
+                .append(' ').append(board.getHalfmoveClock()).append(" 1");
+        return fen.toString();
+    }
+
+    /** König und Turm ohne Rochaderecht gelten als bewegt. */
+    private static void markCastling(Piece[][] squares, int row, boolean kingSide, boolean queenSide) {
+        Piece king = squares[row][4];
+        if (king == null || king.getType() != PieceType.KING) {
+            return;
+        }
+        king.setHasMoved(!kingSide && !queenSide);
+        markRook(squares[row][7], !kingSide);
+        markRook(squares[row][0], !queenSide);
+    }
+
+    private static void markRook(Piece rook, boolean moved) {
+        if (rook != null && rook.getType() == PieceType.ROOK) {
+            rook.setHasMoved(moved);
+        }
+    }
+
+    private static boolean castlingRight(Piece[][] squares, int row, int rookCol) {
+        Piece king = squares[row][4];
+        Piece rook = squares[row][rookCol];
+        PieceColor color = row == 0 ? PieceColor.WHITE : PieceColor.BLACK;
+        return king != null && king.getType() == PieceType.KING && king.getColor() == color && !king.isHasMoved()
+                && rook != null && rook.getType() == PieceType.ROOK && rook.getColor() == color && !rook.isHasMoved();
+    }
+
+    private static PieceType type(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'p' -> PieceType.PAWN;
+            case 'n' -> PieceType.KNIGHT;
+            case 'b' -> PieceType.BISHOP;
+            case 'r' -> PieceType.ROOK;
+            case 'q' -> PieceType.QUEEN;
+            case 'k' -> PieceType.KING;
+            default -> throw new IllegalArgumentException("Invalid FEN piece: " + c);
+        };
+    }
+
+    private static char letter(PieceType type) {
+        return switch (type) {
+            case PAWN -> 'p';
+            case KNIGHT -> 'n';
+            case BISHOP -> 'b';
+            case ROOK -> 'r';
+            case QUEEN -> 'q';
+            case KING -> 'k';
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.schachspiel.chess.notation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming-Tokenizer für PGN-Zugtext.
+ * <p>
+ * Liest Zeichen für Zeichen aus einem {@link Reader} und liefert nacheinander
+ * die SAN-Züge der Hauptvariante. Tag-Paare ({@code [White "..."]}),
+ * Kommentare, Varianten, NAGs und Zugnummern werden übersprungen. Das Lesen
+ * endet beim Ergebnis-Token ({@code 1-0}, {@code 0-1}, {@code 1/2-1/2},
+ * {@code *}) oder am Ende der Eingabe. Es wird nie mehr als ein Token im
+ * Speicher gehalten, daher eignet sich die Klasse auch für sehr große Dateien.
+ * </p>
+ */
+public class PgnReader {
+
+    private final Reader in;
+    private int pushback = -2;
+    private boolean finished;
+
+    public PgnReader(Reader in) {
+        this.in = in instanceof BufferedReader ? in : new BufferedReader(in);
+    }
+
+    /**
+     * Liefert den nächsten SAN-Zug.
+     *
+     * @return Der Zug (z.B. "Nf3", "exd5", "O-O") oder null am Ende der Partie.
+     * @throws IOException Bei Lesefehlern oder unvollständigem PGN.
+     */
+    public String nextSan() throws IOException {
+        while (!finished) {
+            int c = read();
+            if (c == -1) {
+                finished = true;
+                return null;
+            }
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            switch (c) {
+                case '[' -> skipTag();
+                case '{' -> skipUntil('}');
+                case ';' -> skipLine();
+                case '(' -> skipVariation();
+                case '$' -> readToken(c);
+                default -> {
+                    String token = stripMoveNumber(readToken(c));
+                    if (isResult(token)) {
+                        finished = true;
+                        return null;
+                    }
+                    if (!token.isEmpty()) {
+                        return token;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private String readToken(int first) throws IOException {
+        StringBuilder token = new StringBuilder();
+        token.append((char) first);
+        while (true) {
+            int c = read();
+            if (c == -1 || Character.isWhitespace(c) || "{}()[];$".indexOf(c) >= 0) {
+                pushback = c;
+                return token.toString();
+            }
+            token.append((char) c);
+        }
+    }
+
+    private void skipTag() throws IOException {
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new IOException("Unterminated tag pair");
+            }
+            if (quoted && c == '\\') {
+                read();
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ']' && !quoted) {
+                return;
+            }
+        }
+    }
+
+    private void skipUntil(char end) throws IOException {
+        int c;
+        while ((c = read()) != end) {
+            if (c == -1) {
+                throw new IOException("Unterminated comment");
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = read()) != '\n' && c != -1) {
+            // skip
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            switch (c) {
+                case -1 -> throw new IOException("Unterminated variation");
+                case '(' -> depth++;
+                case ')' -> depth--;
+                case '{' -> skipUntil('}');
+                case ';' -> skipLine();
+                default -> {
+                    // skip
+                }
+            }
+        }
+    }
+
+    /** Entfernt Zugnummern wie "12." oder "12..." (auch direkt vor dem Zug: "12.e4"). */
+    private static String stripMoveNumber(String token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i == token.length() || token.charAt(i) != '.') {
+            return token;
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        return token.substring(i);
+    }
+
+    private static boolean isResult(String token) {
+        return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+    }
+}
@@ -0,0 +1,105 @@
+package com.schachspiel.chess.notation;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Game;
+import com.schachspiel.chess.model.GameStatus;
+import com.schachspiel.chess.model.Move;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Schreibt Spiele im PGN-Format (Seven Tag Roster plus Zugtext in SAN).
+ * <p>
+ * Die SAN wird beim Nachspielen der Historie aus der jeweiligen Stellung
+ * berechnet. Die Ausgabe erfolgt direkt in den übergebenen {@link Writer}.
+ * </p>
+ */
+public final class PgnWriter {
+
+    private static final DateTimeFormatter PGN_DATE = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    private static final int LINE_WIDTH = 80;
+
+    private PgnWriter() {
+    }
+
+    /**
+     * Schreibt ein Spiel als PGN.
+     *
+     * @param out   Ziel.
+     * @param game  Das Spiel (Metadaten).
+     * @param moves Die Zughistorie des Spiels.
+     * @throws IOException Bei Schreibfehlern.
+     */
+    public static void write(Writer out, Game game, List<Move> moves) throws IOException {
+        String result = result(game);
+        tag(out, "Event", game.isOnlineMode() ? "Online game" : "Local game");
+        tag(out, "Site", "Schachanwendung");
+        tag(out, "Date", game.getCreatedAt() != null ? game.getCreatedAt().format(PGN_DATE) : "????.??.??");
+        tag(out, "Round", "-");
+        tag(out, "White", game.getWhitePlayer());
+        tag(out, "Black", game.getBlackPlayer());
+        tag(out, "Result", result);
+        tag(out, "GameId", String.valueOf(game.getId()));
+        if (game.getTimeLimit() != null && game.getTimeLimit() > 0) {
+            tag(out, "TimeControl", String.valueOf(game.getTimeLimit()));
+        }
+        if (game.getStatus() == GameStatus.VICTORY_BY_TIME) {
+            tag(out, "Termination", "time forfeit");
+        }
+        out.write('\n');
+
+        ChessBoard board = new ChessBoard();
+        int lineLength = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            Move recorded = moves.get(i);
+            Move move = new Move();
+            move.setFrom(recorded.getFrom());
+            move.setTo(recorded.getTo());
+            move.setPromotionPiece(recorded.getPromotionPiece());
+
+            String token = (i % 2 == 0 ? (i / 2 + 1) + ". " : "") + San.toSan(board, move);
+            lineLength = append(out, token, lineLength);
+            board.makeMove(move);
+        }
+        append(out, result, lineLength);
+        out.write("\n\n");
+    }
+
+    private static int append(Writer out, String token, int lineLength) throws IOException {
+        if (lineLength > 0 && lineLength + 1 + token.length() > LINE_WIDTH) {
+            out.write('\n');
+            lineLength = 0;
+        } else if (lineLength > 0) {
+            out.write(' ');
+            lineLength++;
+        }
+        out.write(token);
+        return lineLength + token.length();
+    }
+
+    private static void tag(Writer out, String name, String value) throws IOException {
+        String escaped = value == null ? "?" : value.replace("\\", "\\\\").replace("\"", "\\\"");
+        out.write('[' + name + " \"" + escaped + "\"]\n");
+    }
+
+    /**
+     * Ergebnis-Token nach PGN.
+     *
+     * @param game Das Spiel.
+     * @return "1-0", "0-1", "1/2-1/2" oder "*".
+     */
+    public static String result(Game game) {
+        if (game.getStatus() == null) {
+            return "*";
+        }
+        return switch (game.getStatus()) {
+            case CHECKMATE, VICTORY_BY_TIME, RESIGNED -> "WHITE".equals(game.getWinner()) ? "1-0"
+                    : "BLACK".equals(game.getWinner()) ? "0-1" : "*";
+            case STALEMATE, DRAW -> "1/2-1/2";
+            default -> "*";
+        };
+    }
+}
@@ -0,0 +1,250 @@
+package com.schachspiel.chess.notation;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.Piece;
+import com.schachspiel.chess.model.PieceColor;
+import com.schachspiel.chess.model.PieceType;
+import com.schachspiel.chess.model.Position;
+
+/**
+ * Standard Algebraic Notation (SAN).
+ * <p>
+ * Übersetzt SAN-Züge ("Nbd7", "exd5", "e8=Q+", "O-O") in {@link Move}-Objekte
+ * anhand der legalen Züge einer Stellung und erzeugt umgekehrt die SAN eines
+ * Zuges inklusive minimaler Mehrdeutigkeitsauflösung und Schach-/Mattzeichen.
+ * </p>
+ */
+public final class San {
+
+    private San() {
+    }
+
+    /**
+     * Übersetzt einen SAN-Zug in einen legalen Zug der Stellung.
+     *
+     * @param board Die aktuelle Stellung (Spieler am Zug zieht).
+     * @param token Der SAN-Zug.
+     * @return Ein neuer Move mit Start, Ziel und ggf. Umwandlungsfigur.
+     * @throws IllegalArgumentException Wenn der Zug nicht lesbar, illegal oder
+     *                                  mehrdeutig ist.
+     */
+    public static Move parse(ChessBoard board, String token) {
+        String san = stripSuffixes(token);
+        if (san.isEmpty()) {
+            throw new IllegalArgumentException("Empty move");
+        }
+
+        if (san.equals("O-O") || san.equals("0-0") || san.equals("O-O-O") || san.equals("0-0-0")) {
+            int row = board.getCurrentTurn() == PieceColor.WHITE ? 0 : 7;
+            int toCol = san.length() == 3 ? 6 : 2;
+            Move move = new Move();
+            move.setFrom(new Position(row, 4));
+            move.setTo(new Position(row, toCol));
+            Piece king = board.getPieceAt(move.getFrom());
+            if (king == null || king.getType() != PieceType.KING || !board.isLegalMove(move)) {
+                throw new IllegalArgumentException("Illegal castling: " + token);
+            }
+            return move;
+        }
+
+        PieceType promotion = null;
+        int eq = san.indexOf('=');
+        if (eq >= 0) {
+            if (eq + 1 >= san.length()) {
+                throw new IllegalArgumentException("Unreadable move: " + token);
+            }
+            promotion = pieceType(san.charAt(eq + 1));
+            san = san.substring(0, eq);
+        } else if (san.length() > 2 && Character.isDigit(san.charAt(san.length() - 2))
+                && pieceType(san.charAt(san.length() - 1)) != null) {
+            // Promotion ohne '=' ("e8Q")
+            promotion = pieceType(san.charAt(san.length() - 1));
+            san = san.substring(0, san.length() - 1);
+        }
+        if (san.length() < 2) {
+            throw new IllegalArgumentException("Unreadable move: " + token);
+        }
+
+        Position to = square(san.substring(san.length() - 2), token);
+        PieceType type = Character.isUpperCase(san.charAt(0)) ? pieceType(san.charAt(0)) : PieceType.PAWN;
+        if (type == null) {
+            throw new IllegalArgumentException("Unreadable move: " + token);
+        }
+        String disambiguation = san.substring(type == PieceType.PAWN ? 0 : 1, san.length() - 2).replace("x", "");
+        int fromCol = -1;
+        int fromRow = -1;
+        for (char c : disambiguation.toCharArray()) {
+            if (c >= 'a' && c <= 'h') {
+                fromCol = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRow = c - '1';
+            } else {
+                throw new IllegalArgumentException("Unreadable move: " + token);
+            }
+        }
+
+        // Nur Figuren des passenden Typs kommen als Startfeld in Frage
+        Move match = null;
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                if ((fromRow >= 0 && row != fromRow) || (fromCol >= 0 && col != fromCol)) {
+                    continue;
+                }
+                Position from = new Position(row, col);
+                Piece piece = board.getPieceAt(from);
+                if (piece == null || piece.getType() != type || piece.getColor() != board.getCurrentTurn()) {
+                    continue;
+                }
+                Move candidate = new Move();
+                candidate.setFrom(from);
+                candidate.setTo(to);
+                candidate.setPromotionPiece(promotion);
+                if (board.isLegalMove(candidate)) {
+                    if (match != null) {
+                        throw new IllegalArgumentException("Ambiguous move: " + token);
+                    }
+                    match = candidate;
+                }
+            }
+        }
+        if (match == null) {
+            throw new IllegalArgumentException("Illegal move: " + token);
+        }
+        return match;
+    }
+
+    /**
+     * Erzeugt die SAN eines legalen Zuges.
+     *
+     * @param board Die Stellung vor dem Zug (wird nicht verändert).
+     * @param move  Der Zug (Start, Ziel, ggf. Umwandlungsfigur).
+     * @return SAN inklusive "+" bzw. "#".
+     */
+    public static String toSan(ChessBoard board, Move move) {
+        Position from = move.getFrom();
+        Position to = move.getTo();
+        Piece piece = board.getPieceAt(from);
+        if (piece == null) {
+            throw new IllegalArgumentException("No piece on " + from.toNotation());
+        }
+
+        StringBuilder san = new StringBuilder();
+        if (piece.getType() == PieceType.KING && Math.abs(to.getCol() - from.getCol()) == 2) {
+            san.append(to.getCol() > from.getCol() ? "O-O" : "O-O-O");
+        } else if (piece.getType() == PieceType.PAWN) {
+            boolean capture = from.getCol() != to.getCol();
+            if (capture) {
+                san.append(file(from)).append('x');
+            }
+            san.append(to.toNotation());
+            if (to.getRow() == 0 || to.getRow() == 7) {
+                PieceType promo = move.getPromotionPiece();
+                if (promo == null || promo == PieceType.KING || promo == PieceType.PAWN) {
+                    promo = PieceType.QUEEN;
+                }
+                san.append('=').append(letter(promo));
+            }
+        } else {
+            san.append(letter(piece.getType()));
+            san.append(disambiguation(board, piece, from, to));
+            if (board.getPieceAt(to) != null) {
+                san.append('x');
+            }
+            san.append(to.toNotation());
+        }
+
+        ChessBoard after = board.copy();
+        Move played = new Move();
+        played.setFrom(from);
+        played.setTo(to);
+        played.setPromotionPiece(move.getPromotionPiece());
+        after.makeMove(played);
+        if (after.isCheckmate(after.getCurrentTurn())) {
+            san.append('#');
+        } else if (after.isInCheck(after.getCurrentTurn())) {
+            san.append('+');
+        }
+        return san.toString();
+    }
+
+    /**
+     * Minimale Angabe des Startfeldes, falls eine weitere Figur gleichen Typs
+     * legal auf dasselbe Zielfeld ziehen kann: Linie, sonst Reihe, sonst beides.
+     */
+    private static String disambiguation(ChessBoard board, Piece piece, Position from, Position to) {
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Position other = new Position(row, col);
+                Piece p = board.getPieceAt(other);
+                if (other.equals(from) || p == null || p.getType() != piece.getType()
+                        || p.getColor() != piece.getColor()) {
+                    continue;
+                }
+                Move rival = new Move();
+                rival.setFrom(other);
+                rival.setTo(to);
+                if (board.isLegalMove(rival)) {
+                    ambiguous = true;
+                    sameFile |= col == from.getCol();
+                    sameRank |= row == from.getRow();
+                }
+            }
+        }
+        if (!ambiguous) {
+            return "";
+        }
+        if (!sameFile) {
+            return String.valueOf(file(from));
+        }
+        if (!sameRank) {
+            return String.valueOf(from.getRow() + 1);
+        }
+        return from.toNotation();
+    }
+
+    private static char file(Position position) {
+        return (char) ('a' + position.getCol());
+    }
+
+    static char letter(PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case ROOK -> 'R';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case PAWN -> 'P';
+        };
+    }
+
+    private static String stripSuffixes(String token) {
+        int end = token.length();
+        while (end > 0 && "+#!?".indexOf(token.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return token.substring(0, end);
+    }
+
+    private static Position square(String notation, String token) {
+        Position position = new Position(notation);
+        if (!position.isValid()) {
+            throw new IllegalArgumentException("Unreadable move: " + token);
+        }
+        return position;
+    }
+
+    static PieceType pieceType(char c) {
+        return switch (c) {
+            case 'K' -> PieceType.KING;
+            case 'Q' -> PieceType.QUEEN;
+            case 'R' -> PieceType.ROOK;
+            case 'B' -> PieceType.BISHOP;
+            case 'N' -> PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+}
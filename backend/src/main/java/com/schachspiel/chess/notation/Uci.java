@@ -0,0 +1,30 @@
+package com.schachspiel.chess.notation;
+
+import com.schachspiel.chess.model.Move;
+
+/**
+ * Koordinatenschreibweise (wie im UCI-Protokoll): Start- und Zielfeld, bei
+ * Umwandlung gefolgt von der Figur, z.B. "e2e4" oder "e7e8q".
+ */
+public final class Uci {
+
+    private Uci() {
+    }
+
+    /**
+     * @param move Der Zug.
+     * @return Der Zug in Koordinatenschreibweise.
+     */
+    public static String toUci(Move move) {
+        String uci = move.getFrom().toNotation() + move.getTo().toNotation();
+        if (move.getPromotionPiece() == null) {
+            return uci;
+        }
+        return uci + switch (move.getPromotionPiece()) {
+            case KNIGHT -> "n";
+            case BISHOP -> "b";
+            case ROOK -> "r";
+            default -> "q";
+        };
+    }
+}
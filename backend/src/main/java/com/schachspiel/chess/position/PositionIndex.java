@@ -0,0 +1,193 @@
+package com.schachspiel.chess.position;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Index aller gespielten Stellungen: Zobrist-Hash → (Spiel-ID, Halbzug).
+ * <p>
+ * Der GameService trägt jede Stellung nach einem Zug ein; die Daten liegen
+ * außerhalb des Heaps ({@link PositionTable}). Schreiben ist exklusiv, Lesen
+ * parallel. Für den Neuaufbau ({@link PositionSearchService#rebuild()}) wird
+ * eine neue Tabelle gefüllt und anschließend ausgetauscht; Einträge, die
+ * währenddessen hinzukommen, werden vor dem Austausch nachgetragen.
+ * </p>
+ */
+@Component
+public class PositionIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private PositionTable table;
+
+    /** Während eines Neuaufbaus: neue Einträge (Hash, Spiel-ID, Halbzug) und betroffene Spiele. */
+    private List<long[]> pending;
+    private final Set<Long> pendingGames = ConcurrentHashMap.newKeySet();
+
+    @Value("${chess.positions.initial-capacity:65536}")
+    private int initialCapacity;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        table = new PositionTable(initialCapacity);
+        dropped = Counter.builder("chess.positions.dropped")
+                .description("Nicht eingetragene Stellungen (Index voll)").register(meterRegistry);
+        Gauge.builder("chess.positions.keys", this, index -> index.stat(PositionTable::keys))
+                .description("Verschiedene Stellungen im Index").register(meterRegistry);
+        Gauge.builder("chess.positions.postings", this, index -> index.stat(PositionTable::postings))
+                .description("Indizierte (Spiel, Halbzug)-Paare").register(meterRegistry);
+        Gauge.builder("chess.positions.bytes", this, index -> index.stat(PositionTable::bytes))
+                .description("Speicher des Index außerhalb des Heaps").register(meterRegistry);
+    }
+
+    /**
+     * Trägt eine Stellung ein. Ist der Index voll, wird sie nur gezählt
+     * ({@code chess.positions.dropped}); der Zug selbst scheitert daran nicht.
+     *
+     * @param hash   Zobrist-Hash der Stellung.
+     * @param gameId Spiel-ID.
+     * @param ply    Anzahl gespielter Halbzüge bis zu dieser Stellung.
+     */
+    public void add(long hash, long gameId, int ply) {
+        lock.writeLock().lock();
+        try {
+            try {
+                table.put(hash, gameId, ply);
+            } catch (IllegalStateException e) {
+                dropped.increment();
+            }
+            if (pending != null) {
+                pending.add(new long[]{hash, gameId, ply});
+                pendingGames.add(gameId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param hash   Zobrist-Hash der Stellung.
+     * @param limit  Maximale Anzahl Treffer.
+     * @param filter Nur Spiele, die diesen Test bestehen (z.B. noch vorhanden).
+     * @return Treffer, zuletzt gespielte zuerst.
+     */
+    List<PositionTable.Hit> find(long hash, int limit, LongPredicate filter) {
+        lock.readLock().lock();
+        try {
+            return table.get(hash, limit, filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param hash Zobrist-Hash der Stellung.
+     * @return Anzahl Einträge zu der Stellung.
+     */
+    int count(long hash) {
+        lock.readLock().lock();
+        try {
+            return table.count(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Beginnt einen Neuaufbau: ab jetzt werden neue Einträge zusätzlich vorgemerkt.
+     *
+     * @throws IllegalStateException Wenn bereits ein Neuaufbau läuft.
+     */
+    void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                throw new IllegalStateException("Rebuild already running");
+            }
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param gameId Spiel-ID.
+     * @return true, wenn seit Beginn des Neuaufbaus Züge des Spiels eingetragen wurden.
+     */
+    boolean hasPending(long gameId) {
+        return pendingGames.contains(gameId);
+    }
+
+    /**
+     * Trägt die vorgemerkten Einträge nach, die der Neuaufbau nicht gesehen hat,
+     * und tauscht die Tabelle aus.
+     *
+     * @param rebuilt Die neu aufgebaute Tabelle.
+     * @param covered Pro Spiel mit vorgemerkten Einträgen: Anzahl Halbzüge, die
+     *                der Neuaufbau gelesen hat.
+     */
+    void finishRebuild(PositionTable rebuilt, Map<Long, Integer> covered) {
+        lock.writeLock().lock();
+        try {
+            for (long[] entry : pending) {
+                // Nicht nachgespielte Spiele: alle Einträge ab Halbzug 0 übernehmen
+                if (entry[2] > covered.getOrDefault(entry[1], -1)) {
+                    rebuilt.put(entry[0], entry[1], (int) entry[2]);
+                }
+            }
+            table = rebuilt;
+        } finally {
+            pending = null;
+            pendingGames.clear();
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Bricht einen Neuaufbau ab; die bisherige Tabelle bleibt gültig. */
+    void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = null;
+            pendingGames.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return Kennzahlen des Index. */
+    Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            return Map.of("positions", table.keys(), "postings", table.postings(), "offHeapBytes", table.bytes());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double stat(java.util.function.ToLongFunction<PositionTable> metric) {
+        lock.readLock().lock();
+        try {
+            return metric.applyAsLong(table);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
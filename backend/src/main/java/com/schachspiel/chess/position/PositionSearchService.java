@@ -0,0 +1,152 @@
+package com.schachspiel.chess.position;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.GameSummary;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.Zobrist;
+import com.schachspiel.chess.notation.Fen;
+import com.schachspiel.chess.service.GameService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Stellungssuche: In welchen Spielen kam eine Stellung vor?
+ * <p>
+ * Abfragen gehen über den Zobrist-Hash direkt in den {@link PositionIndex}
+ * und kosten damit unabhängig von der Archivgröße nur die Länge der
+ * Trefferliste. Gleichheit der Stellung wird nur über den 64-Bit-Hash
+ * festgestellt (Kollisionen sind möglich, aber praktisch ausgeschlossen).
+ * </p>
+ * <p>
+ * {@link #rebuild()} baut den Index aus dem Archiv neu auf (z.B. nach einem
+ * Neustart, da der Index nur im Speicher liegt). Die Spiele werden dafür
+ * parallel nachgespielt.
+ * </p>
+ */
+@Service
+public class PositionSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(PositionSearchService.class);
+
+    @Autowired
+    private PositionIndex index;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer rebuildTimer;
+
+    @PostConstruct
+    void init() {
+        rebuildTimer = Timer.builder("chess.positions.rebuild").register(meterRegistry);
+    }
+
+    /**
+     * @param fen   Die gesuchte Stellung als FEN.
+     * @param limit Maximale Anzahl Treffer.
+     * @return Hash, Anzahl und Treffer (Spiel-ID, Halbzug), zuletzt gespielte zuerst.
+     * @throws IllegalArgumentException Wenn die FEN ungültig ist.
+     */
+    public Map<String, Object> search(String fen, int limit) {
+        return search(Fen.parse(fen), limit);
+    }
+
+    /**
+     * @param gameId Spiel-ID.
+     * @param ply    Halbzug (null für die aktuelle Stellung).
+     * @param limit  Maximale Anzahl Treffer.
+     * @return Wie {@link #search(String, int)} für die Stellung des Spiels.
+     * @throws Exception Wenn das Spiel nicht existiert oder ply ungültig ist.
+     */
+    public Map<String, Object> search(Long gameId, Integer ply, int limit) throws Exception {
+        return search(gameService.getBoardAt(gameId, ply), limit);
+    }
+
+    private Map<String, Object> search(ChessBoard board, int limit) {
+        long hash = Zobrist.hash(board);
+        // Spiele, die an einen anderen Knoten abgegeben wurden, bleiben im Index stehen
+        List<PositionTable.Hit> hits = index.find(hash, limit, gameService::hasGame);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fen", Fen.toFen(board));
+        result.put("hash", Long.toHexString(hash));
+        result.put("total", index.count(hash));
+        result.put("games", hits.stream().map(hit -> Map.of("gameId", hit.gameId(), "ply", hit.ply())).toList());
+        return result;
+    }
+
+    /**
+     * Baut den Index aus allen Spielen des Archivs neu auf und tauscht ihn dann
+     * aus. Züge, die währenddessen gespielt werden, gehen nicht verloren.
+     *
+     * @return Anzahl Spiele, Stellungen und Einträge.
+     * @throws IllegalStateException Wenn bereits ein Neuaufbau läuft.
+     */
+    public Map<String, Object> rebuild() {
+        index.beginRebuild();
+        Timer.Sample sample = Timer.start();
+        try {
+            List<Long> ids;
+            try (Stream<GameSummary> games = gameService.streamGames(null, null, null)) {
+                ids = games.map(GameSummary::getId).toList();
+            }
+            PositionTable rebuilt = new PositionTable((int) Math.min(ids.size() * 40L, PositionTable.MAX_CAPACITY / 2));
+            Map<Long, Integer> covered = new ConcurrentHashMap<>();
+            AtomicLong games = new AtomicLong();
+            ids.parallelStream().forEach(id -> {
+                List<Move> history;
+                try {
+                    history = gameService.getHistory(id);
+                } catch (Exception e) {
+                    return;
+                }
+                if (history == null) {
+                    return;
+                }
+                // Nachspielen parallel, Eintragen gebündelt pro Spiel (Index = Halbzug, ab Grundstellung)
+                long[] hashes = new long[history.size() + 1];
+                ChessBoard board = new ChessBoard();
+                hashes[0] = Zobrist.hash(board);
+                for (int i = 1; i < hashes.length; i++) {
+                    board.makeMove(history.get(i - 1));
+                    hashes[i] = Zobrist.hash(board);
+                }
+                synchronized (rebuilt) {
+                    for (int i = 0; i < hashes.length; i++) {
+                        rebuilt.put(hashes[i], id, i);
+                    }
+                }
+                if (index.hasPending(id)) {
+                    covered.put(id, history.size());
+                }
+                games.incrementAndGet();
+            });
+            index.finishRebuild(rebuilt, covered);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("games", games.get());
+            stats.putAll(index.getStats());
+            log.info("event=positions_rebuilt games={} positions={} postings={}", games.get(),
+                    stats.get("positions"), stats.get("postings"));
+            return stats;
+        } catch (RuntimeException e) {
+            index.abortRebuild();
+            throw e;
+        } finally {
+            sample.stop(rebuildTimer);
+        }
+    }
+}
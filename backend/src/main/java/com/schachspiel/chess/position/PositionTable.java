@@ -0,0 +1,182 @@
+package com.schachspiel.chess.position;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Hash-Tabelle von Stellungs-Hash auf (Spiel-ID, Halbzug), außerhalb des Heaps.
+ * <p>
+ * Schlüssel: offene Adressierung mit linearem Sondieren; pro Slot liegen der
+ * Hash (8 Byte), der Kopf der Trefferkette und die Anzahl Treffer (je 4 Byte).
+ * Treffer: 16 Byte (Spiel-ID, Halbzug, Index des nächsten Treffers) in
+ * Blöcken fester Größe, die nie umkopiert werden. Neue Treffer werden vorne
+ * eingekettet, eine Abfrage liefert also die zuletzt gespielten zuerst.
+ * </p>
+ * <p>
+ * Nicht thread-sicher; die Synchronisation übernimmt {@link PositionIndex}.
+ * </p>
+ */
+final class PositionTable {
+
+    /** Ein Treffer: Stellung nach {@code ply} Halbzügen des Spiels. */
+    record Hit(long gameId, int ply) {
+    }
+
+    private static final int SLOT_BYTES = 16;
+    /** Größte Slotzahl, deren Puffer (int-adressiert) noch passt. */
+    static final int MAX_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE / SLOT_BYTES);
+    private static final int POSTING_BYTES = 16;
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_POSTINGS = 1 << CHUNK_SHIFT;
+    private static final int NONE = -1;
+    /** Markiert leere Slots; ein echter Hash 0 wird auf {@link #ZERO} abgebildet. */
+    private static final long EMPTY = 0;
+    private static final long ZERO = 0x9E3779B97F4A7C15L;
+
+    private ByteBuffer slots;
+    private int mask;
+    private int keys;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private int postings;
+
+    /**
+     * @param expectedKeys Erwartete Anzahl Stellungen (Füllgrad höchstens 1/2).
+     * @throws IllegalArgumentException Wenn die Tabelle dafür zu groß würde.
+     */
+    PositionTable(int expectedKeys) {
+        long capacity = Long.highestOneBit(Math.max(16L, expectedKeys) * 2 - 1) << 1;
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Position table capacity too large: " + expectedKeys);
+        }
+        slots = allocate(capacity * SLOT_BYTES);
+        mask = (int) capacity - 1;
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Position table buffer too large: " + bytes + " bytes");
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @param hash   Stellungs-Hash.
+     * @param gameId Spiel-ID.
+     * @param ply    Anzahl gespielter Halbzüge.
+     * @throws IllegalStateException Wenn die Tabelle nicht weiter wachsen kann.
+     */
+    void put(long hash, long gameId, int ply) {
+        if (postings == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Position table is full");
+        }
+        if (keys * 2 >= mask + 1) {
+            grow();
+        }
+        long key = hash == EMPTY ? ZERO : hash;
+        int offset = find(key);
+        int head = NONE;
+        int count = 0;
+        if (slots.getLong(offset) == EMPTY) {
+            slots.putLong(offset, key);
+            keys++;
+        } else {
+            head = slots.getInt(offset + 8);
+            count = slots.getInt(offset + 12);
+        }
+        int posting = postings++;
+        if ((posting >>> CHUNK_SHIFT) == chunks.size()) {
+            chunks.add(allocate((long) CHUNK_POSTINGS * POSTING_BYTES));
+        }
+        ByteBuffer chunk = chunks.get(posting >>> CHUNK_SHIFT);
+        int at = (posting & (CHUNK_POSTINGS - 1)) * POSTING_BYTES;
+        chunk.putLong(at, gameId);
+        chunk.putInt(at + 8, ply);
+        chunk.putInt(at + 12, head);
+        slots.putInt(offset + 8, posting);
+        slots.putInt(offset + 12, count + 1);
+    }
+
+    /**
+     * @param hash Stellungs-Hash.
+     * @return Anzahl Treffer (inkl. solcher, die ein Filter später verwirft).
+     */
+    int count(long hash) {
+        int offset = find(hash == EMPTY ? ZERO : hash);
+        return slots.getLong(offset) == EMPTY ? 0 : slots.getInt(offset + 12);
+    }
+
+    /**
+     * @param hash   Stellungs-Hash.
+     * @param limit  Maximale Anzahl Treffer.
+     * @param filter Nur Treffer, deren Spiel-ID diesen Test besteht.
+     * @return Treffer, zuletzt eingetragene zuerst.
+     */
+    List<Hit> get(long hash, int limit, LongPredicate filter) {
+        List<Hit> hits = new ArrayList<>(Math.min(limit, 64));
+        int offset = find(hash == EMPTY ? ZERO : hash);
+        if (slots.getLong(offset) == EMPTY) {
+            return hits;
+        }
+        int posting = slots.getInt(offset + 8);
+        while (posting != NONE && hits.size() < limit) {
+            ByteBuffer chunk = chunks.get(posting >>> CHUNK_SHIFT);
+            int at = (posting & (CHUNK_POSTINGS - 1)) * POSTING_BYTES;
+            long gameId = chunk.getLong(at);
+            if (filter.test(gameId)) {
+                hits.add(new Hit(gameId, chunk.getInt(at + 8)));
+            }
+            posting = chunk.getInt(at + 12);
+        }
+        return hits;
+    }
+
+    /** Offset des Slots mit diesem Schlüssel oder des ersten freien Slots dahinter. */
+    private int find(long key) {
+        // Zobrist-Hashes sind gleichverteilt; die unteren Bits genügen als Startslot
+        int index = (int) key & mask;
+        while (true) {
+            int offset = index * SLOT_BYTES;
+            long stored = slots.getLong(offset);
+            if (stored == key || stored == EMPTY) {
+                return offset;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        ByteBuffer old = slots;
+        int oldCapacity = mask + 1;
+        if (oldCapacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Position table is full");
+        }
+        slots = allocate((long) oldCapacity * 2 * SLOT_BYTES);
+        mask = oldCapacity * 2 - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            int from = i * SLOT_BYTES;
+            long key = old.getLong(from);
+            if (key != EMPTY) {
+                int to = find(key);
+                slots.putLong(to, key);
+                slots.putInt(to + 8, old.getInt(from + 8));
+                slots.putInt(to + 12, old.getInt(from + 12));
+            }
+        }
+    }
+
+    int keys() {
+        return keys;
+    }
+
+    int postings() {
+        return postings;
+    }
+
+    /** @return Belegter Speicher außerhalb des Heaps in Byte. */
+    long bytes() {
+        return (long) slots.capacity() + (long) chunks.size() * CHUNK_POSTINGS * POSTING_BYTES;
+    }
+}
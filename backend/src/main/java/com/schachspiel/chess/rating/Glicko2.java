@@ -0,0 +1,131 @@
+package com.schachspiel.chess.rating;
+
+import java.util.List;
+
+/**
+ * Glicko-2-Berechnung (M. Glickman, "Example of the Glicko-2 system").
+ * <p>
+ * Reine Mathematik ohne Zustand: {@link #update} berechnet die neue Wertung
+ * eines Spielers aus seinen Ergebnissen einer Bewertungsperiode, wobei die
+ * Gegner mit ihren Werten vom Beginn der Periode eingehen. {@link #idle}
+ * lässt die Unsicherheit (RD) für Perioden ohne Partie wachsen.
+ * </p>
+ */
+public final class Glicko2 {
+
+    public static final double DEFAULT_RATING = 1500;
+    public static final double DEFAULT_RD = 350;
+    public static final double DEFAULT_VOLATILITY = 0.06;
+
+    /** Umrechnung zwischen Glicko- und Glicko-2-Skala. */
+    private static final double SCALE = 173.7178;
+    private static final double EPSILON = 0.000001;
+
+    /** Wertung, Bewertungsabweichung (RD) und Volatilität eines Spielers. */
+    public record Rating(double rating, double rd, double volatility) {
+
+        public static Rating initial() {
+            return new Rating(DEFAULT_RATING, DEFAULT_RD, DEFAULT_VOLATILITY);
+        }
+    }
+
+    /** Ein Ergebnis aus Sicht des Spielers: 1 Sieg, 0.5 Remis, 0 Niederlage. */
+    public record Result(Rating opponent, double score) {
+    }
+
+    private Glicko2() {
+    }
+
+    /**
+     * @param player  Wertung zu Beginn der Periode.
+     * @param results Ergebnisse der Periode (leer = nur RD wächst).
+     * @param tau     Systemkonstante (typisch 0.3 bis 1.2), begrenzt die
+     *                Änderung der Volatilität.
+     * @return Wertung am Ende der Periode.
+     */
+    public static Rating update(Rating player, List<Result> results, double tau) {
+        double mu = (player.rating() - DEFAULT_RATING) / SCALE;
+        double phi = player.rd() / SCALE;
+        double sigma = player.volatility();
+        if (results.isEmpty()) {
+            return idle(player, 1);
+        }
+
+        double vInverse = 0;
+        double sum = 0;
+        for (Result result : results) {
+            double muJ = (result.opponent().rating() - DEFAULT_RATING) / SCALE;
+            double g = g(result.opponent().rd() / SCALE);
+            double e = 1 / (1 + Math.exp(-g * (mu - muJ)));
+            vInverse += g * g * e * (1 - e);
+            sum += g * (result.score() - e);
+        }
+        double v = 1 / vInverse;
+        double delta = v * sum;
+
+        double newSigma = volatility(delta, phi, v, sigma, tau);
+        double phiStar = Math.sqrt(phi * phi + newSigma * newSigma);
+        double newPhi = 1 / Math.sqrt(1 / (phiStar * phiStar) + 1 / v);
+        double newMu = mu + newPhi * newPhi * sum;
+        return new Rating(newMu * SCALE + DEFAULT_RATING, Math.min(newPhi * SCALE, DEFAULT_RD), newSigma);
+    }
+
+    /**
+     * @param player  Aktuelle Wertung.
+     * @param periods Anzahl Perioden ohne Partie (darf gebrochen sein).
+     * @return Wertung mit entsprechend gewachsener RD (höchstens {@value #DEFAULT_RD}).
+     */
+    public static Rating idle(Rating player, double periods) {
+        if (periods <= 0) {
+            return player;
+        }
+        double phi = player.rd() / SCALE;
+        double sigma = player.volatility();
+        double newPhi = Math.sqrt(phi * phi + periods * sigma * sigma);
+        return new Rating(player.rating(), Math.min(newPhi * SCALE, DEFAULT_RD), sigma);
+    }
+
+    private static double g(double phi) {
+        return 1 / Math.sqrt(1 + 3 * phi * phi / (Math.PI * Math.PI));
+    }
+
+    /** Neue Volatilität per Illinois-Verfahren (Schritt 5 des Algorithmus). */
+    private static double volatility(double delta, double phi, double v, double sigma, double tau) {
+        double a = Math.log(sigma * sigma);
+        double deltaSq = delta * delta;
+        double phiSq = phi * phi;
+
+        double lower = a;
+        double upper;
+        if (deltaSq > phiSq + v) {
+            upper = Math.log(deltaSq - phiSq - v);
+        } else {
+            int k = 1;
+            while (f(a - k * tau, deltaSq, phiSq, v, a, tau) < 0) {
+                k++;
+            }
+            upper = a - k * tau;
+        }
+        double fLower = f(lower, deltaSq, phiSq, v, a, tau);
+        double fUpper = f(upper, deltaSq, phiSq, v, a, tau);
+        while (Math.abs(upper - lower) > EPSILON) {
+            double c = lower + (lower - upper) * fLower / (fUpper - fLower);
+            double fC = f(c, deltaSq, phiSq, v, a, tau);
+            if (fC * fUpper <= 0) {
+                lower = upper;
+                fLower = fUpper;
+            } else {
+                fLower /= 2;
+            }
+            upper = c;
+            fUpper = fC;
+        }
+        return Math.exp(lower / 2);
+    }
+
+    private static double f(double x, double deltaSq, double phiSq, double v, double a, double tau) {
+        double ex = Math.exp(x);
+        double denominator = phiSq + v + ex;
+        return ex * (deltaSq - phiSq - v - ex) / (2 * denominator * denominator) - (x - a) / (tau * tau);
+    }
+}
@@ -0,0 +1,323 @@
+package com.schachspiel.chess.rating;
+
+import com.schachspiel.chess.model.GameStatus;
+import com.schachspiel.chess.model.GameSummary;
+import com.schachspiel.chess.service.GameFinishedEvent;
+import com.schachspiel.chess.service.GameService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Spielerwertungen nach Glicko-2.
+ * <p>
+ * Inkrementell: Bei jedem Spielende ({@link GameFinishedEvent}) werden nur die
+ * Wertungen der beiden Spieler fortgeschrieben. Jede Partie gilt dabei als
+ * eigene Bewertungsperiode; die RD wächst vorher um die seit der letzten
+ * Partie vergangenen Perioden ({@code chess.rating.period}).
+ * </p>
+ * <p>
+ * Stapelbetrieb ({@link #recompute()}): Alle beendeten Spiele des Archivs
+ * werden nach Zeit in Bewertungsperioden eingeteilt und Periode für Periode
+ * neu bewertet. Innerhalb einer Periode hängt jede neue Wertung nur von den
+ * Werten zu Periodenbeginn ab, daher werden die Spieler einer Periode parallel
+ * berechnet.
+ * </p>
+ * <p>
+ * Die Rangliste ist ein sortiertes Set (Wertung absteigend), das bei jeder
+ * Änderung angepasst wird; Abfragen lesen nur die ersten Einträge.
+ * </p>
+ */
+@Service
+public class RatingService {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingService.class);
+
+    /** Aktuelle Wertung eines Spielers. */
+    public record PlayerRating(String player, Glicko2.Rating rating, int games, LocalDateTime lastPlayed) {
+    }
+
+    /** Eintrag der Rangliste (Sortierschlüssel). */
+    private record Entry(String player, double rating) {
+    }
+
+    private static final Comparator<Entry> BY_RATING = Comparator.comparingDouble(Entry::rating).reversed()
+            .thenComparing(Entry::player);
+
+    private static final Set<GameStatus> RATED = Set.of(GameStatus.CHECKMATE, GameStatus.STALEMATE,
+            GameStatus.DRAW, GameStatus.VICTORY_BY_TIME, GameStatus.RESIGNED);
+
+    private volatile Map<String, PlayerRating> players = new ConcurrentHashMap<>();
+    private volatile NavigableSet<Entry> leaderboard = new ConcurrentSkipListSet<>(BY_RATING);
+
+    /** Spielenden, die während einer Neuberechnung eintreffen (danach nachgetragen). */
+    private List<GameFinishedEvent> pending;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chess.rating.tau:0.5}")
+    private double tau;
+
+    @Value("${chess.rating.period:P1D}")
+    private Duration period;
+
+    private Timer recomputeTimer;
+
+    @PostConstruct
+    void init() {
+        recomputeTimer = Timer.builder("chess.rating.recompute").register(meterRegistry);
+    }
+
+    /**
+     * Schreibt die Wertungen der beiden Spieler fort.
+     *
+     * @param event Das beendete Spiel.
+     */
+    @EventListener
+    public synchronized void onGameFinished(GameFinishedEvent event) {
+        if (pending != null) {
+            pending.add(event);
+        }
+        apply(event);
+    }
+
+    private void apply(GameFinishedEvent event) {
+        Double whiteScore = whiteScore(event.status(), event.winner());
+        String white = event.whitePlayer();
+        String black = event.blackPlayer();
+        if (whiteScore == null || white == null || black == null || white.equals(black)) {
+            return;
+        }
+        PlayerRating whiteBefore = current(white, event.finishedAt());
+        PlayerRating blackBefore = current(black, event.finishedAt());
+        Glicko2.Rating whiteAfter = Glicko2.update(whiteBefore.rating(),
+                List.of(new Glicko2.Result(blackBefore.rating(), whiteScore)), tau);
+        Glicko2.Rating blackAfter = Glicko2.update(blackBefore.rating(),
+                List.of(new Glicko2.Result(whiteBefore.rating(), 1 - whiteScore)), tau);
+        store(new PlayerRating(white, whiteAfter, whiteBefore.games() + 1, event.finishedAt()));
+        store(new PlayerRating(black, blackAfter, blackBefore.games() + 1, event.finishedAt()));
+    }
+
+    /** Wertung vor einer Partie: RD um die Perioden seit der letzten Partie vergrößert. */
+    private PlayerRating current(String player, LocalDateTime at) {
+        PlayerRating rating = players.get(player);
+        if (rating == null) {
+            return new PlayerRating(player, Glicko2.Rating.initial(), 0, null);
+        }
+        double idlePeriods = (double) Duration.between(rating.lastPlayed(), at).toMillis() / period.toMillis();
+        // Die Partie selbst ist eine Periode; idle() ergänzt nur die Zeit darüber hinaus
+        return new PlayerRating(player, Glicko2.idle(rating.rating(), idlePeriods - 1), rating.games(),
+                rating.lastPlayed());
+    }
+
+    private void store(PlayerRating rating) {
+        PlayerRating previous = players.put(rating.player(), rating);
+        if (previous != null) {
+            leaderboard.remove(new Entry(previous.player(), previous.rating().rating()));
+        }
+        leaderboard.add(new Entry(rating.player(), rating.rating().rating()));
+    }
+
+    /**
+     * @param status Endstatus.
+     * @param winner "WHITE", "BLACK" oder null.
+     * @return Ergebnis aus Sicht von Weiß, null für nicht gewertete Spiele.
+     */
+    static Double whiteScore(GameStatus status, String winner) {
+        if (!RATED.contains(status)) {
+            return null;
+        }
+        if ("WHITE".equals(winner)) {
+            return 1.0;
+        }
+        if ("BLACK".equals(winner)) {
+            return 0.0;
+        }
+        return 0.5;
+    }
+
+    /**
+     * @param player Spielername.
+     * @return Aktuelle Wertung (ohne Partie: Startwerte).
+     */
+    public PlayerRating getRating(String player) {
+        return Optional.ofNullable(player != null ? players.get(player) : null)
+                .orElseGet(() -> new PlayerRating(player, Glicko2.Rating.initial(), 0, null));
+    }
+
+    /**
+     * @param offset Anzahl übersprungener Einträge.
+     * @param limit  Maximale Anzahl Einträge.
+     * @return Die Rangliste ab offset, beste Wertung zuerst.
+     */
+    public List<Map<String, Object>> getLeaderboard(int offset, int limit) {
+        Map<String, PlayerRating> snapshot = players;
+        List<Map<String, Object>> page = new ArrayList<>(limit);
+        int rank = offset;
+        for (Entry entry : leaderboard.stream().skip(offset).limit(limit).toList()) {
+            PlayerRating rating = snapshot.get(entry.player());
+            if (rating == null) {
+                continue;
+            }
+            Map<String, Object> json = toJson(rating);
+            json.put("rank", ++rank);
+            page.add(json);
+        }
+        return page;
+    }
+
+    /**
+     * @param rating Wertung eines Spielers.
+     * @return JSON-Map mit gerundeten Werten.
+     */
+    public Map<String, Object> toJson(PlayerRating rating) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("player", rating.player());
+        json.put("rating", Math.round(rating.rating().rating()));
+        json.put("rd", Math.round(rating.rating().rd()));
+        json.put("volatility", Math.round(rating.rating().volatility() * 100_000) / 100_000.0);
+        json.put("games", rating.games());
+        json.put("lastPlayed", rating.lastPlayed());
+        return json;
+    }
+
+    /**
+     * Berechnet alle Wertungen aus dem Archiv neu.
+     * <p>
+     * Spielenden, die währenddessen eintreffen, werden danach auf das Ergebnis
+     * angewendet.
+     * </p>
+     *
+     * @return Anzahl gewerteter Spiele, Perioden und Spieler.
+     */
+    public Map<String, Object> recompute() {
+        synchronized (this) {
+            if (pending != null) {
+                throw new IllegalStateException("Recompute already running");
+            }
+            pending = new ArrayList<>();
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            Set<Long> included = new HashSet<>();
+            TreeMap<Long, List<GameSummary>> periods;
+            try (Stream<GameSummary> games = gameService.streamGames(null, null, null)) {
+                long periodMillis = period.toMillis();
+                periods = games
+                        .filter(game -> game.getLastMoveAt() != null
+                                && whiteScore(game.getStatus(), game.getWinner()) != null
+                                && game.getWhitePlayer() != null && game.getBlackPlayer() != null
+                                && !game.getWhitePlayer().equals(game.getBlackPlayer()))
+                        .peek(game -> included.add(game.getId()))
+                        .collect(Collectors.groupingBy(
+                                game -> epochMillis(game.getLastMoveAt()) / periodMillis,
+                                TreeMap::new, Collectors.toList()));
+            }
+
+            Map<String, PlayerRating> result = new HashMap<>();
+            Map<String, Long> lastPeriod = new HashMap<>();
+            for (Map.Entry<Long, List<GameSummary>> entry : periods.entrySet()) {
+                ratePeriod(entry.getKey(), entry.getValue(), result, lastPeriod);
+            }
+
+            NavigableSet<Entry> board = new ConcurrentSkipListSet<>(BY_RATING);
+            result.values().forEach(rating -> board.add(new Entry(rating.player(), rating.rating().rating())));
+            int games = included.size();
+            synchronized (this) {
+                players = new ConcurrentHashMap<>(result);
+                leaderboard = board;
+                for (GameFinishedEvent event : pending) {
+                    if (!included.contains(event.gameId())) {
+                        apply(event);
+                    }
+                }
+            }
+            log.info("event=ratings_recomputed games={} periods={} players={}", games, periods.size(), result.size());
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("games", games);
+            stats.put("periods", periods.size());
+            stats.put("players", result.size());
+            return stats;
+        } finally {
+            sample.stop(recomputeTimer);
+            synchronized (this) {
+                pending = null;
+            }
+        }
+    }
+
+    /** Bewertet eine Periode: alle Spieler parallel, jeweils gegen die Werte zu Periodenbeginn. */
+    private void ratePeriod(long index, List<GameSummary> games, Map<String, PlayerRating> ratings,
+                            Map<String, Long> lastPeriod) {
+        // Werte zu Periodenbeginn, inkl. RD-Wachstum für ausgelassene Perioden
+        Map<String, Glicko2.Rating> before = new HashMap<>();
+        Map<String, List<GameSummary>> byPlayer = new HashMap<>();
+        for (GameSummary game : games) {
+            for (String player : List.of(game.getWhitePlayer(), game.getBlackPlayer())) {
+                byPlayer.computeIfAbsent(player, p -> new ArrayList<>()).add(game);
+                before.computeIfAbsent(player, p -> {
+                    PlayerRating rating = ratings.get(p);
+                    return rating == null
+                            ? Glicko2.Rating.initial()
+                            : Glicko2.idle(rating.rating(), index - lastPeriod.get(p) - 1);
+                });
+            }
+        }
+
+        Map<String, PlayerRating> updated = byPlayer.entrySet().parallelStream()
+                .map(entry -> {
+                    String player = entry.getKey();
+                    List<Glicko2.Result> results = new ArrayList<>();
+                    LocalDateTime last = null;
+                    for (GameSummary game : entry.getValue()) {
+                        boolean white = player.equals(game.getWhitePlayer());
+                        double score = whiteScore(game.getStatus(), game.getWinner());
+                        String opponent = white ? game.getBlackPlayer() : game.getWhitePlayer();
+                        results.add(new Glicko2.Result(before.get(opponent), white ? score : 1 - score));
+                        if (last == null || game.getLastMoveAt().isAfter(last)) {
+                            last = game.getLastMoveAt();
+                        }
+                    }
+                    PlayerRating previous = ratings.get(player);
+                    int played = (previous != null ? previous.games() : 0) + results.size();
+                    return new PlayerRating(player, Glicko2.update(before.get(player), results, tau), played, last);
+                })
+                .collect(Collectors.toMap(PlayerRating::player, rating -> rating));
+
+        ratings.putAll(updated);
+        updated.keySet().forEach(player -> lastPeriod.put(player, index));
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
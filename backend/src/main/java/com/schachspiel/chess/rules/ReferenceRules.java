@@ -0,0 +1,392 @@
+package com.schachspiel.chess.rules;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Piece;
+import com.schachspiel.chess.model.PieceColor;
+import com.schachspiel.chess.model.PieceType;
+import com.schachspiel.chess.model.Position;
+
+import java.util.Arrays;
+
+/**
+ * Unabhängige Referenzimplementierung der Zugregeln für den Schattenbetrieb.
+ * <p>
+ * Bewusst einfach und ohne Code aus {@link ChessBoard}: eigenes Feld-Array
+ * (Index = Reihe * 8 + Linie, Reihe 0 = erste Reihe), Figuren als
+ * FEN-Buchstaben, Rochaderechte als Bits. Züge werden pseudo-legal über
+ * Richtungstabellen erzeugt und danach auf einer Kopie auf Selbstschach
+ * geprüft. Langsam, aber leicht nachzuprüfen; dient nur als Maßstab für
+ * {@link RulesShadow}.
+ * </p>
+ * <p>
+ * Die Semantik entspricht dem Spielzustand von {@link ChessBoard}: Ein
+ * En-passant-Feld gibt es nach jedem Doppelschritt, eine Umwandlung ohne
+ * (gültige) Figur wird zur Dame.
+ * </p>
+ */
+final class ReferenceRules {
+
+    private static final int[][] KNIGHT = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    private static final int[][] KING = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+    private static final int[][] ROOK = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final int WHITE_SHORT = 1;
+    private static final int WHITE_LONG = 2;
+    private static final int BLACK_SHORT = 4;
+    private static final int BLACK_LONG = 8;
+
+    private final char[] squares = new char[64];
+    private boolean whiteToMove;
+    private int castling;
+    private int enPassant = -1;
+
+    private ReferenceRules() {
+    }
+
+    /**
+     * Übernimmt den Zustand eines Brettes (Figuren, Zugrecht, Rochaderechte aus
+     * den hasMoved-Flags, En-passant-Feld).
+     */
+    static ReferenceRules of(ChessBoard board) {
+        ReferenceRules state = new ReferenceRules();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = board.getPieceAt(new Position(row, col));
+                if (piece != null) {
+                    state.squares[row * 8 + col] = letter(piece.getType(), piece.getColor() == PieceColor.WHITE);
+                }
+            }
+        }
+        state.whiteToMove = board.getCurrentTurn() == PieceColor.WHITE;
+        state.castling = right(board, 0, 7, WHITE_SHORT) | right(board, 0, 0, WHITE_LONG)
+                | right(board, 7, 7, BLACK_SHORT) | right(board, 7, 0, BLACK_LONG);
+        state.enPassant = square(board.getEnPassantTarget());
+        return state;
+    }
+
+    private static int right(ChessBoard board, int row, int rookCol, int flag) {
+        PieceColor color = row == 0 ? PieceColor.WHITE : PieceColor.BLACK;
+        Piece king = board.getPieceAt(new Position(row, 4));
+        Piece rook = board.getPieceAt(new Position(row, rookCol));
+        boolean intact = king != null && king.getType() == PieceType.KING && king.getColor() == color
+                && !king.isHasMoved()
+                && rook != null && rook.getType() == PieceType.ROOK && rook.getColor() == color
+                && !rook.isHasMoved();
+        return intact ? flag : 0;
+    }
+
+    /** @return Feldindex oder -1 für null bzw. Felder außerhalb des Brettes. */
+    static int square(Position position) {
+        return position != null && position.isValid() ? position.getRow() * 8 + position.getCol() : -1;
+    }
+
+    /**
+     * @param from Startfeld.
+     * @return Bitmaske aller legalen Zielfelder der Figur auf {@code from}
+     *         (leer, wenn dort keine Figur des Spielers am Zug steht).
+     */
+    long targets(int from) {
+        if (from < 0 || squares[from] == 0 || isWhite(squares[from]) != whiteToMove) {
+            return 0;
+        }
+        long legal = 0;
+        for (long pseudo = pseudoTargets(from); pseudo != 0; pseudo &= pseudo - 1) {
+            int to = Long.numberOfTrailingZeros(pseudo);
+            ReferenceRules next = play(from, to, null);
+            int king = next.king(whiteToMove);
+            if (king < 0 || !next.attacked(king, !whiteToMove)) {
+                legal |= 1L << to;
+            }
+        }
+        return legal;
+    }
+
+    boolean isLegal(int from, int to) {
+        return to >= 0 && (targets(from) >>> to & 1) != 0;
+    }
+
+    /**
+     * Führt einen (als legal vorausgesetzten) Zug aus.
+     *
+     * @return Neuer Zustand; dieser bleibt unverändert.
+     */
+    ReferenceRules play(int from, int to, PieceType promotion) {
+        ReferenceRules next = new ReferenceRules();
+        System.arraycopy(squares, 0, next.squares, 0, 64);
+        next.whiteToMove = !whiteToMove;
+        next.castling = castling & ~rightsAt(from) & ~rightsAt(to);
+
+        char piece = squares[from];
+        boolean white = isWhite(piece);
+        next.squares[to] = piece;
+        next.squares[from] = 0;
+
+        switch (Character.toUpperCase(piece)) {
+            case 'P' -> {
+                if (to == enPassant && squares[to] == 0 && (to - from) % 8 != 0) {
+                    next.squares[white ? to - 8 : to + 8] = 0;
+                }
+                if (Math.abs(to - from) == 16) {
+                    next.enPassant = (from + to) / 2;
+                }
+                if (to / 8 == (white ? 7 : 0)) {
+                    PieceType type = promotion == null || promotion == PieceType.KING || promotion == PieceType.PAWN
+                            ? PieceType.QUEEN : promotion;
+                    next.squares[to] = letter(type, white);
+                }
+            }
+            case 'K' -> {
+                if (Math.abs(to - from) == 2) {
+                    int rookFrom = to > from ? from + 3 : from - 4;
+                    int rookTo = to > from ? to - 1 : to + 1;
+                    next.squares[rookTo] = next.squares[rookFrom];
+                    next.squares[rookFrom] = 0;
+                }
+            }
+            default -> {
+            }
+        }
+        return next;
+    }
+
+    /** Rochaderechte, die verloren gehen, wenn auf diesem Feld etwas zieht oder geschlagen wird. */
+    private static int rightsAt(int square) {
+        return switch (square) {
+            case 0 -> WHITE_LONG;
+            case 4 -> WHITE_SHORT | WHITE_LONG;
+            case 7 -> WHITE_SHORT;
+            case 56 -> BLACK_LONG;
+            case 60 -> BLACK_SHORT | BLACK_LONG;
+            case 63 -> BLACK_SHORT;
+            default -> 0;
+        };
+    }
+
+    private long pseudoTargets(int from) {
+        char piece = squares[from];
+        boolean white = isWhite(piece);
+        int row = from / 8;
+        int col = from % 8;
+        return switch (Character.toUpperCase(piece)) {
+            case 'P' -> {
+                long mask = 0;
+                int dir = white ? 1 : -1;
+                int ahead = row + dir;
+                if (onBoard(ahead, col) && squares[ahead * 8 + col] == 0) {
+                    mask |= 1L << (ahead * 8 + col);
+                    int twoAhead = row + 2 * dir;
+                    if (row == (white ? 1 : 6) && squares[twoAhead * 8 + col] == 0) {
+                        mask |= 1L << (twoAhead * 8 + col);
+                    }
+                }
+                for (int dc = -1; dc <= 1; dc += 2) {
+                    if (onBoard(ahead, col + dc)) {
+                        int to = ahead * 8 + col + dc;
+                        if (isEnemy(to, white) || to == enPassant) {
+                            mask |= 1L << to;
+                        }
+                    }
+                }
+                yield mask;
+            }
+            case 'N' -> steps(from, KNIGHT, white);
+            case 'B' -> rays(from, BISHOP, white);
+            case 'R' -> rays(from, ROOK, white);
+            case 'Q' -> rays(from, BISHOP, white) | rays(from, ROOK, white);
+            case 'K' -> steps(from, KING, white) | castlingTargets(from, white);
+            default -> 0;
+        };
+    }
+
+    private long castlingTargets(int from, boolean white) {
+        int home = white ? 4 : 60;
+        if (from != home || attacked(home, !white)) {
+            return 0;
+        }
+        long mask = 0;
+        if ((castling & (white ? WHITE_SHORT : BLACK_SHORT)) != 0
+                && squares[home + 1] == 0 && squares[home + 2] == 0 && !attacked(home + 1, !white)) {
+            mask |= 1L << (home + 2);
+        }
+        if ((castling & (white ? WHITE_LONG : BLACK_LONG)) != 0
+                && squares[home - 1] == 0 && squares[home - 2] == 0 && squares[home - 3] == 0
+                && !attacked(home - 1, !white)) {
+            mask |= 1L << (home - 2);
+        }
+        return mask;
+    }
+
+    private long steps(int from, int[][] offsets, boolean white) {
+        long mask = 0;
+        for (int[] offset : offsets) {
+            int row = from / 8 + offset[0];
+            int col = from % 8 + offset[1];
+            if (onBoard(row, col) && !isOwn(row * 8 + col, white)) {
+                mask |= 1L << (row * 8 + col);
+            }
+        }
+        return mask;
+    }
+
+    private long rays(int from, int[][] directions, boolean white) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int row = from / 8 + direction[0];
+            int col = from % 8 + direction[1];
+            while (onBoard(row, col)) {
+                int to = row * 8 + col;
+                if (isOwn(to, white)) {
+                    break;
+                }
+                mask |= 1L << to;
+                if (squares[to] != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    /** Wird {@code target} von einer Figur der Farbe {@code byWhite} angegriffen? */
+    private boolean attacked(int target, boolean byWhite) {
+        for (int from = 0; from < 64; from++) {
+            char piece = squares[from];
+            if (piece == 0 || isWhite(piece) != byWhite) {
+                continue;
+            }
+            long reach = switch (Character.toUpperCase(piece)) {
+                case 'P' -> {
+                    int row = from / 8 + (byWhite ? 1 : -1);
+                    long mask = 0;
+                    for (int dc = -1; dc <= 1; dc += 2) {
+                        if (onBoard(row, from % 8 + dc)) {
+                            mask |= 1L << (row * 8 + from % 8 + dc);
+                        }
+                    }
+                    yield mask;
+                }
+                case 'N' -> steps(from, KNIGHT, byWhite);
+                case 'B' -> rays(from, BISHOP, byWhite);
+                case 'R' -> rays(from, ROOK, byWhite);
+                case 'Q' -> rays(from, BISHOP, byWhite) | rays(from, ROOK, byWhite);
+                case 'K' -> steps(from, KING, byWhite);
+                default -> 0;
+            };
+            if ((reach >>> target & 1) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int king(boolean white) {
+        char king = white ? 'K' : 'k';
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] == king) {
+                return square;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isOwn(int square, boolean white) {
+        return squares[square] != 0 && isWhite(squares[square]) == white;
+    }
+
+    private boolean isEnemy(int square, boolean white) {
+        return squares[square] != 0 && isWhite(squares[square]) != white;
+    }
+
+    private static boolean isWhite(char piece) {
+        return Character.isUpperCase(piece);
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+
+    private static char letter(PieceType type, boolean white) {
+        char letter = switch (type) {
+            case PAWN -> 'P';
+            case KNIGHT -> 'N';
+            case BISHOP -> 'B';
+            case ROOK -> 'R';
+            case QUEEN -> 'Q';
+            case KING -> 'K';
+        };
+        return white ? letter : Character.toLowerCase(letter);
+    }
+
+    /** @return Zielfelder einer Bitmaske in Koordinatennotation, z.B. "[e3, e4]". */
+    static String describe(long targets) {
+        StringBuilder out = new StringBuilder("[");
+        for (long rest = targets; rest != 0; rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            if (out.length() > 1) {
+                out.append(", ");
+            }
+            out.append(new Position(square / 8, square % 8).toNotation());
+        }
+        return out.append(']').toString();
+    }
+
+    /** @return Der Zustand als FEN (Halbzugzähler 0, Zugnummer 1). */
+    String toFen() {
+        StringBuilder fen = new StringBuilder();
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                char piece = squares[row * 8 + col];
+                if (piece == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(piece);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(whiteToMove ? " w " : " b ");
+        if (castling == 0) {
+            fen.append('-');
+        }
+        String letters = "KQkq";
+        for (int i = 0; i < 4; i++) {
+            if ((castling & 1 << i) != 0) {
+                fen.append(letters.charAt(i));
+            }
+        }
+        fen.append(' ').append(enPassant < 0 ? "-" : new Position(enPassant / 8, enPassant % 8).toNotation());
+        return fen.append(" 0 1").toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ReferenceRules state
+                && Arrays.equals(squares, state.squares)
+                && whiteToMove == state.whiteToMove
+                && castling == state.castling
+                && enPassant == state.enPassant;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(squares) * 31 + castling * 2 + (whiteToMove ? 1 : 0) + enPassant * 17;
+    }
+
+    @Override
+    public String toString() {
+        return toFen();
+    }
+}
@@ -0,0 +1,264 @@
+package com.schachspiel.chess.rules;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.PieceType;
+import com.schachspiel.chess.model.Position;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schattenbetrieb der Zugregeln: vergleicht {@link ChessBoard} stichprobenartig
+ * mit der unabhängigen {@link ReferenceRules}.
+ * <p>
+ * Für einen Anteil {@code chess.rules.shadow.rate} der Aufrufe von
+ * {@code makeMove}/{@code getValidMoves} wird auf dem Request-Thread nur der
+ * Zustand vor bzw. nach dem Zug abgegriffen (64 Feldzugriffe); die
+ * Referenzrechnung und der Vergleich laufen auf einem eigenen Thread mit
+ * begrenzter Warteschlange. Zusätzlich begrenzt
+ * {@code chess.rules.shadow.max-per-second} die Prüfungen pro Sekunde, so dass
+ * der Aufwand auch bei voller Last konstant klein bleibt. Ist die
+ * Warteschlange voll, wird die Prüfung verworfen, nie der Request gebremst.
+ * </p>
+ * <p>
+ * Abweichungen werden mit reproduzierbarer Stellung (FEN) und Zug geloggt und
+ * die letzten {@code chess.rules.shadow.keep} davon für
+ * {@code GET /api/admin/rules/shadow} aufbewahrt. Metriken:
+ * {@code chess.rules.shadow.checks}/{@code .mismatches} (Tag op),
+ * {@code .dropped}, {@code .overhead} (Request-Thread) und {@code .reference}
+ * (Prüf-Thread).
+ * </p>
+ */
+@Component
+public class RulesShadow {
+
+    private static final Logger log = LoggerFactory.getLogger(RulesShadow.class);
+
+    private static final String MOVE = "move";
+    private static final String VALID_MOVES = "valid-moves";
+
+    @Value("${chess.rules.shadow.rate:0.001}")
+    private double rate;
+
+    @Value("${chess.rules.shadow.max-per-second:50}")
+    private int maxPerSecond;
+
+    @Value("${chess.rules.shadow.keep:100}")
+    private int keep;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Sekunde (obere Bits) und Anzahl Prüfungen darin (untere 20 Bits). */
+    private final AtomicLong window = new AtomicLong();
+    private final ArrayDeque<Mismatch> recent = new ArrayDeque<>();
+
+    private ThreadPoolExecutor checker;
+    private Timer overhead;
+    private Timer reference;
+    private Counter dropped;
+    private final Map<String, Counter> checks = new LinkedHashMap<>();
+    private final Map<String, Counter> mismatches = new LinkedHashMap<>();
+
+    /** Eine festgestellte Abweichung. */
+    public record Mismatch(Instant time, String operation, String fen, String move, String expected, String actual) {
+    }
+
+    /** Zustand vor einem Zug, der in die Stichprobe gefallen ist. */
+    public static final class Probe {
+        private final ReferenceRules before;
+        private final long nanos;
+
+        private Probe(ReferenceRules before, long nanos) {
+            this.before = before;
+            this.nanos = nanos;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        checker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(256), r -> {
+            Thread thread = new Thread(r, "rules-shadow");
+            thread.setDaemon(true);
+            return thread;
+        }, (task, executor) -> dropped.increment());
+        overhead = Timer.builder("chess.rules.shadow.overhead").publishPercentileHistogram().register(meterRegistry);
+        reference = Timer.builder("chess.rules.shadow.reference").register(meterRegistry);
+        dropped = Counter.builder("chess.rules.shadow.dropped").register(meterRegistry);
+        for (String op : new String[]{MOVE, VALID_MOVES}) {
+            checks.put(op, Counter.builder("chess.rules.shadow.checks").tag("op", op).register(meterRegistry));
+            mismatches.put(op, Counter.builder("chess.rules.shadow.mismatches").tag("op", op).register(meterRegistry));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        checker.shutdownNow();
+    }
+
+    /**
+     * Entscheidet, ob ein Zug geprüft wird, und hält dann den Zustand davor fest.
+     *
+     * @param board Brett vor dem Zug (wird nicht verändert).
+     * @return Probe für {@link #verifyMove} oder null, wenn nicht geprüft wird.
+     */
+    public Probe sample(ChessBoard board) {
+        if (!admit()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        ReferenceRules before = ReferenceRules.of(board);
+        return new Probe(before, System.nanoTime() - start);
+    }
+
+    /**
+     * Vergleicht Legalität und Folgezustand eines Zuges mit der Referenz.
+     *
+     * @param probe Ergebnis von {@link #sample} (null = nicht geprüft).
+     * @param move  Der Zug.
+     * @param after Brett nach dem Zug oder null, wenn der Zug abgelehnt wurde.
+     */
+    public void verifyMove(Probe probe, Move move, ChessBoard after) {
+        if (probe == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        int from = ReferenceRules.square(move.getFrom());
+        int to = ReferenceRules.square(move.getTo());
+        PieceType promotion = move.getPromotionPiece();
+        ReferenceRules actual = after != null ? ReferenceRules.of(after) : null;
+        ReferenceRules before = probe.before;
+        String notation = notation(move);
+        overhead.record(probe.nanos + System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        checker.execute(() -> reference.record(() -> {
+            checks.get(MOVE).increment();
+            boolean legal = before.isLegal(from, to);
+            if (legal != (actual != null)) {
+                mismatch(MOVE, before, notation, legal ? "legal" : "illegal", actual != null ? "legal" : "illegal");
+            } else if (legal) {
+                ReferenceRules expected = before.play(from, to, promotion);
+                if (!expected.equals(actual)) {
+                    mismatch(MOVE, before, notation, expected.toFen(), actual.toFen());
+                }
+            }
+        }));
+    }
+
+    /**
+     * Vergleicht die gültigen Züge einer Figur mit der Referenz (Stichprobe
+     * wird hier gezogen).
+     *
+     * @param board Brett, auf dem die Züge ermittelt wurden.
+     * @param from  Feld der Figur.
+     * @param moves Ergebnis von {@link ChessBoard#getValidMoves}.
+     */
+    public void verifyValidMoves(ChessBoard board, Position from, List<Move> moves) {
+        if (!admit()) {
+            return;
+        }
+        long start = System.nanoTime();
+        ReferenceRules before = ReferenceRules.of(board);
+        int square = ReferenceRules.square(from);
+        long actual = 0;
+        for (Move move : moves) {
+            int to = ReferenceRules.square(move.getTo());
+            if (to >= 0) {
+                actual |= 1L << to;
+            }
+        }
+        long targets = actual;
+        String notation = from != null && from.isValid() ? from.toNotation() : String.valueOf(from);
+        overhead.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        checker.execute(() -> reference.record(() -> {
+            checks.get(VALID_MOVES).increment();
+            long expected = before.targets(square);
+            if (expected != targets) {
+                mismatch(VALID_MOVES, before, notation, ReferenceRules.describe(expected),
+                        ReferenceRules.describe(targets));
+            }
+        }));
+    }
+
+    /** Stichprobe ziehen und das Sekundenbudget einhalten. */
+    private boolean admit() {
+        if (rate <= 0 || ThreadLocalRandom.current().nextDouble() >= rate) {
+            return false;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        while (true) {
+            long state = window.get();
+            long next = state >>> 20 == second ? state + 1 : second << 20 | 1;
+            if ((next & 0xFFFFF) > maxPerSecond) {
+                return false;
+            }
+            if (window.compareAndSet(state, next)) {
+                return true;
+            }
+        }
+    }
+
+    private void mismatch(String operation, ReferenceRules before, String move, String expected, String actual) {
+        mismatches.get(operation).increment();
+        String fen = before.toFen();
+        log.warn("event=rules_shadow_mismatch op={} fen=\"{}\" move={} expected={} actual={}",
+                operation, fen, move, expected, actual);
+        synchronized (recent) {
+            recent.addFirst(new Mismatch(Instant.now(), operation, fen, move, expected, actual));
+            while (recent.size() > keep) {
+                recent.removeLast();
+            }
+        }
+    }
+
+    private static String notation(Move move) {
+        Position from = move.getFrom();
+        Position to = move.getTo();
+        String uci = (from != null && from.isValid() ? from.toNotation() : String.valueOf(from))
+                + (to != null && to.isValid() ? to.toNotation() : String.valueOf(to));
+        PieceType promotion = move.getPromotionPiece();
+        return promotion != null ? uci + "=" + promotion : uci;
+    }
+
+    /**
+     * @return Einstellungen, Zähler und die letzten Abweichungen (neueste zuerst).
+     */
+    public Map<String, Object> getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rate", rate);
+        report.put("maxPerSecond", maxPerSecond);
+        for (String op : checks.keySet()) {
+            report.put(op, Map.of(
+                    "checks", (long) checks.get(op).count(),
+                    "mismatches", (long) mismatches.get(op).count()));
+        }
+        report.put("dropped", (long) dropped.count());
+        report.put("overheadMeanMicros", overhead.mean(TimeUnit.MICROSECONDS));
+        report.put("referenceMeanMicros", reference.mean(TimeUnit.MICROSECONDS));
+        List<Mismatch> list;
+        synchronized (recent) {
+            list = new ArrayList<>(recent);
+        }
+        report.put("recent", list);
+        return report;
+    }
+}
@@ -0,0 +1,115 @@
+package com.schachspiel.chess.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Serverseitige Überwachung der Schachuhren.
+ * <p>
+ * Für jedes Spiel mit laufender Uhr wird die Deadline des Zeitüberschreitens
+ * ("Fallblättchen") in einem {@link TimingWheel} vorgemerkt. Ein einzelner
+ * Thread schaltet das Rad weiter und löst den Rückruf genau dann aus, wenn die
+ * Zeit des Spielers am Zug abgelaufen ist – auch wenn dieser nie wieder zieht.
+ * Alle Zeiten sind monotone Nanosekunden ({@link System#nanoTime()}).
+ * </p>
+ */
+@Component
+public class ClockService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClockService.class);
+
+    @Value("${chess.clock.tick:PT0.01S}")
+    private Duration tick;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, TimingWheel.Timeout> armed = new ConcurrentHashMap<>();
+    private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    private TimingWheel wheel;
+    private Thread thread;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("chess.clocks.running", this, ClockService::runningClocks).register(meterRegistry);
+        // 256 Buckets x 4 Ebenen: bei 10 ms Auflösung weit über ein Jahr Reichweite
+        wheel = new TimingWheel(tick.toNanos(), 8, 4, System.nanoTime());
+        running = true;
+        thread = new Thread(this::run, "chess-clock");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Stellt die Uhr eines Spiels (neu). Ein zuvor gestellter Timer des Spiels
+     * wird dabei abgebrochen.
+     *
+     * @param gameId        Spiel-ID.
+     * @param deadlineNanos Monotoner Zeitpunkt, an dem die Zeit abläuft.
+     * @param onFlagFall    Aktion bei Zeitablauf (läuft auf dem Uhren-Thread).
+     */
+    public void arm(Long gameId, long deadlineNanos, Runnable onFlagFall) {
+        inbox.add(() -> {
+            TimingWheel.Timeout timeout = wheel.schedule(deadlineNanos, () -> {
+                armed.remove(gameId);
+                onFlagFall.run();
+            });
+            TimingWheel.Timeout previous = armed.put(gameId, timeout);
+            if (previous != null) {
+                previous.cancel();
+            }
+        });
+    }
+
+    /**
+     * Hält die Uhr eines Spiels an (z.B. bei Spielende).
+     *
+     * @param gameId Spiel-ID.
+     */
+    public void disarm(Long gameId) {
+        inbox.add(() -> {
+            TimingWheel.Timeout previous = armed.remove(gameId);
+            if (previous != null) {
+                previous.cancel();
+            }
+        });
+    }
+
+    /** @return Anzahl aktuell laufender Uhren. */
+    public int runningClocks() {
+        return armed.size();
+    }
+
+    private void run() {
+        while (running) {
+            Runnable command;
+            while ((command = inbox.poll()) != null) {
+                command.run();
+            }
+            long now = System.nanoTime();
+            wheel.advance(now, e -> log.error("Clock callback failed", e));
+            LockSupport.parkNanos(Math.max(1, wheel.nanosUntilNextTick(System.nanoTime())));
+        }
+    }
+}
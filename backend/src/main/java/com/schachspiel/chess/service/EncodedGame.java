@@ -0,0 +1,74 @@
+package com.schachspiel.chess.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Fertig serialisierte JSON-Antwort eines Spiels in einer bestimmten Version.
+ * <p>
+ * Wird pro Spiel einmal erzeugt und an alle Leser (Spieler, Zuschauer,
+ * Polling) unverändert ausgeliefert. Die gzip-Variante wird erst bei der
+ * ersten Anfrage mit {@code Accept-Encoding: gzip} erzeugt und dann ebenfalls
+ * wiederverwendet.
+ * </p>
+ */
+public final class EncodedGame {
+
+    /** Unterhalb dieser Größe lohnt sich Komprimierung nicht. */
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final Long id;
+    private final long version;
+    private final boolean finished;
+    private final byte[] json;
+    private volatile byte[] gzip;
+
+    EncodedGame(Long id, long version, boolean finished, byte[] json) {
+        this.id = id;
+        this.version = version;
+        this.finished = finished;
+        this.json = json;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** @return true, wenn das Spiel in dieser Version bereits beendet ist. */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /** @return Die JSON-Bytes (nicht verändern). */
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * @return Die gzip-komprimierten JSON-Bytes oder null, wenn die Antwort zu
+     *         klein für eine Komprimierung ist.
+     */
+    public byte[] getGzip() {
+        if (json.length < GZIP_MIN_BYTES) {
+            return null;
+        }
+        byte[] compressed = gzip;
+        if (compressed == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                gz.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            compressed = out.toByteArray();
+            gzip = compressed;
+        }
+        return compressed;
+    }
+}
@@ -0,0 +1,286 @@
+package com.schachspiel.chess.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Game;
+import com.schachspiel.chess.model.GameStatus;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.MoveCode;
+import com.schachspiel.chess.model.Piece;
+import com.schachspiel.chess.model.PieceColor;
+import com.schachspiel.chess.model.Zobrist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kompaktes Binärformat für ausgelagerte Spiele.
+ * <p>
+ * Statt Brett und Historie als JSON (mehrere hundert Byte pro Zug) wird jeder
+ * Halbzug als 16 Bit gespeichert ({@link MoveCode}). Der Kopf enthält Spieler, Status,
+ * Uhren und Zeitstempel, Zahlen als Varint. Beim Lesen werden die Züge auf
+ * einem neuen {@link ChessBoard} nachgespielt; dabei entstehen Figur,
+ * geschlagene Figur, Rochade- und En-Passant-Flag sowie der Brettzustand neu.
+ * </p>
+ * <p>
+ * {@link #encode} prüft, dass das Nachspielen genau dieselbe Historie und
+ * denselben Brettzustand ergibt. Spiele, bei denen das nicht gilt (z.B. aus
+ * älteren Versionen), liefern null und werden weiter als JSON gespeichert.
+ * </p>
+ */
+final class GameCodec {
+
+    // 2: Umwandlungsfigur nach MoveCode (1: PieceType-Ordinalzahl + 1)
+    private static final int VERSION = 2;
+
+    private static final int HAS_WHITE = 1;
+    private static final int HAS_BLACK = 1 << 1;
+    private static final int HAS_WINNER = 1 << 2;
+    private static final int HAS_STATUS = 1 << 3;
+    private static final int HAS_TURN = 1 << 4;
+    private static final int HAS_CREATED = 1 << 5;
+    private static final int HAS_LAST_MOVE = 1 << 6;
+    private static final int HAS_EVALUATION = 1 << 7;
+    private static final int HAS_TIME_LIMIT = 1 << 8;
+    private static final int HAS_WHITE_SECONDS = 1 << 9;
+    private static final int HAS_BLACK_SECONDS = 1 << 10;
+    private static final int HAS_WHITE_MILLIS = 1 << 11;
+    private static final int HAS_BLACK_MILLIS = 1 << 12;
+    private static final int ONLINE = 1 << 13;
+    private static final int CHECK = 1 << 14;
+
+    private final ObjectMapper objectMapper;
+
+    GameCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param game Das Spiel (unter Sperre).
+     * @return Die kodierten Bytes oder null, wenn das Spiel sich nicht
+     *         verlustfrei kompakt darstellen lässt.
+     */
+    byte[] encode(Game game) {
+        List<Move> history;
+        try {
+            history = objectMapper.readValue(game.getMoveHistory(),
+                    objectMapper.getTypeFactory().constructCollectionType(List.class, Move.class));
+        } catch (Exception e) {
+            return null;
+        }
+        short[] plies = new short[history.size()];
+        for (int i = 0; i < plies.length; i++) {
+            try {
+                plies[i] = (short) MoveCode.encode(history.get(i));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        try {
+            // Nur verlustfreie Darstellung zulassen
+            ChessBoard board = new ChessBoard();
+            String replayed = writeHistory(replay(board, plies, null));
+            if (!replayed.equals(game.getMoveHistory())
+                    || !objectMapper.writeValueAsString(board).equals(game.getBoardState())) {
+                return null;
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + plies.length * 2);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            writeVarLong(out, game.getId());
+            writeVarLong(out, flags(game));
+            writeString(out, game.getWhitePlayer());
+            writeString(out, game.getBlackPlayer());
+            writeString(out, game.getWinner());
+            if (game.getStatus() != null) {
+                out.writeByte(game.getStatus().ordinal());
+            }
+            if (game.getCurrentTurn() != null) {
+                out.writeByte(game.getCurrentTurn().ordinal());
+            }
+            writeTime(out, game.getCreatedAt());
+            writeTime(out, game.getLastMoveAt());
+            if (game.getEvaluation() != null) {
+                writeVarLong(out, zigZag(game.getEvaluation()));
+            }
+            if (game.getTimeLimit() != null) {
+                writeVarLong(out, zigZag(game.getTimeLimit()));
+            }
+            if (game.getWhiteTimeRemaining() != null) {
+                writeVarLong(out, zigZag(game.getWhiteTimeRemaining()));
+            }
+            if (game.getBlackTimeRemaining() != null) {
+                writeVarLong(out, zigZag(game.getBlackTimeRemaining()));
+            }
+            if (game.getWhiteClockMillis() != null) {
+                writeVarLong(out, zigZag(game.getWhiteClockMillis()));
+            }
+            if (game.getBlackClockMillis() != null) {
+                writeVarLong(out, zigZag(game.getBlackClockMillis()));
+            }
+            writeVarLong(out, game.getVersion());
+            writeVarLong(out, game.getMoveCount());
+            writeVarLong(out, plies.length);
+            for (short ply : plies) {
+                out.writeShort(ply);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param data Bytes aus {@link #encode}.
+     * @return Das Spiel mit neu erzeugtem Brettzustand und Historie.
+     * @throws IOException Wenn die Daten nicht lesbar sind.
+     */
+    Game decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readUnsignedByte() != VERSION) {
+            throw new IOException("Unknown game format");
+        }
+        Game game = new Game();
+        game.setId(readVarLong(in));
+        int flags = (int) readVarLong(in);
+        game.setWhitePlayer((flags & HAS_WHITE) != 0 ? in.readUTF() : null);
+        game.setBlackPlayer((flags & HAS_BLACK) != 0 ? in.readUTF() : null);
+        game.setWinner((flags & HAS_WINNER) != 0 ? in.readUTF() : null);
+        game.setStatus((flags & HAS_STATUS) != 0 ? GameStatus.values()[in.readUnsignedByte()] : null);
+        game.setCurrentTurn((flags & HAS_TURN) != 0 ? PieceColor.values()[in.readUnsignedByte()] : null);
+        game.setCreatedAt((flags & HAS_CREATED) != 0 ? readTime(in) : null);
+        game.setLastMoveAt((flags & HAS_LAST_MOVE) != 0 ? readTime(in) : null);
+        game.setEvaluation((flags & HAS_EVALUATION) != 0 ? (int) unZigZag(readVarLong(in)) : null);
+        game.setTimeLimit((flags & HAS_TIME_LIMIT) != 0 ? (int) unZigZag(readVarLong(in)) : null);
+        game.setWhiteTimeRemaining((flags & HAS_WHITE_SECONDS) != 0 ? (int) unZigZag(readVarLong(in)) : null);
+        game.setBlackTimeRemaining((flags & HAS_BLACK_SECONDS) != 0 ? (int) unZigZag(readVarLong(in)) : null);
+        game.setWhiteClockMillis((flags & HAS_WHITE_MILLIS) != 0 ? unZigZag(readVarLong(in)) : null);
+        game.setBlackClockMillis((flags & HAS_BLACK_MILLIS) != 0 ? unZigZag(readVarLong(in)) : null);
+        game.setOnlineMode((flags & ONLINE) != 0);
+        game.setCheck((flags & CHECK) != 0);
+        game.setVersion(readVarLong(in));
+        game.setMoveCount((int) readVarLong(in));
+        short[] plies = new short[(int) readVarLong(in)];
+        for (int i = 0; i < plies.length; i++) {
+            plies[i] = in.readShort();
+        }
+
+        ChessBoard board = new ChessBoard();
+        List<Long> hashes = new ArrayList<>();
+        game.setMoveHistory(writeHistory(replay(board, plies, hashes)));
+        game.setBoardState(objectMapper.writeValueAsString(board));
+        game.setPositionHashes(hashes);
+        return game;
+    }
+
+    /**
+     * Spielt die Halbzüge nach. Die Historie enthält Momentaufnahmen der Figuren
+     * nach dem jeweiligen Zug (wie beim Spielen selbst); das Brett führt dieselbe
+     * Historie. Ist {@code hashes} angegeben, erhält es die Stellungs-Hashes
+     * seit dem letzten Bauern- oder Schlagzug (siehe {@link Game#getPositionHashes()}).
+     */
+    private static List<Move> replay(ChessBoard board, short[] plies, List<Long> hashes) {
+        if (hashes != null) {
+            hashes.add(Zobrist.hash(board));
+        }
+        List<Move> history = new ArrayList<>(plies.length);
+        for (short ply : plies) {
+            Move move = MoveCode.decode(ply);
+            board.makeMove(move);
+            move.setPiece(copyOf(move.getPiece()));
+            move.setCapturedPiece(copyOf(move.getCapturedPiece()));
+            history.add(move);
+            if (hashes != null) {
+                if (board.getHalfmoveClock() == 0) {
+                    hashes.clear();
+                }
+                hashes.add(Zobrist.hash(board));
+            }
+        }
+        board.setMoveHistory(history);
+        return history;
+    }
+
+    private String writeHistory(List<Move> history) throws IOException {
+        return objectMapper.writeValueAsString(history);
+    }
+
+    private static int flags(Game game) {
+        int flags = 0;
+        flags |= game.getWhitePlayer() != null ? HAS_WHITE : 0;
+        flags |= game.getBlackPlayer() != null ? HAS_BLACK : 0;
+        flags |= game.getWinner() != null ? HAS_WINNER : 0;
+        flags |= game.getStatus() != null ? HAS_STATUS : 0;
+        flags |= game.getCurrentTurn() != null ? HAS_TURN : 0;
+        flags |= game.getCreatedAt() != null ? HAS_CREATED : 0;
+        flags |= game.getLastMoveAt() != null ? HAS_LAST_MOVE : 0;
+        flags |= game.getEvaluation() != null ? HAS_EVALUATION : 0;
+        flags |= game.getTimeLimit() != null ? HAS_TIME_LIMIT : 0;
+        flags |= game.getWhiteTimeRemaining() != null ? HAS_WHITE_SECONDS : 0;
+        flags |= game.getBlackTimeRemaining() != null ? HAS_BLACK_SECONDS : 0;
+        flags |= game.getWhiteClockMillis() != null ? HAS_WHITE_MILLIS : 0;
+        flags |= game.getBlackClockMillis() != null ? HAS_BLACK_MILLIS : 0;
+        flags |= game.isOnlineMode() ? ONLINE : 0;
+        flags |= game.isCheck() ? CHECK : 0;
+        return flags;
+    }
+
+    private static Piece copyOf(Piece piece) {
+        return piece == null ? null : new Piece(piece.getType(), piece.getColor(), piece.isHasMoved());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /** Zeitstempel verlustfrei: Sekunden (UTC-Arithmetik, keine Zeitzone) und Nanosekunden. */
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        if (time != null) {
+            writeVarLong(out, zigZag(time.toEpochSecond(ZoneOffset.UTC)));
+            writeVarLong(out, time.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = unZigZag(readVarLong(in));
+        return LocalDateTime.ofEpochSecond(seconds, (int) readVarLong(in), ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,27 @@
+package com.schachspiel.chess.service;
+
+import com.schachspiel.chess.model.Game;
+import com.schachspiel.chess.model.GameStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Wird veröffentlicht, sobald ein Spiel beendet ist (Matt, Patt, Remis oder
+ * Zeitüberschreitung). Laufende Engine-Aufträge des Spiels werden daraufhin
+ * abgebrochen und die Wertungen der Spieler fortgeschrieben.
+ *
+ * @param gameId      Spiel-ID.
+ * @param status      Der Endstatus.
+ * @param whitePlayer Spieler mit Weiß.
+ * @param blackPlayer Spieler mit Schwarz.
+ * @param winner      "WHITE", "BLACK" oder null (Remis).
+ * @param finishedAt  Zeitpunkt des Spielendes.
+ */
+public record GameFinishedEvent(Long gameId, GameStatus status, String whitePlayer, String blackPlayer,
+                                String winner, LocalDateTime finishedAt) {
+
+    static GameFinishedEvent of(Game game) {
+        return new GameFinishedEvent(game.getId(), game.getStatus(), game.getWhitePlayer(), game.getBlackPlayer(),
+                game.getWinner(), game.getLastMoveAt() != null ? game.getLastMoveAt() : LocalDateTime.now());
+    }
+}
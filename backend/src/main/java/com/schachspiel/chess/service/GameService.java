@@ -1,13 +1,26 @@
 package com.schachspiel.chess.service;
 
+import com.schachspiel.chess.cluster.ClusterTopology;
 import com.schachspiel.chess.model.*;
+import com.schachspiel.chess.notation.PgnReader;
+import com.schachspiel.chess.notation.PgnWriter;
+import com.schachspiel.chess.notation.San;
+import com.schachspiel.chess.position.PositionIndex;
+import com.schachspiel.chess.rules.RulesShadow;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Der GameService enthält die Geschäftslogik zur Verwaltung von Spielen.
@@ -22,13 +35,92 @@ import java.util.Optional;
 @Service
 public class GameService {
 
-    // In-memory storage (Map statt Datenbank für einfache lokale Ausführung)
-    private final java.util.Map<Long, Game> games = new java.util.concurrent.ConcurrentHashMap<>();
-    private final java.util.concurrent.atomic.AtomicLong idGenerator = new java.util.concurrent.atomic.AtomicLong(1);
+    // Speicher (Hot im Speicher, Cold auf der Platte) statt Datenbank für einfache lokale Ausführung
+    @Autowired
+    private GameStore store;
+
+    @Autowired
+    private ClockService clockService;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SpectatorHub spectatorHub;
+
+    // Spielende an Interessierte melden (z.B. Abbruch laufender Engine-Aufträge)
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    // Stellungssuche: jede Stellung nach einem Zug wird eingetragen
+    @Autowired
+    private PositionIndex positionIndex;
+
+    // Stichprobenartiger Abgleich der Zugregeln mit der Referenzimplementierung
+    @Autowired
+    private RulesShadow rulesShadow;
+
+    // Vergibt IDs, die diesem Knoten gehören (fortlaufend im Einzelbetrieb)
+    @Autowired
+    private ClusterTopology topology;
+
+    // Automatisches Remis: n-fache Stellungswiederholung bzw. Halbzüge ohne Bauern- oder Schlagzug (0 = aus)
+    @Value("${chess.rules.draw.repetitions:3}")
+    private int drawRepetitions;
+
+    @Value("${chess.rules.draw.halfmoves:100}")
+    private int drawHalfmoves;
+
+    // Obergrenze der Halbzüge eines PGN-Imports (werden vor dem Sperren des Spiels gelesen)
+    @Value("${chess.import.max-plies:1000}")
+    private int importMaxPlies;
+
+    // Serialisierte Antwort der jeweils neuesten Version pro Spiel (ohne bzw. mit legalen Zügen)
+    private final java.util.Map<Long, EncodedGame> encodedGames = new java.util.concurrent.ConcurrentHashMap<>();
+    private final java.util.Map<Long, EncodedGame> encodedGamesWithMoves = new java.util.concurrent.ConcurrentHashMap<>();
+
+    // Legale Züge der jeweils neuesten Version pro Spiel (einmal pro Stellung erzeugt)
+    private final java.util.Map<Long, LegalMoves> legalMoveMaps = new java.util.concurrent.ConcurrentHashMap<>();
+
+    private record LegalMoves(long version, java.util.Map<String, List<String>> moves) {
+    }
+
+    // Laufzeitmessung der Hot-Paths (Micrometer, siehe /actuator/metrics)
+    private Timer serializeTimer;
+    private Timer deserializeTimer;
+    private Timer legalMoveTimer;
+    private Timer validMovesTimer;
+    private Timer statusTimer;
+    private Timer legalMoveMapTimer;
+    private Counter moveCounter;
+    private Counter repetitionDraws;
+    private Counter moveLimitDraws;
+    private Counter encodedHits;
+    private Counter encodedMisses;
+
+    @PostConstruct
+    void initMetrics() {
+        encodedHits = Counter.builder("chess.response.cache").tag("result", "hit").register(meterRegistry);
+        encodedMisses = Counter.builder("chess.response.cache").tag("result", "miss").register(meterRegistry);
+        store.addEvictionListener(this::discardEncoded);
+        serializeTimer = hotPathTimer("chess.board.serialize");
+        deserializeTimer = hotPathTimer("chess.board.deserialize");
+        legalMoveTimer = hotPathTimer("chess.rules.legal-move");
+        validMovesTimer = hotPathTimer("chess.rules.valid-moves");
+        statusTimer = hotPathTimer("chess.rules.status-detection");
+        legalMoveMapTimer = hotPathTimer("chess.rules.legal-move-map");
+        moveCounter = Counter.builder("chess.moves").description("Ausgeführte Züge").register(meterRegistry);
+        repetitionDraws = Counter.builder("chess.draws").tag("reason", "repetition").register(meterRegistry);
+        moveLimitDraws = Counter.builder("chess.draws").tag("reason", "move-limit").register(meterRegistry);
+    }
+
+    private Timer hotPathTimer(String name) {
+        return Timer.builder(name).publishPercentileHistogram().register(meterRegistry);
+    }
+
     /**
      * Erstellt ein neues Schachspiel.
      *
@@ -40,7 +132,7 @@ public class GameService {
      */
     public Game createGame(String whitePlayer, String blackPlayer, boolean isOnlineMode, Integer timeLimit) {
         Game game = new Game();
-        game.setId(idGenerator.getAndIncrement());
+        game.setId(topology.nextGameId());
         game.setWhitePlayer(whitePlayer);
         game.setBlackPlayer(blackPlayer);
         game.setCurrentTurn(PieceColor.WHITE);
@@ -64,16 +156,67 @@ public class GameService {
         if (timeLimit != null && timeLimit > 0) {
             game.setWhiteTimeRemaining(timeLimit);
             game.setBlackTimeRemaining(timeLimit);
+            game.setWhiteClockMillis(timeLimit * 1000L);
+            game.setBlackClockMillis(timeLimit * 1000L);
         }
 
         ChessBoard board = new ChessBoard();
         game.setBoardState(serializeBoard(board));
         game.setMoveHistory("[]");
+        game.setPositionHashes(new ArrayList<>(List.of(Zobrist.hash(board))));
+        game.setEvaluation(board.getEvaluation());
+        game.setEvaluationState(board.evaluationState());
 
-        games.put(game.getId(), game);
+        store.put(game);
+        // Auch die Grundstellung (Halbzug 0) ist suchbar
+        positionIndex.add(game.getPositionHashes().get(0), game.getId(), 0);
+        armClock(game);
         return game;
     }
 
+    /**
+     * Übernimmt ein Spiel, das ein anderer Knoten abgegeben hat, und stellt
+     * dessen Uhr. Ein hier bereits vorhandenes Spiel wird nie überschrieben.
+     *
+     * @param game Das Spiel.
+     * @throws Exception Wenn die ID fehlt oder das Spiel hier schon existiert.
+     */
+    public void adoptGame(Game game) throws Exception {
+        if (game.getId() == null || !store.putIfAbsent(game)) {
+            throw new Exception("Game " + game.getId() + " already exists or has no id");
+        }
+        discardEncoded(game.getId());
+        armClock(game);
+    }
+
+    /**
+     * Gibt ein Spiel an einen anderen Knoten ab. Erst nach erfolgreicher
+     * Übergabe wird es lokal entfernt; Uhr und Zuschauer-Streams werden beendet.
+     * Während der Übergabe sind keine Züge möglich; scheitert sie, wird die Uhr
+     * neu gestellt (ein zwischenzeitlicher Rückruf wurde abgelehnt).
+     *
+     * @param id       Die Spiel-ID.
+     * @param handover Überträgt das Spiel (ohne Sperre, das Spiel ändert sich dabei nicht).
+     * @throws Exception Wenn das Spiel fehlt oder die Übergabe fehlschlägt.
+     */
+    public void releaseGame(Long id, GameStore.GameUpdate<Void> handover) throws Exception {
+        try {
+            store.release(id, handover);
+        } catch (Exception e) {
+            try {
+                store.update(id, game -> {
+                    armClock(game);
+                    return null;
+                });
+            } catch (Exception ignored) {
+                // Spiel existiert nicht mehr
+            }
+            throw e;
+        }
+        clockService.disarm(id);
+        spectatorHub.close(id);
+    }
+
     /**
      * Lädt ein Spiel anhand seiner ID.
      * 
@@ -82,16 +225,188 @@ public class GameService {
      *         gefunden).
      */
     public Optional<Game> getGame(Long id) {
-        return Optional.ofNullable(games.get(id));
+        return Optional.ofNullable(store.get(id));
     }
 
     /**
-     * Gibt alle aktiven Spiele zurück.
-     * 
-     * @return Liste aller Spiele.
+     * Liefert die fertig serialisierte JSON-Antwort der aktuellen Version.
+     * <p>
+     * Solange sich das Spiel nicht ändert, teilen sich alle Leser dieselben
+     * Bytes; serialisiert wird nur einmal pro Version. Jede Änderung des Spiels
+     * verwirft den Eintrag.
+     * </p>
+     *
+     * @param id Die Spiel-ID.
+     * @return Die kodierte Antwort oder leer, wenn das Spiel nicht existiert.
+     */
+    public Optional<EncodedGame> getEncodedGame(Long id) {
+        return getEncodedGame(id, false);
+    }
+
+    /**
+     * Wie {@link #getEncodedGame(Long)}, auf Wunsch zusätzlich mit dem Feld
+     * {@code legalMoves}: alle legalen Züge des Spielers am Zug (Startfeld →
+     * Zielfelder). Die Züge werden einmal pro Version in einem Durchgang
+     * erzeugt; der Client braucht danach keine Anfrage pro angeklickter Figur.
+     *
+     * @param id         Die Spiel-ID.
+     * @param legalMoves Ob die legalen Züge enthalten sein sollen.
+     * @return Die kodierte Antwort oder leer, wenn das Spiel nicht existiert.
+     */
+    public Optional<EncodedGame> getEncodedGame(Long id, boolean legalMoves) {
+        java.util.Map<Long, EncodedGame> cache = legalMoves ? encodedGamesWithMoves : encodedGames;
+        EncodedGame cached = cache.get(id);
+        Game game = store.get(id);
+        if (game == null) {
+            return Optional.empty();
+        }
+        if (cached != null && cached.getVersion() == game.getVersion()) {
+            encodedHits.increment();
+            return Optional.of(cached);
+        }
+        try {
+            return Optional.of(store.read(id, locked -> {
+                EncodedGame current = cache.get(id);
+                if (current != null && current.getVersion() == locked.getVersion()) {
+                    encodedHits.increment();
+                    return current;
+                }
+                encodedMisses.increment();
+                EncodedGame encoded = new EncodedGame(id, locked.getVersion(),
+                        locked.getStatus() != GameStatus.IN_PROGRESS, encode(locked, legalMoves));
+                cache.put(id, encoded);
+                return encoded;
+            }));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] encode(Game game, boolean legalMoves) throws JsonProcessingException {
+        if (!legalMoves) {
+            return objectMapper.writeValueAsBytes(game);
+        }
+        com.fasterxml.jackson.databind.node.ObjectNode node = objectMapper.valueToTree(game);
+        node.set("legalMoves", objectMapper.valueToTree(legalMoves(game)));
+        return objectMapper.writeValueAsBytes(node);
+    }
+
+    /**
+     * Legale Züge der aktuellen Stellung, einmal pro Version erzeugt (unter der
+     * Sperre des Spiels aufrufen). Beendete Spiele haben keine Züge.
+     */
+    private java.util.Map<String, List<String>> legalMoves(Game game) {
+        LegalMoves cached = legalMoveMaps.get(game.getId());
+        if (cached != null && cached.version() == game.getVersion()) {
+            return cached.moves();
+        }
+        java.util.Map<String, List<String>> moves = game.getStatus() != GameStatus.IN_PROGRESS
+                ? java.util.Map.of()
+                : legalMoveMapTimer.record(() -> deserializeBoard(game.getBoardState()).getLegalMoveMap());
+        legalMoveMaps.put(game.getId(), new LegalMoves(game.getVersion(), moves));
+        return moves;
+    }
+
+    /** Verwirft alle pro Version zwischengespeicherten Antworten eines Spiels. */
+    private void discardEncoded(Long id) {
+        encodedGames.remove(id);
+        encodedGamesWithMoves.remove(id);
+        legalMoveMaps.remove(id);
+    }
+
+    /**
+     * Liefert nur die Änderungen eines Spiels seit einer dem Client bekannten
+     * Version: neue Züge, zuletzt geschlagene Figur, Status und Uhren.
+     *
+     * @param id    Die Spiel-ID.
+     * @param since Dem Client bekannte Version.
+     * @return Das Delta (leere Zugliste, wenn sich nichts geändert hat).
+     * @throws Exception Wenn das Spiel nicht existiert oder die Version ungültig ist.
+     */
+    public GameDelta getGameDelta(Long id, long since) throws Exception {
+        return getGameDelta(id, since, false);
+    }
+
+    /**
+     * Wie {@link #getGameDelta(Long, long)}, auf Wunsch mit den legalen Zügen
+     * der neuen Stellung (siehe {@link #getEncodedGame(Long, boolean)}).
+     *
+     * @param id         Die Spiel-ID.
+     * @param since      Dem Client bekannte Version.
+     * @param legalMoves Ob die legalen Züge enthalten sein sollen.
+     * @return Das Delta.
+     * @throws Exception Wenn das Spiel nicht existiert oder die Version ungültig ist.
      */
-    public List<Game> getAllGames() {
-        return new ArrayList<>(games.values());
+    public GameDelta getGameDelta(Long id, long since, boolean legalMoves) throws Exception {
+        return store.read(id, game -> {
+            if (since < 0 || since > game.getVersion()) {
+                throw new Exception("Unknown version");
+            }
+            List<Move> newMoves = List.of();
+            int known = (int) Math.min(since, game.getMoveCount());
+            if (known < game.getMoveCount()) {
+                List<Move> history = parseHistory(game.getMoveHistory());
+                newMoves = new ArrayList<>(history.subList(Math.min(known, history.size()), history.size()));
+            }
+            GameDelta delta = GameDelta.of(game, since, newMoves);
+            if (legalMoves) {
+                delta.setLegalMoves(legalMoves(game));
+            }
+            return delta;
+        });
+    }
+
+    /**
+     * Liefert die statische Bewertung der aktuellen Stellung.
+     * <p>
+     * Die Bewertung wird bei jedem Zug mitgeschrieben; hier wird weder das
+     * Brett deserialisiert noch gerechnet. Nur bei Spielen, die vor Einführung
+     * der Bewertung angelegt wurden, wird sie berechnet, aber nicht im Spiel
+     * gespeichert (das wäre eine Änderung ohne neue Version).
+     * </p>
+     *
+     * @param id Die Spiel-ID.
+     * @return ID, Version, Bewertung (Centipawns, Sicht Weiß), Status und
+     *         Gewinner; leer, wenn das Spiel nicht existiert.
+     * @throws Exception Wenn das Spiel während des Zugriffs verschwindet.
+     */
+    public Optional<java.util.Map<String, Object>> getEvaluation(Long id) throws Exception {
+        if (store.get(id) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(store.read(id, game -> {
+            Integer evaluation = game.getEvaluation();
+            if (evaluation == null) {
+                evaluation = deserializeBoard(game.getBoardState()).getEvaluation();
+            }
+            java.util.Map<String, Object> result = new java.util.LinkedHashMap<>();
+            result.put("id", game.getId());
+            result.put("version", game.getVersion());
+            result.put("evaluation", evaluation);
+            result.put("status", game.getStatus());
+            result.put("winner", game.getWinner());
+            return result;
+        }));
+    }
+
+    /**
+     * Liefert Spielzusammenfassungen seitenweise, neueste zuerst.
+     * <p>
+     * Der Stream arbeitet direkt auf dem sortierten ID-Index des Speichers (keine
+     * Kopie), d.h. der Aufwand hängt nur von der gelesenen Seitengröße ab, nicht
+     * von der Anzahl gespeicherter Spiele. Ausgelagerte Spiele werden dafür nicht
+     * nachgeladen.
+     * </p>
+     *
+     * @param cursor ID des letzten Spiels der vorherigen Seite (null für Anfang).
+     * @param status Optionaler Statusfilter.
+     * @param player Optionaler Spielerfilter (Weiß oder Schwarz).
+     * @return Lazy Stream der passenden Zusammenfassungen mit absteigender ID.
+     */
+    public Stream<GameSummary> streamGames(Long cursor, GameStatus status, String player) {
+        return store.summaries(cursor)
+                .filter(g -> status == null || g.getStatus() == status)
+                .filter(g -> player == null || player.equals(g.getWhitePlayer()) || player.equals(g.getBlackPlayer()));
     }
 
     /**
@@ -101,11 +416,56 @@ public class GameService {
      * @return Liste der Spiele.
      */
     public List<Game> getGamesByPlayer(String playerName) {
-        return games.values().stream()
-                .filter(g -> playerName.equals(g.getWhitePlayer()) || playerName.equals(g.getBlackPlayer()))
+        return streamGames(null, null, playerName)
+                .map(summary -> store.peek(summary.getId()))
+                .filter(java.util.Objects::nonNull)
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    /**
+     * Schreibt ein Spiel als PGN.
+     *
+     * @param gameId ID des Spiels.
+     * @param out    Ziel.
+     * @throws Exception Wenn das Spiel nicht existiert.
+     */
+    public void exportPgn(Long gameId, java.io.Writer out) throws Exception {
+        Game game = store.get(gameId);
+        if (game == null) {
+            throw new Exception("Game not found");
+        }
+        PgnWriter.write(out, game, parseHistory(game.getMoveHistory()));
+    }
+
+    /**
+     * Schreibt alle (gefilterten) Spiele als PGN-Archiv, neueste zuerst.
+     * <p>
+     * Es wird immer nur ein Spiel gleichzeitig geladen und nach jedem Spiel
+     * geflusht; ausgelagerte Spiele werden dafür nicht wieder resident gemacht.
+     * Der Speicherbedarf ist damit unabhängig von der Archivgröße.
+     * </p>
+     *
+     * @param out    Ziel (z.B. der Response-Stream).
+     * @param status Optionaler Statusfilter.
+     * @param player Optionaler Spielerfilter.
+     * @return Anzahl exportierter Spiele.
+     * @throws java.io.IOException Bei Schreibfehlern.
+     */
+    public long exportPgnArchive(java.io.Writer out, GameStatus status, String player) throws java.io.IOException {
+        long count = 0;
+        java.util.Iterator<GameSummary> it = streamGames(null, status, player).iterator();
+        while (it.hasNext()) {
+            Game game = store.peek(it.next().getId());
+            if (game == null) {
+                continue;
+            }
+            PgnWriter.write(out, game, parseHistory(game.getMoveHistory()));
+            out.flush();
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Führt einen Zug aus.
      * <p>
@@ -121,13 +481,49 @@ public class GameService {
      * @param gameId ID des Spiels.
      * @param move   Der Zug.
      * @return Das aktualisierte Spiel.
-     * @throws Exception Wenn der Zug ungültig ist.
+     * @throws Exception Wenn der Zug ungültig ist oder zu spät kommt (die Zeit
+     *                   ist abgelaufen; das Spiel ist dann verloren).
      */
     public Game makeMove(Long gameId, Move move) throws Exception {
-        Game game = games.get(gameId);
-        if (game == null) {
-            throw new Exception("Game not found");
-        }
+        return store.update(gameId, game -> applyMove(game, move));
+    }
+
+    /**
+     * Wie {@link #makeMove(Long, Move)}; die Antwort wird noch unter der Sperre
+     * des Spiels gebaut und zeigt damit genau den Stand nach diesem Zug, auch
+     * wenn gleich danach ein weiterer Zug folgt.
+     *
+     * @param gameId   ID des Spiels.
+     * @param move     Der Zug.
+     * @param response Baut die Antwort aus dem aktualisierten Spiel.
+     * @return Die Antwort.
+     * @throws Exception Wie {@link #makeMove(Long, Move)}.
+     */
+    public <T> T makeMove(Long gameId, Move move, GameStore.GameUpdate<T> response) throws Exception {
+        return store.update(gameId, game -> response.apply(applyMove(game, move)));
+    }
+
+    /**
+     * Führt einen Zug nur aus, wenn sich das Spiel seit dem Lesen nicht
+     * verändert hat (z.B. für Engine-Züge, die auf einem Snapshot berechnet
+     * wurden).
+     *
+     * @param gameId          ID des Spiels.
+     * @param move            Der Zug.
+     * @param expectedVersion Version, auf der der Zug berechnet wurde.
+     * @return Das aktualisierte Spiel.
+     * @throws Exception Wenn das Spiel sich geändert hat oder der Zug ungültig ist.
+     */
+    public Game makeMove(Long gameId, Move move, long expectedVersion) throws Exception {
+        return store.update(gameId, game -> {
+            if (game.getVersion() != expectedVersion) {
+                throw new Exception("Position has changed");
+            }
+            return applyMove(game, move);
+        });
+    }
+
+    private Game applyMove(Game game, Move move) throws Exception {
 
         // Ensure it's the correct turn
         // Note: Client might send moves out of turn, verify locally
@@ -136,62 +532,453 @@ public class GameService {
         }
 
         ChessBoard board = deserializeBoard(game.getBoardState());
+        board.restoreEvaluation(game.getEvaluationState());
 
         // Use IS LEGAL MOVE (checks king safety) instead of just valid move
-        if (!board.isLegalMove(move)) {
+        RulesShadow.Probe probe = rulesShadow.sample(board);
+        if (!legalMoveTimer.record(() -> board.isLegalMove(move))) {
+            rulesShadow.verifyMove(probe, move, null);
             throw new Exception("Invalid move or King is in check");
         }
 
+        // Time Calculation: the side to move pays for its thinking time first.
+        // If the flag fell in the meantime, the move comes too late.
+        if (game.isClockRunning()) {
+            long remaining = remainingMillis(game);
+            if (remaining == 0) {
+                // Das Spielende bleibt bestehen, der Zug wird wie nach Spielende abgelehnt
+                flagFall(game);
+                throw new Exception("Game is over");
+            }
+            setClock(game, game.getCurrentTurn(), remaining);
+        }
+
+        List<Long> positions = positionHashes(game);
         board.makeMove(move);
+        rulesShadow.verifyMove(probe, move, board);
 
         game.setBoardState(serializeBoard(board));
+        game.setEvaluation(board.getEvaluation());
+        game.setEvaluationState(board.evaluationState());
 
-        // Time Calculation
-        if (game.getTimeLimit() != null && game.getTimeLimit() > 0) {
-            long elapsedSeconds = java.time.Duration.between(game.getLastMoveAt(), java.time.LocalDateTime.now())
-                    .getSeconds();
-
-            if (game.getCurrentTurn() == PieceColor.WHITE) {
-                int remaining = (int) Math.max(0, game.getWhiteTimeRemaining() - elapsedSeconds);
-                game.setWhiteTimeRemaining(remaining);
-                if (remaining == 0) {
-                    game.setStatus(GameStatus.VICTORY_BY_TIME);
-                    game.setWinner("BLACK");
-                }
-            } else {
-                int remaining = (int) Math.max(0, game.getBlackTimeRemaining() - elapsedSeconds);
-                game.setBlackTimeRemaining(remaining);
-                if (remaining == 0) {
-                    game.setStatus(GameStatus.VICTORY_BY_TIME);
-                    game.setWinner("WHITE");
-                }
+        game.setCurrentTurn(board.getCurrentTurn());
+        game.setMoveHistory(addMoveToHistory(game.getMoveHistory(), move));
+        game.setMoveCount(game.getMoveCount() + 1);
+        game.setVersion(game.getVersion() + 1);
+        discardEncoded(game.getId());
+        game.onUpdate();
+        moveCounter.increment();
+        long hash = Zobrist.hash(board);
+        positionIndex.add(hash, game.getId(), game.getMoveCount());
+        addPosition(positions, board, hash);
+
+        updateStatus(game, board, outcome(board, positions));
+
+        if (game.isClockRunning()) {
+            armClock(game);
+        } else {
+            clockService.disarm(game.getId());
+        }
+        publish(game, game.getVersion() - 1, List.of(move));
+        return game;
+    }
+
+    /**
+     * Spielt mehrere Züge in einem Durchgang ein (Stapel-Import).
+     * <p>
+     * Das Brett wird nur einmal deserialisiert und die Historie nur einmal
+     * gelesen; alle Züge werden auf demselben Brett validiert und ausgeführt.
+     * Gespeichert wird erst am Ende. Ist ein Zug ungültig, bleibt das Spiel
+     * unverändert. Endet das Spiel unterwegs (Matt, Patt, Remis), werden die
+     * restlichen Züge des Stapels nicht mehr ausgeführt.
+     * </p>
+     *
+     * @param gameId ID des Spiels.
+     * @param moves  Die Züge in Spielreihenfolge.
+     * @return Das aktualisierte Spiel.
+     * @throws IllegalPlyException Beim ersten ungültigen Zug.
+     * @throws Exception           Wenn das Spiel nicht existiert oder beendet ist.
+     */
+    public Game makeMoves(Long gameId, List<Move> moves) throws Exception {
+        java.util.Iterator<Move> it = moves.iterator();
+        return store.update(gameId, game -> applyBatch(game, (board, ply) -> it.hasNext() ? it.next() : null));
+    }
+
+    /**
+     * Importiert PGN-Zugtext (Hauptvariante) in ein Spiel.
+     * <p>
+     * Der Text wird gestreamt gelesen und in SAN-Tokens zerlegt, bevor das
+     * Spiel gesperrt wird; ein langsamer Upload hält also keine Züge, Leser oder
+     * die Schachuhr dieses Spiels auf. Gehalten werden höchstens
+     * {@code chess.import.max-plies} Tokens. Danach werden die Züge unter der
+     * Sperre gegen das Brett aufgelöst und wie bei
+     * {@link #makeMoves(Long, List)} als ein Stapel übernommen.
+     * </p>
+     *
+     * @param gameId ID des Spiels.
+     * @param pgn    Reader auf den PGN-Text.
+     * @return Das aktualisierte Spiel.
+     * @throws IllegalPlyException Beim ersten ungültigen oder unlesbaren Zug.
+     * @throws Exception           Wenn das Spiel nicht existiert, beendet oder
+     *                             die Partie zu lang ist.
+     */
+    public Game importPgn(Long gameId, java.io.Reader pgn) throws Exception {
+        PgnReader reader = new PgnReader(pgn);
+        List<String> sans = new ArrayList<>();
+        String token;
+        while ((token = reader.nextSan()) != null) {
+            if (sans.size() == importMaxPlies) {
+                throw new Exception("Too many moves (at most " + importMaxPlies + ")");
+            }
+            sans.add(token);
+        }
+        java.util.Iterator<String> it = sans.iterator();
+        return store.update(gameId, game -> applyBatch(game, (board, ply) -> {
+            if (!it.hasNext()) {
+                return null;
+            }
+            String san = it.next();
+            try {
+                return San.parse(board, san);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalPlyException(ply, san, e.getMessage());
+            }
+        }));
+    }
+
+    /** Liefert den nächsten Zug eines Stapels zur aktuellen Stellung (null am Ende). */
+    @FunctionalInterface
+    private interface PlySource {
+        Move next(ChessBoard board, int ply) throws Exception;
+    }
+
+    private Game applyBatch(Game game, PlySource source) throws Exception {
+        if (game.getStatus() != GameStatus.IN_PROGRESS) {
+            throw new Exception("Game is over");
+        }
+
+        ChessBoard board = deserializeBoard(game.getBoardState());
+        board.restoreEvaluation(game.getEvaluationState());
+        List<Move> history = parseHistory(game.getMoveHistory());
+        int applied = 0;
+        // Hashes erst nach erfolgreichem Stapel eintragen (ein ungültiger Zug verwirft alles)
+        long[] hashes = new long[16];
+        List<Long> positions = new ArrayList<>(positionHashes(game));
+        Outcome outcome = null;
+
+        Move move;
+        while (outcome == null && (move = source.next(board, history.size() + 1)) != null) {
+            int ply = history.size() + 1;
+            if (move.getFrom() == null || move.getTo() == null) {
+                throw new IllegalPlyException(ply, String.valueOf(move), "Incomplete move");
+            }
+            Move candidate = move;
+            RulesShadow.Probe probe = rulesShadow.sample(board);
+            if (!legalMoveTimer.record(() -> board.isLegalMove(candidate))) {
+                rulesShadow.verifyMove(probe, move, null);
+                throw new IllegalPlyException(ply, move.getFrom().toNotation() + move.getTo().toNotation(),
+                        "Invalid move or King is in check");
+            }
+            board.makeMove(move);
+            rulesShadow.verifyMove(probe, move, board);
+            // Momentaufnahme wie beim Einzelzug (das Brett verändert die Figuren weiter)
+            move.setPiece(copyOf(move.getPiece()));
+            move.setCapturedPiece(copyOf(move.getCapturedPiece()));
+            history.add(move);
+            if (applied == hashes.length) {
+                hashes = java.util.Arrays.copyOf(hashes, applied * 2);
+            }
+            long hash = Zobrist.hash(board);
+            hashes[applied++] = hash;
+            addPosition(positions, board, hash);
+            outcome = outcome(board, positions);
+        }
+        if (applied == 0) {
+            return game;
+        }
+
+        // Uhr: nur der Spieler, der beim Eingang am Zug war, hat Bedenkzeit verbraucht
+        if (game.isClockRunning()) {
+            long remaining = remainingMillis(game);
+            if (remaining == 0) {
+                // Das Spielende bleibt bestehen, der Zug wird wie nach Spielende abgelehnt
+                flagFall(game);
+                throw new Exception("Game is over");
             }
+            setClock(game, game.getCurrentTurn(), remaining);
         }
 
+        game.setBoardState(serializeBoard(board));
+        game.setEvaluation(board.getEvaluation());
+        game.setEvaluationState(board.evaluationState());
+        game.setMoveHistory(writeHistory(history));
         game.setCurrentTurn(board.getCurrentTurn());
-        game.setMoveHistory(addMoveToHistory(game.getMoveHistory(), move));
+        game.setMoveCount(game.getMoveCount() + applied);
+        game.setVersion(game.getVersion() + applied);
+        discardEncoded(game.getId());
         game.onUpdate();
+        moveCounter.increment(applied);
+        int firstPly = history.size() - applied + 1;
+        for (int i = 0; i < applied; i++) {
+            positionIndex.add(hashes[i], game.getId(), firstPly + i);
+        }
+        game.setPositionHashes(positions);
 
-        // Check for checkmate or stalemate
-        boolean inCheck = board.isInCheck(board.getCurrentTurn());
-        game.setCheck(inCheck);
+        updateStatus(game, board, outcome);
 
-        if (board.isCheckmate(board.getCurrentTurn())) {
-            game.setStatus(GameStatus.CHECKMATE);
-            // If current turn (who just moved? No, checkmate checks if CURRENT turn player
-            // has no moves)
-            // If white moved, it passes turn to black. Checkmate checks if black has moves.
-            // If black has no moves and is in check -> Black is mated. White wins.
-            game.setWinner(board.getCurrentTurn() == PieceColor.WHITE ? "BLACK" : "WHITE");
-        } else if (board.isStalemate(board.getCurrentTurn())) {
-            game.setStatus(GameStatus.STALEMATE);
-        } else if (board.isInsufficientMaterial()) {
-            game.setStatus(GameStatus.DRAW);
+        if (game.isClockRunning()) {
+            armClock(game);
+        } else {
+            clockService.disarm(game.getId());
         }
-
+        publish(game, game.getVersion() - applied, history.subList(history.size() - applied, history.size()));
         return game;
     }
 
+    private static Piece copyOf(Piece piece) {
+        return piece == null ? null : new Piece(piece.getType(), piece.getColor(), piece.isHasMoved());
+    }
+
+    /**
+     * Stellungs-Hashes seit dem letzten Bauern- oder Schlagzug bis zur
+     * aktuellen Stellung (siehe {@link Game#getPositionHashes()}).
+     */
+    private List<Long> positionHashes(Game game) {
+        List<Long> positions = game.getPositionHashes();
+        if (positions == null) {
+            // Einmalig nach dem Laden als JSON (oder bei älteren Spielen): aus der Historie aufbauen
+            positions = new ArrayList<>();
+            ChessBoard replay = new ChessBoard();
+            positions.add(Zobrist.hash(replay));
+            for (Move move : parseHistory(game.getMoveHistory())) {
+                replay.makeMove(move);
+                addPosition(positions, replay, Zobrist.hash(replay));
+            }
+            game.setPositionHashes(positions);
+        }
+        return positions;
+    }
+
+    /**
+     * Hängt die Stellung nach einem Zug an; nach einem Bauern- oder Schlagzug
+     * (Halbzugzähler 0) fallen die älteren Stellungen weg.
+     */
+    private static void addPosition(List<Long> positions, ChessBoard board, long hash) {
+        if (board.getHalfmoveClock() == 0) {
+            positions.clear();
+        }
+        positions.add(hash);
+    }
+
+    /**
+     * Wie oft die aktuelle Stellung seit dem letzten Bauern- oder Schlagzug
+     * vorkam (einschließlich jetzt). Verglichen wird nur jede zweite Stellung
+     * (gleiche Seite am Zug); der Aufwand ist linear in diesen Halbzügen.
+     */
+    private static int repetitions(List<Long> positions) {
+        if (positions.isEmpty()) {
+            return 1;
+        }
+        long current = positions.get(positions.size() - 1);
+        int count = 0;
+        for (int i = positions.size() - 1; i >= 0; i -= 2) {
+            if (positions.get(i) == current) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Grund für das Ende eines Spiels nach einem Zug. */
+    private enum Outcome {
+        CHECKMATE, STALEMATE, INSUFFICIENT_MATERIAL, REPETITION, MOVE_LIMIT
+    }
+
+    /**
+     * Prüft nach einem Zug auf Spielende (Matt, Patt, Remis durch Material,
+     * Stellungswiederholung oder Zugzahl ohne Bauern- oder Schlagzug).
+     *
+     * @param positions Stellungs-Hashes einschließlich der aktuellen.
+     * @return Der Grund oder null, wenn das Spiel weiterläuft.
+     */
+    private Outcome outcome(ChessBoard board, List<Long> positions) {
+        Timer.Sample statusSample = Timer.start();
+        try {
+            PieceColor turn = board.getCurrentTurn();
+            if (board.isCheckmate(turn)) {
+                return Outcome.CHECKMATE;
+            } else if (board.isStalemate(turn)) {
+                return Outcome.STALEMATE;
+            } else if (board.isInsufficientMaterial()) {
+                return Outcome.INSUFFICIENT_MATERIAL;
+            } else if (drawRepetitions > 0 && repetitions(positions) >= drawRepetitions) {
+                return Outcome.REPETITION;
+            } else if (drawHalfmoves > 0 && board.getHalfmoveClock() >= drawHalfmoves) {
+                return Outcome.MOVE_LIMIT;
+            }
+            return null;
+        } finally {
+            statusSample.stop(statusTimer);
+        }
+    }
+
+    /**
+     * Übernimmt Schach und Spielende nach einem Zug in das Spiel.
+     *
+     * @param outcome Ergebnis von {@link #outcome} (null = Spiel läuft weiter).
+     */
+    private void updateStatus(Game game, ChessBoard board, Outcome outcome) {
+        game.setCheck(board.isInCheck(board.getCurrentTurn()));
+        if (outcome == null) {
+            return;
+        }
+        switch (outcome) {
+            case CHECKMATE -> {
+                game.setStatus(GameStatus.CHECKMATE);
+                // Matt ist der Spieler am Zug; gewonnen hat, wer zuletzt gezogen hat
+                game.setWinner(board.getCurrentTurn() == PieceColor.WHITE ? "BLACK" : "WHITE");
+            }
+            case STALEMATE -> game.setStatus(GameStatus.STALEMATE);
+            case INSUFFICIENT_MATERIAL -> game.setStatus(GameStatus.DRAW);
+            case REPETITION -> {
+                game.setStatus(GameStatus.DRAW);
+                repetitionDraws.increment();
+            }
+            case MOVE_LIMIT -> {
+                game.setStatus(GameStatus.DRAW);
+                moveLimitDraws.increment();
+            }
+        }
+    }
+
+    /**
+     * Berechnet die Restzeit des Spielers am Zug, ohne die Uhr zu verändern.
+     *
+     * @param game Das Spiel (unter Sperre).
+     * @return Verbleibende Zeit in Millisekunden (mindestens 0).
+     */
+    private long remainingMillis(Game game) {
+        long elapsedMillis = (System.nanoTime() - turnStartedNanos(game)) / 1_000_000;
+        return Math.max(0, clockMillis(game, game.getCurrentTurn()) - elapsedMillis);
+    }
+
+    private long clockMillis(Game game, PieceColor color) {
+        Long millis = color == PieceColor.WHITE ? game.getWhiteClockMillis() : game.getBlackClockMillis();
+        if (millis != null) {
+            return millis;
+        }
+        Integer seconds = color == PieceColor.WHITE ? game.getWhiteTimeRemaining() : game.getBlackTimeRemaining();
+        return seconds != null ? seconds * 1000L : 0;
+    }
+
+    private void setClock(Game game, PieceColor color, long millis) {
+        if (color == PieceColor.WHITE) {
+            game.setWhiteClockMillis(millis);
+            game.setWhiteTimeRemaining((int) (millis / 1000));
+        } else {
+            game.setBlackClockMillis(millis);
+            game.setBlackTimeRemaining((int) (millis / 1000));
+        }
+    }
+
+    /**
+     * Zugbeginn als monotone Zeit. Nach dem Laden aus dem Cold-Tier ist nur die
+     * Wanduhrzeit des letzten Zuges bekannt; daraus wird der Wert rekonstruiert.
+     */
+    private long turnStartedNanos(Game game) {
+        if (game.getTurnStartedNanos() == 0) {
+            long sinceLastMove = java.time.Duration.between(game.getLastMoveAt(), java.time.LocalDateTime.now()).toNanos();
+            game.setTurnStartedNanos(System.nanoTime() - Math.max(0, sinceLastMove));
+        }
+        return game.getTurnStartedNanos();
+    }
+
+    /**
+     * Stellt die Uhr für den Spieler am Zug.
+     */
+    private void armClock(Game game) {
+        if (!game.isClockRunning()) {
+            return;
+        }
+        long token = turnStartedNanos(game);
+        long deadline = token + clockMillis(game, game.getCurrentTurn()) * 1_000_000;
+        Long gameId = game.getId();
+        clockService.arm(gameId, deadline, () -> onFlagFall(gameId, token));
+    }
+
+    /**
+     * Rückruf der Schachuhr: beendet das Spiel, falls der Spieler am Zug seit dem
+     * Stellen der Uhr (token) nicht gezogen hat.
+     */
+    private void onFlagFall(Long gameId, long token) {
+        try {
+            store.update(gameId, game -> {
+                if (game.isClockRunning() && game.getTurnStartedNanos() == token) {
+                    if (remainingMillis(game) == 0) {
+                        flagFall(game);
+                    } else {
+                        armClock(game);
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // Spiel existiert nicht mehr
+        }
+    }
+
+    private void flagFall(Game game) {
+        setClock(game, game.getCurrentTurn(), 0);
+        game.setVersion(game.getVersion() + 1);
+        discardEncoded(game.getId());
+        game.setStatus(GameStatus.VICTORY_BY_TIME);
+        game.setWinner(game.getCurrentTurn() == PieceColor.WHITE ? "BLACK" : "WHITE");
+        clockService.disarm(game.getId());
+        publish(game, game.getVersion() - 1, List.of());
+    }
+
+    /**
+     * Meldet einen Zuschauer für ein Spiel an (Server-Sent Events).
+     * <p>
+     * Der Zuschauer erhält zuerst den vollständigen Spielstand ("snapshot") und
+     * danach pro Änderung ein Delta ("move"). Kommt er nicht hinterher, erhält er
+     * statt des Rückstands wieder einen Snapshot.
+     * </p>
+     *
+     * @param gameId Spiel-ID.
+     * @return Der Emitter für die Antwort.
+     * @throws Exception Wenn das Spiel nicht existiert.
+     */
+    public org.springframework.web.servlet.mvc.method.annotation.SseEmitter spectate(Long gameId) throws Exception {
+        if (store.get(gameId) == null) {
+            throw new Exception("Game not found");
+        }
+        return spectatorHub.subscribe(gameId, () -> getEncodedGame(gameId)
+                .map(encoded -> new SpectatorHub.Frame("snapshot", encoded.getVersion(), encoded.getJson(),
+                        encoded.isFinished(), System.nanoTime()))
+                .orElse(null));
+    }
+
+    /**
+     * Kodiert eine Änderung einmal und reicht sie an die Zuschauer weiter
+     * (unter der Spielsperre, damit die Reihenfolge der Versionen stimmt).
+     */
+    private void publish(Game game, long since, List<Move> newMoves) {
+        if (game.getStatus() != GameStatus.IN_PROGRESS) {
+            events.publishEvent(GameFinishedEvent.of(game));
+        }
+        if (!spectatorHub.hasSubscribers(game.getId())) {
+            return;
+        }
+        try {
+            byte[] data = objectMapper.writeValueAsBytes(GameDelta.of(game, since, newMoves));
+            spectatorHub.publish(game.getId(), new SpectatorHub.Frame("move", game.getVersion(), data,
+                    game.getStatus() != GameStatus.IN_PROGRESS, System.nanoTime()));
+        } catch (JsonProcessingException e) {
+            // Zuschauer holen sich den Stand beim nächsten Snapshot
+        }
+    }
+
     /**
      * Ermittelt alle gültigen Züge für eine Position (Hilfsfunktion für Frontend).
      * 
@@ -201,28 +988,104 @@ public class GameService {
      * @return Liste der möglichen Züge.
      */
     public List<Move> getValidMoves(Long gameId, int row, int col) {
-        Game game = games.get(gameId);
+        Game game = store.get(gameId);
         if (game == null)
             return new ArrayList<>();
 
         ChessBoard board = deserializeBoard(game.getBoardState());
-        return board.getValidMoves(new Position(row, col));
+        Position from = new Position(row, col);
+        List<Move> moves = validMovesTimer.record(() -> board.getValidMoves(from));
+        rulesShadow.verifyValidMoves(board, from, moves);
+        return moves;
     }
 
     private String serializeBoard(ChessBoard board) {
+        Timer.Sample sample = Timer.start();
         try {
             return objectMapper.writeValueAsString(board);
         } catch (JsonProcessingException e) {
             return "{}";
+        } finally {
+            sample.stop(serializeTimer);
         }
     }
 
     private ChessBoard deserializeBoard(String boardState) {
+        Timer.Sample sample = Timer.start();
         try {
             return objectMapper.readValue(boardState, ChessBoard.class);
         } catch (JsonProcessingException e) {
             return new ChessBoard();
+        } finally {
+            sample.stop(deserializeTimer);
+        }
+    }
+
+    /**
+     * Liefert eine eigene Kopie der Stellung eines Spiels, z.B. für die Analyse.
+     *
+     * @param gameId Spiel-ID.
+     * @param ply    Anzahl gespielter Halbzüge (null für die aktuelle Stellung).
+     * @return Das Brett (darf vom Aufrufer verändert werden).
+     * @throws Exception Wenn das Spiel nicht existiert oder ply ungültig ist.
+     */
+    public ChessBoard getBoardAt(Long gameId, Integer ply) throws Exception {
+        return store.read(gameId, game -> {
+            if (ply == null) {
+                return deserializeBoard(game.getBoardState());
+            }
+            List<Move> moves = parseHistory(game.getMoveHistory());
+            if (ply < 0 || ply > moves.size()) {
+                throw new Exception("Invalid move index");
+            }
+            return replay(moves, ply);
+        });
+    }
+
+    /** Stellung eines Spiels mit der Version, zu der sie gehört. */
+    public record Snapshot(ChessBoard board, long version, GameStatus status) {
+    }
+
+    /**
+     * Liefert die aktuelle Stellung zusammen mit der Spielversion (konsistent
+     * unter der Spielsperre gelesen).
+     *
+     * @param gameId Spiel-ID.
+     * @return Stellung, Version und Status.
+     * @throws Exception Wenn das Spiel nicht existiert.
+     */
+    public Snapshot getSnapshot(Long gameId) throws Exception {
+        return store.read(gameId, game ->
+                new Snapshot(deserializeBoard(game.getBoardState()), game.getVersion(), game.getStatus()));
+    }
+
+    /**
+     * Liest die Zughistorie eines Spiels, ohne ein ausgelagertes Spiel wieder
+     * resident zu machen (z.B. für den Neuaufbau von Indizes).
+     *
+     * @param gameId Spiel-ID.
+     * @return Die Züge oder null, wenn das Spiel nicht existiert.
+     * @throws Exception Wenn der Zugriff fehlschlägt.
+     */
+    public List<Move> getHistory(Long gameId) throws Exception {
+        return store.peek(gameId, game -> parseHistory(game.getMoveHistory()));
+    }
+
+    /**
+     * @param gameId Spiel-ID.
+     * @return true, wenn das Spiel auf diesem Knoten existiert (hot oder cold).
+     */
+    public boolean hasGame(Long gameId) {
+        return store.ids().contains(gameId);
+    }
+
+    /** Spielt die ersten plies Züge der Historie auf einem neuen Brett nach. */
+    private static ChessBoard replay(List<Move> moves, int plies) {
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < plies; i++) {
+            board.makeMove(moves.get(i));
         }
+        return board;
     }
 
     /**
@@ -234,28 +1097,18 @@ public class GameService {
      * @throws Exception Bei ungültigem Index.
      */
     public java.util.Map<String, Object> getBoardAtMove(Long gameId, int moveIndex) throws Exception {
-        Game game = games.get(gameId);
+        Game game = store.get(gameId);
         if (game == null) {
             throw new Exception("Game not found");
         }
 
-        List<Move> moves = new ArrayList<>();
-        try {
-            moves = objectMapper.readValue(game.getMoveHistory(),
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, Move.class));
-        } catch (JsonProcessingException e) {
-            // Empty history
-        }
+        List<Move> moves = parseHistory(game.getMoveHistory());
 
         if (moveIndex < 0 || moveIndex > moves.size()) {
             throw new Exception("Invalid move index");
         }
 
-        ChessBoard replayBoard = new ChessBoard();
-        // Replay moves
-        for (int i = 0; i < moveIndex; i++) {
-            replayBoard.makeMove(moves.get(i));
-        }
+        ChessBoard replayBoard = replay(moves, moveIndex);
 
         Move lastMove = null;
         if (moveIndex > 0) {
@@ -277,10 +1130,23 @@ public class GameService {
     }
 
     private String addMoveToHistory(String moveHistory, Move move) {
+        List<Move> moves = parseHistory(moveHistory);
+        moves.add(move);
+        return writeHistory(moves);
+    }
+
+    private List<Move> parseHistory(String moveHistory) {
         try {
-            List<Move> moves = objectMapper.readValue(moveHistory,
+            return objectMapper.readValue(moveHistory,
                     objectMapper.getTypeFactory().constructCollectionType(List.class, Move.class));
-            moves.add(move);
+        } catch (JsonProcessingException e) {
+            // Empty history
+            return new ArrayList<>();
+        }
+    }
+
+    private String writeHistory(List<Move> moves) {
+        try {
             return objectMapper.writeValueAsString(moves);
         } catch (JsonProcessingException e) {
             return "[]";
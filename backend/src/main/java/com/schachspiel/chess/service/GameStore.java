@@ -0,0 +1,542 @@
+package com.schachspiel.chess.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schachspiel.chess.model.Game;
+import com.schachspiel.chess.model.GameStatus;
+import com.schachspiel.chess.model.GameSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Zweistufiger Spielspeicher (Hot/Cold).
+ * <p>
+ * Aktive Spiele liegen im Speicher ("hot"). Beendete oder lange inaktive Spiele
+ * werden nach einer konfigurierbaren TTL bzw. bei Überschreiten der maximalen
+ * Anzahl residenter Spiele auf die lokale Platte ausgelagert ("cold") und bei
+ * Bedarf transparent wieder geladen. Spiele mit laufender Schachuhr bleiben
+ * immer resident. Für ausgelagerte Spiele bleibt nur eine kleine
+ * {@link GameSummary} im Speicher, damit die Lobby-Liste ohne Plattenzugriff
+ * auskommt. Auf der Platte liegen die Spiele im kompakten Format von
+ * {@link GameCodec} (2 Byte pro Halbzug).
+ * </p>
+ */
+@Component
+public class GameStore {
+
+    private static final Logger log = LoggerFactory.getLogger(GameStore.class);
+
+    /** Geschätzter fester Overhead eines Game-Objekts im Heap (Bytes). */
+    private static final long GAME_OVERHEAD_BYTES = 256;
+
+    /** Dateiendung ausgelagerter Spiele; das erste Byte gibt das Format an. */
+    private static final String COLD_SUFFIX = ".game";
+    private static final int FORMAT_COMPACT = 'C';
+    private static final int FORMAT_JSON = 'J';
+
+    /** Mutation eines Spiels unter dessen Sperre. */
+    @FunctionalInterface
+    public interface GameUpdate<T> {
+        T apply(Game game) throws Exception;
+    }
+
+    private final ConcurrentNavigableMap<Long, Game> hot = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<Long, GameSummary> cold = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+    private final Map<Long, Long> lastAccess = new ConcurrentHashMap<>();
+    /** Spiele, die gerade an einen anderen Knoten übergeben werden (siehe {@link #release}). */
+    private final java.util.Set<Long> leaving = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<Long>> evictionListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong coldBytes = new AtomicLong();
+    private volatile long residentBytes;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+    private Timer reloadTimer;
+
+    @Value("${chess.store.directory:${java.io.tmpdir}/chess-cold-store}")
+    private String directory;
+
+    @Value("${chess.store.idle-ttl:PT30M}")
+    private Duration idleTtl;
+
+    @Value("${chess.store.finished-ttl:PT5M}")
+    private Duration finishedTtl;
+
+    @Value("${chess.store.max-resident:10000}")
+    private int maxResident;
+
+    private Path root;
+    private GameCodec codec;
+    private Counter compactWrites;
+    private Counter jsonWrites;
+
+    @PostConstruct
+    void init() throws IOException {
+        hits = Counter.builder("chess.store.lookups").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("chess.store.lookups").tag("result", "reload").register(meterRegistry);
+        evictions = Counter.builder("chess.store.evictions").register(meterRegistry);
+        compactWrites = Counter.builder("chess.store.cold.writes").tag("format", "compact").register(meterRegistry);
+        jsonWrites = Counter.builder("chess.store.cold.writes").tag("format", "json").register(meterRegistry);
+        codec = new GameCodec(objectMapper);
+        reloadTimer = Timer.builder("chess.store.reload").publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("chess.games.resident", this, GameStore::residentCount).register(meterRegistry);
+        Gauge.builder("chess.games.resident.bytes", this, GameStore::residentBytes).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("chess.games.cold", this, GameStore::coldCount).register(meterRegistry);
+        Gauge.builder("chess.games.cold.bytes", this, GameStore::coldBytes).baseUnit("bytes").register(meterRegistry);
+
+        root = Paths.get(directory);
+        Files.createDirectories(root);
+        // Dateien eines früheren Laufs gehören zu Spielen, deren IDs nicht mehr
+        // vergeben sind – sie würden neue Spiele überschreiben.
+        try (Stream<Path> files = Files.list(root)) {
+            files.filter(f -> f.getFileName().toString().endsWith(COLD_SUFFIX)
+                    || f.getFileName().toString().endsWith(".json.gz")).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    /**
+     * Registriert einen Listener, der nach dem Auslagern eines Spiels mit dessen
+     * ID aufgerufen wird (z.B. um abgeleitete Caches zu leeren).
+     *
+     * @param listener Der Listener.
+     */
+    public void addEvictionListener(Consumer<Long> listener) {
+        evictionListeners.add(listener);
+    }
+
+    /**
+     * Speichert ein neues Spiel im Hot-Tier.
+     *
+     * @param game Das Spiel.
+     */
+    public void put(Game game) {
+        hot.put(game.getId(), game);
+        ids.add(game.getId());
+        touch(game.getId());
+    }
+
+    /**
+     * Speichert ein Spiel im Hot-Tier, sofern es hier noch nicht existiert
+     * (weder im Hot- noch im Cold-Tier).
+     *
+     * @param game Das Spiel.
+     * @return false, wenn es die ID bereits gibt.
+     */
+    public boolean putIfAbsent(Game game) {
+        if (!ids.add(game.getId())) {
+            return false;
+        }
+        hot.put(game.getId(), game);
+        touch(game.getId());
+        return true;
+    }
+
+    /**
+     * Lädt ein Spiel; ausgelagerte Spiele werden zurück in den Speicher geholt.
+     *
+     * @param id Die Spiel-ID.
+     * @return Das Spiel oder null, wenn es nicht existiert.
+     */
+    public Game get(Long id) {
+        Game game = hot.get(id);
+        if (game == null && cold.containsKey(id)) {
+            misses.increment();
+            game = reload(id);
+        } else if (game != null) {
+            hits.increment();
+        }
+        if (game != null) {
+            touch(id);
+        }
+        return game;
+    }
+
+    /**
+     * Liest ein Spiel, ohne ein ausgelagertes Spiel wieder resident zu machen.
+     * Für Massenzugriffe (Export, Suche), die den Hot-Tier nicht verdrängen sollen.
+     *
+     * @param id Die Spiel-ID.
+     * @return Das Spiel oder null.
+     */
+    public Game peek(Long id) {
+        Game game = hot.get(id);
+        if (game != null || !cold.containsKey(id)) {
+            return game;
+        }
+        try {
+            return readCold(id);
+        } catch (IOException e) {
+            // Parallel wieder geladen
+            return hot.get(id);
+        }
+    }
+
+    /**
+     * Liest ein Spiel wie {@link #peek(Long)}; ein residentes Spiel wird dabei
+     * unter seiner Sperre gelesen, damit kein halb geschriebener Zug sichtbar ist.
+     *
+     * @param id   Die Spiel-ID.
+     * @param read Der Lesezugriff.
+     * @return Ergebnis des Lesezugriffs oder null, wenn das Spiel nicht existiert.
+     * @throws Exception Wenn der Lesezugriff fehlschlägt.
+     */
+    public <T> T peek(Long id, GameUpdate<T> read) throws Exception {
+        Game game = peek(id);
+        if (game == null) {
+            return null;
+        }
+        synchronized (game) {
+            return read.apply(game);
+        }
+    }
+
+    /**
+     * Führt eine Änderung an einem Spiel exklusiv aus.
+     * <p>
+     * Die Sperre liegt auf dem Game-Objekt. Wurde das Spiel zwischen Laden und
+     * Sperren ausgelagert, wird es neu geladen, damit keine Änderung an einer
+     * verwaisten Instanz verloren geht. Während einer Übergabe an einen anderen
+     * Knoten ({@link #release}) werden Änderungen abgelehnt.
+     * </p>
+     *
+     * @param id     Die Spiel-ID.
+     * @param update Die Änderung.
+     * @return Ergebnis der Änderung.
+     * @throws Exception Wenn das Spiel nicht existiert, gerade übergeben wird
+     *                   oder die Änderung fehlschlägt.
+     */
+    public <T> T update(Long id, GameUpdate<T> update) throws Exception {
+        return locked(id, game -> {
+            if (leaving.contains(id)) {
+                throw new Exception("Game is being handed over to another node");
+            }
+            return update.apply(game);
+        });
+    }
+
+    /**
+     * Liest ein Spiel konsistent unter derselben Sperre wie {@link #update}
+     * (auch während einer Übergabe).
+     *
+     * @param id   Die Spiel-ID.
+     * @param read Der Lesezugriff.
+     * @return Ergebnis des Lesezugriffs.
+     * @throws Exception Wenn das Spiel nicht existiert oder der Zugriff fehlschlägt.
+     */
+    public <T> T read(Long id, GameUpdate<T> read) throws Exception {
+        return locked(id, read);
+    }
+
+    private <T> T locked(Long id, GameUpdate<T> access) throws Exception {
+        while (true) {
+            Game game = get(id);
+            if (game == null) {
+                throw new Exception("Game not found");
+            }
+            synchronized (game) {
+                if (hot.get(id) == game) {
+                    return access.apply(game);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gibt ein Spiel ab (z.B. an einen anderen Knoten).
+     * <p>
+     * Unter der Sperre wird das Spiel nur als "wird übergeben" markiert; ab dann
+     * lehnt {@link #update} Änderungen ab, Lesen bleibt möglich und das Spiel
+     * wird nicht ausgelagert. Die (langsame) Übergabe läuft ohne Sperre auf dem
+     * unveränderlichen Stand. Erst wenn sie gelingt, wird das Spiel entfernt;
+     * schlägt sie fehl, wird die Markierung aufgehoben.
+     * </p>
+     *
+     * @param id       Die Spiel-ID.
+     * @param handover Die Übergabe (wirft bei Fehlschlag, dann bleibt das Spiel).
+     * @return Ergebnis der Übergabe.
+     * @throws Exception Wenn das Spiel nicht existiert, schon übergeben wird
+     *                   oder die Übergabe fehlschlägt.
+     */
+    public <T> T release(Long id, GameUpdate<T> handover) throws Exception {
+        Game game = update(id, locked -> {
+            leaving.add(id);
+            return locked;
+        });
+        T result;
+        try {
+            result = handover.apply(game);
+        } catch (Exception | Error e) {
+            leaving.remove(id);
+            throw e;
+        }
+        synchronized (game) {
+            hot.remove(id, game);
+            ids.remove(id);
+            lastAccess.remove(id);
+            leaving.remove(id);
+        }
+        evictionListeners.forEach(listener -> listener.accept(id));
+        return result;
+    }
+
+    /**
+     * @return Sortierte, nicht veränderbare Sicht auf alle IDs (hot und cold).
+     */
+    public java.util.NavigableSet<Long> ids() {
+        return java.util.Collections.unmodifiableNavigableSet(ids);
+    }
+
+    /**
+     * Liefert Zusammenfassungen aller Spiele (hot und cold), neueste zuerst.
+     *
+     * @param cursor Nur IDs kleiner als dieser Wert (null für alle).
+     * @return Lazy Stream der Zusammenfassungen.
+     */
+    public Stream<GameSummary> summaries(Long cursor) {
+        java.util.NavigableSet<Long> view = cursor != null
+                ? ids.headSet(cursor, false).descendingSet()
+                : ids.descendingSet();
+        return view.stream().map(this::summaryOf).filter(java.util.Objects::nonNull);
+    }
+
+    private GameSummary summaryOf(Long id) {
+        Game game = hot.get(id);
+        if (game != null) {
+            return GameSummary.of(game);
+        }
+        GameSummary summary = cold.get(id);
+        if (summary == null) {
+            // Gerade zwischen den Tiers unterwegs
+            game = hot.get(id);
+            return game != null ? GameSummary.of(game) : null;
+        }
+        return summary;
+    }
+
+    /**
+     * Lagert beendete und inaktive Spiele aus und erzwingt die maximale Anzahl
+     * residenter Spiele (die am längsten nicht benutzten zuerst).
+     */
+    @Scheduled(fixedDelayString = "${chess.store.eviction-interval:PT30S}")
+    public void evict() {
+        long now = System.nanoTime();
+        List<Map.Entry<Long, Game>> candidates = new ArrayList<>();
+        long bytes = 0;
+        for (Map.Entry<Long, Game> entry : hot.entrySet()) {
+            Game game = entry.getValue();
+            if (game.isClockRunning()) {
+                // Laufende Uhren werden vom ClockService überwacht und bleiben resident
+                bytes += estimateBytes(game);
+                continue;
+            }
+            long idle = now - lastAccess.getOrDefault(entry.getKey(), now);
+            Duration ttl = game.getStatus() == GameStatus.IN_PROGRESS ? idleTtl : finishedTtl;
+            if (idle >= ttl.toNanos()) {
+                evictOne(entry.getKey(), game);
+            } else {
+                candidates.add(entry);
+                bytes += estimateBytes(game);
+            }
+        }
+
+        int excess = candidates.size() - maxResident;
+        if (excess > 0) {
+            candidates.sort(Comparator.comparingLong(e -> lastAccess.getOrDefault(e.getKey(), now)));
+            for (int i = 0; i < excess; i++) {
+                Map.Entry<Long, Game> entry = candidates.get(i);
+                if (evictOne(entry.getKey(), entry.getValue())) {
+                    bytes -= estimateBytes(entry.getValue());
+                }
+            }
+        }
+        residentBytes = bytes;
+    }
+
+    private boolean evictOne(Long id, Game game) {
+        synchronized (game) {
+            if (hot.get(id) != game || leaving.contains(id)) {
+                return false;
+            }
+            try {
+                writeCold(game);
+            } catch (IOException e) {
+                log.warn("Could not evict game {}: {}", id, e.getMessage());
+                return false;
+            }
+            cold.put(id, GameSummary.of(game));
+            hot.remove(id, game);
+            lastAccess.remove(id);
+            evictions.increment();
+        }
+        evictionListeners.forEach(listener -> listener.accept(id));
+        return true;
+    }
+
+    private Game reload(Long id) {
+        long start = System.nanoTime();
+        synchronized (cold) {
+            Game game = hot.get(id);
+            if (game != null) {
+                return game;
+            }
+            if (!cold.containsKey(id)) {
+                return null;
+            }
+            try {
+                game = readCold(id);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not reload game " + id, e);
+            }
+            hot.put(id, game);
+            cold.remove(id);
+            deleteCold(id);
+        }
+        reloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return hot.get(id);
+    }
+
+    private void writeCold(Game game) throws IOException {
+        Path file = fileFor(game.getId());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        // Kompakt (16 Bit pro Halbzug), sonst gzip-JSON als Rückfall
+        byte[] compact = codec.encode(game);
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            if (compact != null) {
+                out.write(FORMAT_COMPACT);
+                out.write(compact);
+                compactWrites.increment();
+            } else {
+                // Sollte nicht vorkommen: das Nachspielen ergab nicht denselben Stand (siehe GameCodec)
+                log.warn("event=cold_write_json gameId={} moves={}", game.getId(), game.getMoveCount());
+                out.write(FORMAT_JSON);
+                GZIPOutputStream gzip = new GZIPOutputStream(out);
+                objectMapper.writeValue(gzip, game);
+                gzip.finish();
+                jsonWrites.increment();
+            }
+        }
+        long previous = Files.exists(file) ? Files.size(file) : 0;
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        coldBytes.addAndGet(Files.size(file) - previous);
+    }
+
+    private Game readCold(Long id) throws IOException {
+        byte[] data = Files.readAllBytes(fileFor(id));
+        if (data.length > 0 && data[0] == FORMAT_COMPACT) {
+            return codec.decode(java.util.Arrays.copyOfRange(data, 1, data.length));
+        }
+        if (data.length == 0 || data[0] != FORMAT_JSON) {
+            throw new IOException("Unknown cold file format for game " + id);
+        }
+        try (InputStream in = new GZIPInputStream(new java.io.ByteArrayInputStream(data, 1, data.length - 1))) {
+            return objectMapper.readValue(in, Game.class);
+        }
+    }
+
+    private void deleteCold(Long id) {
+        Path file = fileFor(id);
+        try {
+            long size = Files.size(file);
+            Files.delete(file);
+            coldBytes.addAndGet(-size);
+        } catch (IOException e) {
+            log.warn("Could not delete cold file for game {}: {}", id, e.getMessage());
+        }
+    }
+
+    private Path fileFor(Long id) {
+        return root.resolve(id + COLD_SUFFIX);
+    }
+
+    private void touch(Long id) {
+        lastAccess.put(id, System.nanoTime());
+    }
+
+    private static long estimateBytes(Game game) {
+        long chars = 0;
+        if (game.getBoardState() != null) {
+            chars += game.getBoardState().length();
+        }
+        if (game.getMoveHistory() != null) {
+            chars += game.getMoveHistory().length();
+        }
+        return GAME_OVERHEAD_BYTES + chars;
+    }
+
+    public int residentCount() {
+        return hot.size();
+    }
+
+    public long residentBytes() {
+        return residentBytes;
+    }
+
+    public int coldCount() {
+        return cold.size();
+    }
+
+    public long coldBytes() {
+        return coldBytes.get();
+    }
+
+    /**
+     * Kennzahlen des Speichers.
+     *
+     * @return Map mit Anzahl/Größe je Tier sowie Auslagerungs- und Ladestatistik.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("residentGames", residentCount());
+        stats.put("residentBytes", residentBytes());
+        stats.put("coldGames", coldCount());
+        stats.put("coldBytes", coldBytes());
+        stats.put("evictions", (long) evictions.count());
+        stats.put("reloads", reloadTimer.count());
+        stats.put("reloadAvgMillis", reloadTimer.mean(TimeUnit.MILLISECONDS));
+        stats.put("reloadMaxMillis", reloadTimer.max(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+}
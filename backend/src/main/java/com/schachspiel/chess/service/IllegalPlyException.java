@@ -0,0 +1,30 @@
+package com.schachspiel.chess.service;
+
+/**
+ * Wird geworfen, wenn ein Zug innerhalb eines Stapel-Imports ungültig ist.
+ * <p>
+ * Enthält die Halbzugnummer (Ply, 1-basiert über die gesamte Partie) und den
+ * Zug in der Form, in der er eingereicht wurde.
+ * </p>
+ */
+public class IllegalPlyException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int ply;
+    private final String move;
+
+    public IllegalPlyException(int ply, String move, String reason) {
+        super("Ply " + ply + " (" + move + "): " + reason);
+        this.ply = ply;
+        this.move = move;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public String getMove() {
+        return move;
+    }
+}
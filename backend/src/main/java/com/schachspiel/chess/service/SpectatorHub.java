@@ -0,0 +1,329 @@
+package com.schachspiel.chess.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Verteilt Spielereignisse an Zuschauer (Server-Sent Events).
+ * <p>
+ * Ein Zug wird genau einmal kodiert ({@link Frame}) und dieselben Bytes werden
+ * an alle Zuschauer des Spiels verteilt. Jeder Zuschauer hat einen begrenzten
+ * Puffer; läuft er über, werden die gepufferten Frames verworfen und der
+ * Zuschauer erhält stattdessen beim nächsten Senden den aktuellen Spielstand
+ * als Snapshot. Das Veröffentlichen selbst blockiert nie – geschrieben wird
+ * auf einem eigenen Thread-Pool, sodass langsame Zuschauer weder die
+ * Zugverarbeitung aufhalten noch unbegrenzt Speicher belegen.
+ * </p>
+ * <p>
+ * Liest ein Zuschauer gar nicht mehr, blockiert das Senden an ihn. Hängt ein
+ * Senden länger als {@code chess.spectate.send-timeout}, wird der Zuschauer
+ * abgemeldet und der Pool startet für den blockierten Thread einen Ersatz
+ * (höchstens {@code chess.spectate.threads} zusätzliche), damit die übrigen
+ * Zuschauer weiter bedient werden. Abbrechen lässt sich der Schreibvorgang
+ * selbst nicht; er endet spätestens mit dem Schreib-Timeout des Servers, dann
+ * wird der Stream geschlossen und der Ersatz wieder abgebaut.
+ * </p>
+ */
+@Component
+public class SpectatorHub {
+
+    /**
+     * Ein einmal kodiertes Ereignis, das an alle Zuschauer geht.
+     * {@code last}: das Spiel ist damit beendet (der Stream wird danach geschlossen).
+     */
+    public record Frame(String event, long version, byte[] data, boolean last, long createdNanos) {
+    }
+
+    private final class Subscriber {
+        final Long gameId;
+        final SseEmitter emitter;
+        final Supplier<Frame> snapshot;
+        final BlockingQueue<Frame> queue = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean needsSnapshot = true;
+        volatile boolean closing;
+        long lastVersion = -1;
+        // Beginn des laufenden Sendens (0 = keins); stalled/compensated unter der Sperre des Subscribers
+        long sendStartedNanos;
+        boolean stalled;
+        boolean compensated;
+
+        Subscriber(Long gameId, SseEmitter emitter, Supplier<Frame> snapshot) {
+            this.gameId = gameId;
+            this.emitter = emitter;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @Value("${chess.spectate.buffer-size:16}")
+    private int bufferSize;
+
+    @Value("${chess.spectate.threads:4}")
+    private int threads;
+
+    @Value("${chess.spectate.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${chess.spectate.send-timeout:PT5S}")
+    private Duration sendTimeout;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor writers;
+    private int replacementWriters;
+    private Timer fanOutLatency;
+    private DistributionSummary queueDepth;
+    private Counter snapshotFallbacks;
+    private Counter stalledSubscribers;
+
+    @PostConstruct
+    void init() {
+        writers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "chess-spectate");
+            t.setDaemon(true);
+            return t;
+        });
+        fanOutLatency = Timer.builder("chess.spectate.fanout").publishPercentileHistogram().register(meterRegistry);
+        queueDepth = DistributionSummary.builder("chess.spectate.queue.depth").register(meterRegistry);
+        snapshotFallbacks = Counter.builder("chess.spectate.snapshot-fallbacks").register(meterRegistry);
+        stalledSubscribers = Counter.builder("chess.spectate.stalled").register(meterRegistry);
+        Gauge.builder("chess.spectate.writers", writers, ThreadPoolExecutor::getPoolSize).register(meterRegistry);
+        Gauge.builder("chess.spectate.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdownNow();
+    }
+
+    /**
+     * Meldet einen Zuschauer an. Als erstes Ereignis erhält er einen Snapshot;
+     * ist das Spiel darin schon beendet, wird der Stream danach geschlossen.
+     *
+     * @param gameId   Spiel-ID.
+     * @param snapshot Liefert den aktuellen Spielstand als Frame (wird erst beim
+     *                 Senden aufgerufen, damit er immer aktuell ist).
+     * @return Der SSE-Emitter für die Antwort.
+     */
+    public SseEmitter subscribe(Long gameId, Supplier<Frame> snapshot) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(gameId, emitter, snapshot);
+        subscribers.computeIfAbsent(gameId, id -> new CopyOnWriteArraySet<>()).add(subscriber);
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * @param gameId Spiel-ID.
+     * @return true, wenn das Spiel Zuschauer hat (dann lohnt sich das Kodieren).
+     */
+    public boolean hasSubscribers(Long gameId) {
+        Set<Subscriber> set = subscribers.get(gameId);
+        return set != null && !set.isEmpty();
+    }
+
+    /**
+     * Verteilt ein Ereignis an alle Zuschauer eines Spiels. Blockiert nicht.
+     *
+     * @param gameId Spiel-ID.
+     * @param frame  Das kodierte Ereignis; ist es das letzte, werden die Streams
+     *               danach geschlossen.
+     */
+    public void publish(Long gameId, Frame frame) {
+        Set<Subscriber> set = subscribers.get(gameId);
+        if (set == null) {
+            return;
+        }
+        for (Subscriber subscriber : set) {
+            if (!subscriber.queue.offer(frame)) {
+                // Zu langsam: Rückstand verwerfen und mit aktuellem Stand neu aufsetzen
+                subscriber.queue.clear();
+                subscriber.needsSnapshot = true;
+                snapshotFallbacks.increment();
+            }
+            queueDepth.record(subscriber.queue.size());
+            subscriber.closing |= frame.last();
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Schließt alle Streams eines Spiels (z.B. wenn es an einen anderen Knoten
+     * abgegeben wurde; die Zuschauer verbinden sich dann neu).
+     *
+     * @param gameId Spiel-ID.
+     */
+    public void close(Long gameId) {
+        Set<Subscriber> set = subscribers.get(gameId);
+        if (set == null) {
+            return;
+        }
+        for (Subscriber subscriber : set) {
+            subscriber.closing = true;
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> drain(subscriber));
+            } catch (RuntimeException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.needsSnapshot) {
+                subscriber.needsSnapshot = false;
+                subscriber.queue.clear();
+                Frame snapshot = subscriber.snapshot.get();
+                if (snapshot != null) {
+                    send(subscriber, snapshot);
+                }
+                // Spiel beendet oder nicht mehr da: es kommt kein Ereignis mehr, das den Stream schließt
+                subscriber.closing |= snapshot == null || snapshot.last();
+            }
+            Frame frame;
+            while ((frame = subscriber.queue.poll()) != null) {
+                // Bereits im Snapshot enthaltene Änderungen überspringen
+                if (frame.version() > subscriber.lastVersion) {
+                    send(subscriber, frame);
+                }
+            }
+            if (subscriber.closing) {
+                subscriber.emitter.complete();
+                remove(subscriber);
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscriber.emitter.completeWithError(e);
+            remove(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // Während des Sendens neu eingetroffen?
+        if ((!subscriber.queue.isEmpty() || subscriber.needsSnapshot) && isSubscribed(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, Frame frame) throws IOException {
+        synchronized (subscriber) {
+            subscriber.sendStartedNanos = System.nanoTime();
+        }
+        boolean stalled;
+        try {
+            subscriber.emitter.send(SseEmitter.event()
+                    .name(frame.event())
+                    .id(String.valueOf(frame.version()))
+                    .data(frame.data(), MediaType.APPLICATION_JSON));
+        } finally {
+            boolean compensated;
+            synchronized (subscriber) {
+                subscriber.sendStartedNanos = 0;
+                stalled = subscriber.stalled;
+                compensated = subscriber.compensated;
+                subscriber.compensated = false;
+            }
+            if (compensated) {
+                resizeWriters(-1);
+            }
+        }
+        if (stalled) {
+            throw new IOException("Spectator stopped reading");
+        }
+        subscriber.lastVersion = frame.version();
+        fanOutLatency.record(System.nanoTime() - frame.createdNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Meldet Zuschauer ab, an die seit mehr als {@code send-timeout} gesendet
+     * wird, und ersetzt den blockierten Sender-Thread.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void checkStalled() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                synchronized (subscriber) {
+                    if (subscriber.sendStartedNanos == 0 || subscriber.stalled
+                            || now - subscriber.sendStartedNanos < sendTimeout.toNanos()) {
+                        continue;
+                    }
+                    subscriber.stalled = true;
+                    subscriber.compensated = resizeWriters(1);
+                }
+                stalledSubscribers.increment();
+                remove(subscriber);
+            }
+        }
+    }
+
+    /** Startet bzw. entfernt einen Ersatz-Sender; true, wenn die Größe geändert wurde. */
+    private synchronized boolean resizeWriters(int delta) {
+        if (delta > 0 && replacementWriters >= threads) {
+            return false;
+        }
+        replacementWriters += delta;
+        int size = threads + replacementWriters;
+        if (delta > 0) {
+            writers.setMaximumPoolSize(size);
+            writers.setCorePoolSize(size);
+        } else {
+            writers.setCorePoolSize(size);
+            writers.setMaximumPoolSize(size);
+        }
+        return true;
+    }
+
+    private boolean isSubscribed(Subscriber subscriber) {
+        Set<Subscriber> set = subscribers.get(subscriber.gameId);
+        return set != null && set.contains(subscriber);
+    }
+
+    private void remove(Subscriber subscriber) {
+        Set<Subscriber> set = subscribers.get(subscriber.gameId);
+        if (set != null && set.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+            if (set.isEmpty()) {
+                subscribers.remove(subscriber.gameId, set);
+            }
+        }
+    }
+}
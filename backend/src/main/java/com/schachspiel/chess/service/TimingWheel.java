@@ -0,0 +1,173 @@
+package com.schachspiel.chess.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchisches Timing-Wheel für sehr viele gleichzeitige Timer.
+ * <p>
+ * Jede Ebene besteht aus {@code 2^bits} Buckets; Ebene 0 hat die Auflösung
+ * eines Ticks, jede höhere Ebene deckt das {@code 2^bits}-fache ab. Timer
+ * werden beim Einfügen in die passende Ebene gelegt und beim Überlauf der
+ * darunterliegenden Ebene eine Stufe tiefer einsortiert (Kaskade). Einfügen,
+ * Abbrechen und Ablauf kosten damit O(1) pro Timer, unabhängig von der Anzahl
+ * laufender Timer.
+ * </p>
+ * <p>
+ * Nicht thread-sicher: die Klasse wird ausschließlich vom Thread des
+ * {@link ClockService} bedient. Abbrechen ist dagegen von jedem Thread aus
+ * erlaubt (Flag, das beim Ablauf geprüft wird).
+ * </p>
+ */
+public class TimingWheel {
+
+    /** Ein einzelner Timer. */
+    public static final class Timeout {
+        private final long deadlineTick;
+        private final Runnable task;
+        private volatile boolean cancelled;
+        private Timeout next;
+
+        private Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        /** Bricht den Timer ab; der Eintrag wird beim nächsten Besuch verworfen. */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final int bits;
+    private final int mask;
+    private final Timeout[][] buckets;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickNanos Auflösung eines Ticks in Nanosekunden.
+     * @param bits      log2 der Bucket-Anzahl pro Ebene.
+     * @param levels    Anzahl der Ebenen.
+     * @param nowNanos  Startzeitpunkt (monoton, {@link System#nanoTime()}).
+     */
+    public TimingWheel(long tickNanos, int bits, int levels, long nowNanos) {
+        this.tickNanos = tickNanos;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        this.buckets = new Timeout[levels][1 << bits];
+        this.currentTick = nowNanos / tickNanos;
+    }
+
+    /**
+     * Plant einen Timer.
+     *
+     * @param deadlineNanos Ablaufzeitpunkt (monoton).
+     * @param task          Wird beim Ablauf auf dem Wheel-Thread ausgeführt.
+     * @return Handle zum Abbrechen.
+     */
+    public Timeout schedule(long deadlineNanos, Runnable task) {
+        // Aufrunden: ein Timer läuft nie vor seiner Deadline ab
+        Timeout timeout = new Timeout((deadlineNanos + tickNanos - 1) / tickNanos, task);
+        size++;
+        insert(timeout, null);
+        return timeout;
+    }
+
+    /**
+     * Schaltet das Rad bis zum angegebenen Zeitpunkt weiter und führt alle
+     * abgelaufenen Timer aus.
+     *
+     * @param nowNanos Aktuelle monotone Zeit.
+     * @param onError  Fehlerbehandlung für Timer-Tasks.
+     */
+    public void advance(long nowNanos, Consumer<RuntimeException> onError) {
+        long targetTick = nowNanos / tickNanos;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade(onError);
+            int index = (int) (currentTick & mask);
+            Timeout head = buckets[0][index];
+            buckets[0][index] = null;
+            expire(head, onError);
+        }
+    }
+
+    /** @return Anzahl geplanter (ggf. bereits abgebrochener) Timer. */
+    public int size() {
+        return size;
+    }
+
+    /** @return Nanosekunden bis zum nächsten Tick. */
+    public long nanosUntilNextTick(long nowNanos) {
+        return (currentTick + 1) * tickNanos - nowNanos;
+    }
+
+    private void cascade(Consumer<RuntimeException> onError) {
+        for (int level = buckets.length - 1; level >= 1; level--) {
+            long lowMask = (1L << (bits * level)) - 1;
+            if ((currentTick & lowMask) != 0) {
+                continue;
+            }
+            int index = (int) ((currentTick >>> (bits * level)) & mask);
+            Timeout t = buckets[level][index];
+            buckets[level][index] = null;
+            while (t != null) {
+                Timeout next = t.next;
+                t.next = null;
+                insert(t, onError);
+                t = next;
+            }
+        }
+    }
+
+    private void insert(Timeout timeout, Consumer<RuntimeException> onError) {
+        if (timeout.cancelled) {
+            size--;
+            return;
+        }
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            if (onError == null) {
+                // Beim Planen bereits abgelaufen: im nächsten Tick ausführen
+                delta = 1;
+            } else {
+                size--;
+                run(timeout, onError);
+                return;
+            }
+        }
+        int level = 0;
+        while (level < buckets.length - 1 && delta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+        long tick = level == 0 ? currentTick + delta : timeout.deadlineTick;
+        int index = (int) ((tick >>> (bits * level)) & mask);
+        timeout.next = buckets[level][index];
+        buckets[level][index] = timeout;
+    }
+
+    private void expire(Timeout t, Consumer<RuntimeException> onError) {
+        while (t != null) {
+            Timeout next = t.next;
+            t.next = null;
+            size--;
+            if (!t.cancelled) {
+                run(t, onError);
+            }
+            t = next;
+        }
+    }
+
+    private static void run(Timeout t, Consumer<RuntimeException> onError) {
+        try {
+            t.task.run();
+        } catch (RuntimeException e) {
+            onError.accept(e);
+        }
+    }
+}
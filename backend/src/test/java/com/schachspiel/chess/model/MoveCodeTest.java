@@ -0,0 +1,52 @@
+package com.schachspiel.chess.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoveCodeTest {
+
+    @Test
+    void roundTripsEverySquarePair() {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                Position a = new Position(from / 8, from % 8);
+                Position b = new Position(to / 8, to % 8);
+                Move move = MoveCode.decode(MoveCode.encode(a, b, null));
+                assertEquals(a, move.getFrom());
+                assertEquals(b, move.getTo());
+                assertNull(move.getPromotionPiece());
+            }
+        }
+    }
+
+    @Test
+    void roundTripsPromotions() {
+        for (PieceType type : new PieceType[] {PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN}) {
+            Move move = MoveCode.decode(MoveCode.encode(new Position("b7"), new Position("a8"), type));
+            assertEquals(new Position("b7"), move.getFrom());
+            assertEquals(new Position("a8"), move.getTo());
+            assertEquals(type, move.getPromotionPiece());
+        }
+    }
+
+    @Test
+    void keepsPersistedLayout() {
+        // e2e4: 12 | 28 << 6; e7e8=Q: 52 | 60 << 6 | 4 << 12
+        assertEquals(12 | 28 << 6, MoveCode.encode(new Position("e2"), new Position("e4"), null));
+        assertEquals(52 | 60 << 6 | 4 << 12, MoveCode.encode(new Position("e7"), new Position("e8"), PieceType.QUEEN));
+        assertEquals(52 | 60 << 6 | 1 << 12, MoveCode.encode(new Position("e7"), new Position("e8"), PieceType.KNIGHT));
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MoveCode.encode(new Position("e7"), new Position("e8"), PieceType.KING));
+        assertThrows(IllegalArgumentException.class,
+                () -> MoveCode.encode(new Position(8, 0), new Position("e8"), null));
+        assertThrows(IllegalArgumentException.class, () -> MoveCode.encode(null, new Position("e8"), null));
+        assertThrows(IllegalArgumentException.class, () -> MoveCode.decode(5 << 12));
+    }
+}
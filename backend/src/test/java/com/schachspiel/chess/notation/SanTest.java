@@ -0,0 +1,87 @@
+package com.schachspiel.chess.notation;
+
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.PieceType;
+import com.schachspiel.chess.model.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SanTest {
+
+    @Test
+    void parsesPawnAndPieceMoves() {
+        ChessBoard board = new ChessBoard();
+        assertMove("e2e4", San.parse(board, "e4"));
+        assertMove("g1f3", San.parse(board, "Nf3"));
+        assertMove("g1f3", San.parse(board, "Ng1f3"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(board, "e5"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(board, ""));
+    }
+
+    @Test
+    void disambiguatesByFile() {
+        ChessBoard board = play("d2d4", "a7a6", "g1f3", "a6a5");
+        assertMove("b1d2", San.parse(board, "Nbd2"));
+        assertMove("f3d2", San.parse(board, "Nfd2"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(board, "Nd2"));
+        assertEquals("Nbd2", San.toSan(board, move("b1d2")));
+        assertEquals("Nfd2", San.toSan(board, move("f3d2")));
+    }
+
+    @Test
+    void handlesCastling() {
+        ChessBoard board = play("e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6");
+        assertMove("e1g1", San.parse(board, "O-O"));
+        assertMove("e1g1", San.parse(board, "0-0"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(board, "O-O-O"));
+        assertEquals("O-O", San.toSan(board, move("e1g1")));
+    }
+
+    @Test
+    void handlesPromotionAndCheck() {
+        ChessBoard board = Fen.parse("8/P7/8/8/8/8/8/k6K w - - 0 1");
+        assertMove("a7a8q", San.parse(board, "a8=Q+"));
+        assertMove("a7a8n", San.parse(board, "a8=N"));
+        assertEquals("a8=Q+", San.toSan(board, move("a7a8q")));
+        assertEquals("a8=N", San.toSan(board, move("a7a8n")));
+    }
+
+    @Test
+    void marksMate() {
+        ChessBoard board = play("f2f3", "e7e5", "g2g4");
+        assertEquals("Qh4#", San.toSan(board, move("d8h4")));
+        assertEquals("exd6", San.toSan(play("e2e4", "a7a6", "e4e5", "d7d5"), move("e5d6")));
+    }
+
+    /** Spielt Züge in Koordinatenschreibweise von der Grundstellung aus. */
+    static ChessBoard play(String... moves) {
+        ChessBoard board = new ChessBoard();
+        for (String uci : moves) {
+            board.makeMove(move(uci));
+        }
+        return board;
+    }
+
+    /** @param uci Zug wie "e2e4" oder "e7e8q". */
+    static Move move(String uci) {
+        Move move = new Move();
+        move.setFrom(new Position(uci.substring(0, 2)));
+        move.setTo(new Position(uci.substring(2, 4)));
+        if (uci.length() > 4) {
+            move.setPromotionPiece(switch (uci.charAt(4)) {
+                case 'n' -> PieceType.KNIGHT;
+                case 'b' -> PieceType.BISHOP;
+                case 'r' -> PieceType.ROOK;
+                default -> PieceType.QUEEN;
+            });
+        }
+        return move;
+    }
+
+    private static void assertMove(String uci, Move move) {
+        assertEquals(uci, Uci.toUci(move));
+    }
+}
@@ -0,0 +1,18 @@
+package com.schachspiel.chess.notation;
+
+import org.junit.jupiter.api.Test;
+
+import static com.schachspiel.chess.notation.SanTest.move;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UciTest {
+
+    @Test
+    void writesSquaresAndPromotion() {
+        assertEquals("e2e4", Uci.toUci(move("e2e4")));
+        assertEquals("e7e8q", Uci.toUci(move("e7e8q")));
+        assertEquals("a2a1n", Uci.toUci(move("a2a1n")));
+        assertEquals("h7h8r", Uci.toUci(move("h7h8r")));
+        assertEquals("b7c8b", Uci.toUci(move("b7c8b")));
+    }
+}
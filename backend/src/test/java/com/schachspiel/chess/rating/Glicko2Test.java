@@ -0,0 +1,48 @@
+package com.schachspiel.chess.rating;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Glicko2Test {
+
+    @Test
+    void matchesGlickmansExample() {
+        // Beispiel aus Glickman, "Example of the Glicko-2 system"
+        Glicko2.Rating player = new Glicko2.Rating(1500, 200, 0.06);
+        List<Glicko2.Result> results = List.of(
+                new Glicko2.Result(new Glicko2.Rating(1400, 30, 0.06), 1),
+                new Glicko2.Result(new Glicko2.Rating(1550, 100, 0.06), 0),
+                new Glicko2.Result(new Glicko2.Rating(1700, 300, 0.06), 0));
+
+        Glicko2.Rating updated = Glicko2.update(player, results, 0.5);
+
+        assertEquals(1464.06, updated.rating(), 0.01);
+        assertEquals(151.52, updated.rd(), 0.01);
+        assertEquals(0.05999, updated.volatility(), 0.00001);
+    }
+
+    @Test
+    void winAgainstEqualRaisesRatingAndLowersRd() {
+        Glicko2.Rating player = Glicko2.Rating.initial();
+        Glicko2.Rating updated = Glicko2.update(player,
+                List.of(new Glicko2.Result(Glicko2.Rating.initial(), 1)), 0.5);
+        assertTrue(updated.rating() > player.rating());
+        assertTrue(updated.rd() < player.rd());
+    }
+
+    @Test
+    void idlePeriodsOnlyGrowRd() {
+        Glicko2.Rating player = new Glicko2.Rating(1800, 50, 0.06);
+        Glicko2.Rating idle = Glicko2.idle(player, 1);
+        assertEquals(1800, idle.rating());
+        assertEquals(Math.sqrt(50 * 50 + Math.pow(0.06 * 173.7178, 2)), idle.rd(), 1e-6);
+        assertEquals(idle, Glicko2.update(player, List.of(), 0.5));
+        assertSame(player, Glicko2.idle(player, 0));
+        assertEquals(Glicko2.DEFAULT_RD, Glicko2.idle(player, 1_000_000).rd());
+    }
+}
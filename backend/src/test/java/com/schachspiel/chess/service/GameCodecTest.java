@@ -0,0 +1,146 @@
+package com.schachspiel.chess.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.schachspiel.chess.config.AppConfig;
+import com.schachspiel.chess.model.ChessBoard;
+import com.schachspiel.chess.model.Game;
+import com.schachspiel.chess.model.GameStatus;
+import com.schachspiel.chess.model.Move;
+import com.schachspiel.chess.model.PieceType;
+import com.schachspiel.chess.model.Position;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameCodecTest {
+
+    private final ObjectMapper objectMapper = new AppConfig().objectMapper();
+    private final GameCodec codec = new GameCodec(objectMapper);
+
+    @Test
+    void roundTripsCastling() throws Exception {
+        Game game = play("e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6", "e1g1");
+        Game decoded = roundTrip(game);
+        ChessBoard board = board(decoded);
+        assertEquals(PieceType.KING, board.getPieceAt(new Position("g1")).getType());
+        assertEquals(PieceType.ROOK, board.getPieceAt(new Position("f1")).getType());
+        assertTrue(history(decoded).get(6).isCastling());
+    }
+
+    @Test
+    void roundTripsEnPassant() throws Exception {
+        Game game = play("e2e4", "a7a6", "e4e5", "d7d5", "e5d6");
+        Game decoded = roundTrip(game);
+        assertNull(board(decoded).getPieceAt(new Position("d5")));
+        assertTrue(history(decoded).get(4).isEnPassant());
+    }
+
+    @Test
+    void roundTripsUnderpromotion() throws Exception {
+        Game game = play("a2a4", "b7b5", "a4b5", "a7a6", "b5a6", "c8b7", "a6b7", "g8f6", "b7a8n");
+        Game decoded = roundTrip(game);
+        assertEquals(PieceType.KNIGHT, board(decoded).getPieceAt(new Position("a8")).getType());
+        assertEquals(PieceType.KNIGHT, history(decoded).get(8).getPromotionPiece());
+    }
+
+    @Test
+    void roundTripsClocksAndHeader() throws Exception {
+        Game game = play("d2d4", "d7d5");
+        game.setTimeLimit(300);
+        game.setWhiteTimeRemaining(297);
+        game.setBlackTimeRemaining(-1);
+        game.setWhiteClockMillis(297_123L);
+        game.setBlackClockMillis(0L);
+        game.setOnlineMode(true);
+        game.setWinner(null);
+        game.setCreatedAt(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_789));
+        game.setLastMoveAt(LocalDateTime.of(1969, 12, 31, 0, 0, 1, 1));
+        Game decoded = roundTrip(game);
+        assertEquals(297_123L, decoded.getWhiteClockMillis());
+        assertEquals(0L, decoded.getBlackClockMillis());
+        assertEquals(-1, decoded.getBlackTimeRemaining());
+    }
+
+    @Test
+    void rebuildsPositionHashesSinceLastIrreversibleMove() throws Exception {
+        Game decoded = roundTrip(play("e2e4", "e7e5", "g1f3", "b8c6"));
+        // Grundstellung bis e5 verworfen: Stellung nach e5, Nf3, Nc6
+        assertEquals(3, decoded.getPositionHashes().size());
+    }
+
+    @Test
+    void refusesHistoryThatDoesNotReplay() throws Exception {
+        Game game = play("e2e4");
+        game.setBoardState(objectMapper.writeValueAsString(new ChessBoard()));
+        assertNull(codec.encode(game));
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        assertThrows(IOException.class, () -> codec.decode(new byte[] {(byte) 1, 0}));
+    }
+
+    /** Spielt die Züge wie {@link GameService} (Brett und Historie über JSON). */
+    private Game play(String... moves) throws Exception {
+        ChessBoard start = new ChessBoard();
+        Game game = new Game();
+        game.setId(42L);
+        game.setWhitePlayer("Weiß");
+        game.setBlackPlayer("Schwarz");
+        game.setStatus(GameStatus.IN_PROGRESS);
+        game.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        game.setBoardState(objectMapper.writeValueAsString(start));
+        game.setMoveHistory("[]");
+        for (String uci : moves) {
+            ChessBoard board = board(game);
+            Move move = new Move();
+            move.setFrom(new Position(uci.substring(0, 2)));
+            move.setTo(new Position(uci.substring(2, 4)));
+            if (uci.length() > 4) {
+                move.setPromotionPiece(uci.charAt(4) == 'n' ? PieceType.KNIGHT : PieceType.QUEEN);
+            }
+            assertTrue(board.isLegalMove(move), uci);
+            board.makeMove(move);
+            game.setBoardState(objectMapper.writeValueAsString(board));
+            List<Move> history = new ArrayList<>(history(game));
+            history.add(move);
+            game.setMoveHistory(objectMapper.writeValueAsString(history));
+            game.setCurrentTurn(board.getCurrentTurn());
+            game.setEvaluation(board.getEvaluation());
+            game.setCheck(board.isInCheck(board.getCurrentTurn()));
+            game.setMoveCount(game.getMoveCount() + 1);
+            game.setVersion(game.getVersion() + 1);
+        }
+        return game;
+    }
+
+    /** Kodiert und dekodiert; alle serialisierten Felder müssen gleich bleiben. */
+    private Game roundTrip(Game game) throws Exception {
+        byte[] data = codec.encode(game);
+        assertNotNull(data);
+        assertTrue(data.length < game.getMoveHistory().length());
+        Game decoded = codec.decode(data);
+        assertEquals(objectMapper.writeValueAsString(game), objectMapper.writeValueAsString(decoded));
+        assertFalse(decoded.getPositionHashes().isEmpty());
+        return decoded;
+    }
+
+    private ChessBoard board(Game game) throws IOException {
+        return objectMapper.readValue(game.getBoardState(), ChessBoard.class);
+    }
+
+    private List<Move> history(Game game) throws IOException {
+        return objectMapper.readValue(game.getMoveHistory(),
+                objectMapper.getTypeFactory().constructCollectionType(List.class, Move.class));
+    }
+}
@@ -0,0 +1,80 @@
+package com.schachspiel.chess.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1_000_000;
+
+    /** 16 Buckets pro Ebene, drei Ebenen: bis 4096 Ticks. */
+    private final TimingWheel wheel = new TimingWheel(TICK, 4, 3, 0);
+    private final List<String> fired = new ArrayList<>();
+    private final List<RuntimeException> errors = new ArrayList<>();
+
+    @Test
+    void firesInDeadlineOrderAndNeverEarly() {
+        wheel.schedule(3 * TICK, () -> fired.add("3"));
+        wheel.schedule(1 * TICK, () -> fired.add("1"));
+        wheel.schedule(2 * TICK + 1, () -> fired.add("2+"));
+
+        wheel.advance(2 * TICK, errors::add);
+        assertEquals(List.of("1"), fired);
+        wheel.advance(3 * TICK, errors::add);
+        assertEquals(List.of("1", "2+", "3"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromHigherLevels() {
+        // 20 Ticks: Ebene 1, 1000 Ticks: Ebene 2
+        wheel.schedule(20 * TICK, () -> fired.add("20"));
+        wheel.schedule(1000 * TICK, () -> fired.add("1000"));
+
+        wheel.advance(19 * TICK, errors::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(20 * TICK, errors::add);
+        assertEquals(List.of("20"), fired);
+        wheel.advance(999 * TICK, errors::add);
+        assertEquals(List.of("20"), fired);
+        wheel.advance(1000 * TICK, errors::add);
+        assertEquals(List.of("20", "1000"), fired);
+    }
+
+    @Test
+    void skipsCancelledTimers() {
+        TimingWheel.Timeout near = wheel.schedule(5 * TICK, () -> fired.add("near"));
+        TimingWheel.Timeout far = wheel.schedule(300 * TICK, () -> fired.add("far"));
+        near.cancel();
+        far.cancel();
+        wheel.advance(400 * TICK, errors::add);
+        assertTrue(fired.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void runsOverdueTimerOnNextTick() {
+        wheel.advance(10 * TICK, errors::add);
+        wheel.schedule(2 * TICK, () -> fired.add("late"));
+        assertTrue(fired.isEmpty());
+        wheel.advance(11 * TICK, errors::add);
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    void reportsFailingTasksAndContinues() {
+        RuntimeException failure = new IllegalStateException("boom");
+        wheel.schedule(TICK, () -> {
+            throw failure;
+        });
+        wheel.schedule(TICK, () -> fired.add("after"));
+        wheel.advance(TICK, errors::add);
+        assertEquals(List.of(failure), errors);
+        assertEquals(List.of("after"), fired);
+    }
+}
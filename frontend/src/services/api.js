@@ -13,19 +13,26 @@ export default {
     return response.data
   },
 
-  async getGame(gameId) {
-    const response = await axios.get(`${API_BASE_URL}/games/${gameId}`)
+  // legalMoves: Antwort enthält zusätzlich alle legalen Züge (Startfeld -> Zielfelder)
+  async getGame(gameId, legalMoves = false) {
+    const response = await axios.get(`${API_BASE_URL}/games/${gameId}`, {
+      params: legalMoves ? { legalMoves } : undefined
+    })
     return response.data
   },
 
-  async makeMove(gameId, move) {
-    const response = await axios.post(`${API_BASE_URL}/games/${gameId}/move`, move)
+  async makeMove(gameId, move, legalMoves = false) {
+    const response = await axios.post(`${API_BASE_URL}/games/${gameId}/move`, move, {
+      params: legalMoves ? { legalMoves } : undefined
+    })
     return response.data
   },
 
-  async getAllGames() {
-    const response = await axios.get(`${API_BASE_URL}/games`)
-    return response.data
+  async getAllGames(cursor = null, limit = 50) {
+    const response = await axios.get(`${API_BASE_URL}/games`, {
+      params: { cursor, limit }
+    })
+    return response.data.items
   },
 
   async getPlayerGames(playerName) {
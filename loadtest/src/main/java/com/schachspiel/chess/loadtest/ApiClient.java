@@ -0,0 +1,133 @@
+package com.schachspiel.chess.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Schlanker HTTP-Client für die Schach-API, der jede Anfrage pro Operation
+ * in einem {@link Histogram} misst.
+ */
+public class ApiClient {
+
+    /** Antwort mit Statuscode, Body (falls vorhanden) und ETag. */
+    public record Response(int status, JsonNode body, String etag) {
+    }
+
+    private final String baseUrl;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    public ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /** Schaltet die Messung ein (nach der Aufwärmphase). */
+    public void startRecording() {
+        histograms.clear();
+        recording = true;
+    }
+
+    public void stopRecording() {
+        recording = false;
+    }
+
+    public Map<String, Histogram> histograms() {
+        return histograms;
+    }
+
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    public Response createGame(String white, String black) throws IOException, InterruptedException {
+        String body = mapper.writeValueAsString(Map.of("whitePlayer", white, "blackPlayer", black));
+        return send("create", HttpRequest.newBuilder(uri("/api/games"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    public Response getGame(long id, String etag) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/api/games/" + id)).GET();
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        return send("get", request);
+    }
+
+    public Response validMoves(long id, int row, int col) throws IOException, InterruptedException {
+        return send("valid-moves", HttpRequest.newBuilder(
+                uri("/api/games/" + id + "/valid-moves?row=" + row + "&col=" + col)).GET());
+    }
+
+    public Response move(long id, JsonNode from, JsonNode to) throws IOException, InterruptedException {
+        String body = mapper.writeValueAsString(Map.of("from", from, "to", to));
+        return send("move", HttpRequest.newBuilder(uri("/api/games/" + id + "/move"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+    }
+
+    /** Liest eine Kennzahl aus /actuator/metrics (ungemessen). */
+    public JsonNode metric(String name) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(uri("/actuator/metrics/" + name)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        return response.statusCode() == 200 ? mapper.readTree(response.body()) : null;
+    }
+
+    /** @return true, sobald der Server antwortet. */
+    public boolean isUp() {
+        try {
+            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri("/actuator/health"))
+                    .timeout(Duration.ofSeconds(1)).GET().build(), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Response send(String operation, HttpRequest.Builder request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            int status = response.statusCode();
+            if (recording) {
+                Histogram histogram = histograms.computeIfAbsent(operation, k -> new Histogram());
+                if (status >= 400) {
+                    histogram.recordError();
+                } else {
+                    histogram.record(elapsed);
+                }
+            }
+            JsonNode body = response.body().length > 0 ? mapper.readTree(response.body()) : null;
+            return new Response(status, body, response.headers().firstValue("ETag").orElse(null));
+        } catch (IOException e) {
+            if (recording) {
+                histograms.computeIfAbsent(operation, k -> new Histogram()).recordError();
+            }
+            throw e;
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+}
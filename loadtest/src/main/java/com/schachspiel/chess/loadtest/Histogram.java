@@ -0,0 +1,88 @@
+package com.schachspiel.chess.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-sicheres Latenz-Histogramm mit logarithmisch-linearen Buckets.
+ * <p>
+ * Jede Zweierpotenz (in Mikrosekunden) ist in 32 lineare Unter-Buckets
+ * geteilt, die relative Abweichung der Perzentile liegt also unter ~3 %.
+ * Aufzeichnen ist ein einzelnes {@code incrementAndGet}, es wird nichts
+ * allokiert – der Lastgenerator soll die Messung nicht selbst verfälschen.
+ * </p>
+ */
+public class Histogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAGNITUDES = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(MAGNITUDES * SUB_BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /** @param nanos Gemessene Dauer in Nanosekunden. */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(index(micros));
+        total.incrementAndGet();
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public void recordError() {
+        errors.incrementAndGet();
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    public long maxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * @param percentile Perzentil zwischen 0 und 100.
+     * @return Obere Grenze des Buckets, in dem das Perzentil liegt (µs).
+     */
+    public long percentileMicros(double percentile) {
+        long n = total.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(upperBound(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    private static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        // micros >>> shift liegt in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS;
+        int sub = (int) (micros >>> shift) - SUB_BUCKETS;
+        return Math.min((shift + 1) * SUB_BUCKETS + sub, MAGNITUDES * SUB_BUCKETS - 1);
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        int sub = index % SUB_BUCKETS;
+        return ((long) (sub + SUB_BUCKETS + 1) << shift) - 1;
+    }
+}
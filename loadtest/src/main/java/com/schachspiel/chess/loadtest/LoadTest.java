@@ -0,0 +1,243 @@
+package com.schachspiel.chess.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lastgenerator für die Schach-REST-API.
+ * <p>
+ * Startet das Backend-JAR als eigenen Prozess (oder nutzt mit {@code --url}
+ * einen laufenden Server), lässt N Spieler zufällige legale Züge spielen und
+ * M Zuschauer pollen. Nach einer Aufwärmphase wird für die eingestellte Dauer
+ * gemessen; der Bericht enthält Durchsatz, Latenz-Perzentile pro Operation
+ * sowie GC- und Allokationskennzahlen des Servers (aus /actuator/metrics).
+ * </p>
+ * <p>
+ * Optionen: {@code --players 50 --spectators 200 --warmup PT10S
+ * --duration PT60S --max-plies 120 --think PT0.2S --port 8199
+ * --jar ../backend/target/chess-backend-1.0.0.jar --jvm-args "-Xmx512m"
+ * --url http://host:port --max-p99-move-ms 50}. Der Exit-Code ist 1, wenn
+ * mehr als 1 % der Anfragen fehlschlagen oder das p99 der Züge über dem
+ * Grenzwert liegt.
+ * </p>
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        int players = Integer.parseInt(options.getOrDefault("players", "50"));
+        int spectators = Integer.parseInt(options.getOrDefault("spectators", "200"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT10S"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT60S"));
+        int maxPlies = Integer.parseInt(options.getOrDefault("max-plies", "120"));
+        Duration think = Duration.parse(options.getOrDefault("think", "PT0.2S"));
+        double maxP99MoveMs = Double.parseDouble(options.getOrDefault("max-p99-move-ms", "0"));
+
+        Process server = null;
+        String url = options.get("url");
+        if (url == null) {
+            int port = Integer.parseInt(options.getOrDefault("port", "8199"));
+            server = startServer(options.getOrDefault("jar", "../backend/target/chess-backend-1.0.0.jar"),
+                    options.getOrDefault("jvm-args", ""), port);
+            url = "http://localhost:" + port;
+        }
+        Process started = server;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (started != null) {
+                started.destroy();
+            }
+        }));
+
+        ApiClient client = new ApiClient(url);
+        awaitServer(client, Duration.ofSeconds(60));
+        System.out.printf("Server %s: %d Spieler, %d Zuschauer, Aufwärmen %ds, Messung %ds%n",
+                url, players, spectators, warmup.toSeconds(), duration.toSeconds());
+
+        Set<Long> active = ConcurrentHashMap.newKeySet();
+        ScheduledExecutorService snapshotter = Executors.newSingleThreadScheduledExecutor();
+        // Zuschauer arbeiten auf einer periodischen Kopie statt bei jedem Poll zu kopieren
+        AtomicReference<List<Long>> activeSnapshot = new AtomicReference<>(List.of());
+        snapshotter.scheduleAtFixedRate(() -> activeSnapshot.set(List.copyOf(active)), 0, 100, TimeUnit.MILLISECONDS);
+
+        ExecutorService workers = Executors.newFixedThreadPool(players + spectators);
+        List<Player> playerTasks = new ArrayList<>();
+        List<Spectator> spectatorTasks = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            Player player = new Player(client, i, maxPlies, active);
+            playerTasks.add(player);
+            workers.execute(player);
+        }
+        for (int i = 0; i < spectators; i++) {
+            Spectator spectator = new Spectator(client, activeSnapshot::get, think.toNanos());
+            spectatorTasks.add(spectator);
+            workers.execute(spectator);
+        }
+
+        Thread.sleep(warmup.toMillis());
+        ServerStats before = ServerStats.read(client);
+        client.startRecording();
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        client.stopRecording();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        ServerStats after = ServerStats.read(client);
+
+        playerTasks.forEach(Player::stop);
+        spectatorTasks.forEach(Spectator::stop);
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        snapshotter.shutdownNow();
+
+        boolean failed = report(client.histograms(), seconds, before, after, maxP99MoveMs);
+        if (server != null) {
+            server.destroy();
+            server.waitFor(30, TimeUnit.SECONDS);
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static boolean report(Map<String, Histogram> histograms, double seconds,
+            ServerStats before, ServerStats after, double maxP99MoveMs) {
+        boolean failed = false;
+        long requests = 0;
+        long errors = 0;
+        System.out.println();
+        System.out.printf("%-12s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram h = entry.getValue();
+            requests += h.count() + h.errors();
+            errors += h.errors();
+            System.out.printf(Locale.ROOT, "%-12s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), h.count(), h.errors(), h.count() / seconds,
+                    h.percentileMicros(50) / 1000.0, h.percentileMicros(90) / 1000.0,
+                    h.percentileMicros(99) / 1000.0, h.percentileMicros(99.9) / 1000.0, h.maxMicros() / 1000.0);
+        }
+        System.out.printf(Locale.ROOT, "%nGesamt: %.1f req/s, Fehlerquote %.3f %%%n",
+                requests / seconds, requests == 0 ? 0 : 100.0 * errors / requests);
+
+        ServerStats delta = after.minus(before);
+        Histogram moves = histograms.get("move");
+        long moveCount = moves == null ? 0 : moves.count();
+        System.out.println();
+        System.out.println("Server (Messzeitraum):");
+        System.out.printf(Locale.ROOT, "  GC-Pausen:        %d, gesamt %.1f ms (%.2f %% der Zeit), max %.1f ms%n",
+                delta.gcPauses, delta.gcPauseMillis, delta.gcPauseMillis / (seconds * 10), after.gcPauseMaxMillis);
+        System.out.printf(Locale.ROOT, "  Allokation:       %.1f MB/s, %.1f KB pro Zug%n",
+                delta.allocatedBytes / seconds / 1e6, moveCount == 0 ? 0 : delta.allocatedBytes / 1024.0 / moveCount);
+        System.out.printf(Locale.ROOT, "  Heap belegt:      %.1f MB%n", after.heapUsedBytes / 1e6);
+        System.out.printf(Locale.ROOT, "  CPU (Prozess):    %.1f %%%n", after.cpuUsage * 100);
+
+        if (requests > 0 && errors * 100 > requests) {
+            System.out.println("FEHLER: mehr als 1 % der Anfragen fehlgeschlagen");
+            failed = true;
+        }
+        if (maxP99MoveMs > 0 && moves != null && moves.percentileMicros(99) / 1000.0 > maxP99MoveMs) {
+            System.out.printf(Locale.ROOT, "FEHLER: p99 der Züge über %.1f ms%n", maxP99MoveMs);
+            failed = true;
+        }
+        return failed;
+    }
+
+    private static Process startServer(String jar, String jvmArgs, int port) throws IOException {
+        File jarFile = new File(jar);
+        if (!jarFile.isFile()) {
+            throw new IllegalArgumentException("Backend-JAR nicht gefunden: " + jarFile.getAbsolutePath()
+                    + " (vorher 'mvn package' im Backend ausführen)");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        for (String arg : jvmArgs.trim().split("\\s+")) {
+            if (!arg.isEmpty()) {
+                command.add(arg);
+            }
+        }
+        command.add("-jar");
+        command.add(jarFile.getPath());
+        command.add("--server.port=" + port);
+        // Alle simulierten Spieler kommen von einer Adresse: Rate-Limit pro Client abschalten
+        command.add("--chess.admission.enabled=false");
+        File log = new File("target/server.log");
+        log.getParentFile().mkdirs();
+        System.out.println("Starte " + String.join(" ", command) + " (Log: " + log.getPath() + ")");
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+    }
+
+    private static void awaitServer(ApiClient client, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!client.isUp()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Server antwortet nicht");
+            }
+            Thread.sleep(250);
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new TreeMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Ungültige Option: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    /** GC- und Speicherkennzahlen des Servers zu einem Zeitpunkt. */
+    private static final class ServerStats {
+        long gcPauses;
+        double gcPauseMillis;
+        double gcPauseMaxMillis;
+        double allocatedBytes;
+        double heapUsedBytes;
+        double cpuUsage;
+
+        static ServerStats read(ApiClient client) throws IOException, InterruptedException {
+            ServerStats stats = new ServerStats();
+            JsonNode pause = client.metric("jvm.gc.pause");
+            stats.gcPauses = (long) statistic(pause, "COUNT");
+            stats.gcPauseMillis = statistic(pause, "TOTAL_TIME") * 1000;
+            stats.gcPauseMaxMillis = statistic(pause, "MAX") * 1000;
+            stats.allocatedBytes = statistic(client.metric("jvm.gc.memory.allocated"), "COUNT");
+            stats.heapUsedBytes = statistic(client.metric("jvm.memory.used?tag=area:heap"), "VALUE");
+            stats.cpuUsage = statistic(client.metric("process.cpu.usage"), "VALUE");
+            return stats;
+        }
+
+        ServerStats minus(ServerStats earlier) {
+            ServerStats delta = new ServerStats();
+            delta.gcPauses = gcPauses - earlier.gcPauses;
+            delta.gcPauseMillis = gcPauseMillis - earlier.gcPauseMillis;
+            delta.allocatedBytes = allocatedBytes - earlier.allocatedBytes;
+            return delta;
+        }
+
+        private static double statistic(JsonNode metric, String name) {
+            if (metric == null) {
+                return 0;
+            }
+            for (JsonNode measurement : metric.path("measurements")) {
+                if (name.equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.schachspiel.chess.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulierter Spieler: legt ein Spiel an und führt für beide Seiten zufällige
+ * legale Züge aus (ermittelt über /valid-moves), bis das Spiel endet oder die
+ * maximale Zuglänge erreicht ist. Danach beginnt ein neues Spiel.
+ */
+public class Player implements Runnable {
+
+    private final ApiClient client;
+    private final int index;
+    private final int maxPlies;
+    private final Set<Long> activeGames;
+    private volatile boolean running = true;
+
+    public Player(ApiClient client, int index, int maxPlies, Set<Long> activeGames) {
+        this.client = client;
+        this.index = index;
+        this.maxPlies = maxPlies;
+        this.activeGames = activeGames;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                playGame();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Fehler sind im Histogramm gezählt; mit neuem Spiel weitermachen
+            }
+        }
+    }
+
+    private void playGame() throws Exception {
+        ApiClient.Response created = client.createGame("load-w" + index, "load-b" + index);
+        if (created.status() != 200) {
+            return;
+        }
+        JsonNode game = created.body();
+        long id = game.get("id").asLong();
+        activeGames.add(id);
+        try {
+            for (int ply = 0; running && ply < maxPlies && "IN_PROGRESS".equals(game.get("status").asText()); ply++) {
+                JsonNode next = playRandomMove(id, game);
+                if (next == null) {
+                    return;
+                }
+                game = next;
+            }
+        } finally {
+            activeGames.remove(id);
+        }
+    }
+
+    /** @return Das Spiel nach dem Zug oder null, wenn kein Zug möglich war. */
+    private JsonNode playRandomMove(long id, JsonNode game) throws Exception {
+        JsonNode board = client.mapper().readTree(game.get("boardState").asText()).get("board");
+        String turn = game.get("currentTurn").asText();
+
+        List<int[]> own = new ArrayList<>();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                JsonNode piece = board.get(row).get(col);
+                if (piece != null && !piece.isNull() && turn.equals(piece.get("color").asText())) {
+                    own.add(new int[] { row, col });
+                }
+            }
+        }
+        Collections.shuffle(own, ThreadLocalRandom.current());
+
+        for (int[] square : own) {
+            ApiClient.Response valid = client.validMoves(id, square[0], square[1]);
+            if (valid.status() != 200 || valid.body() == null || valid.body().isEmpty()) {
+                continue;
+            }
+            JsonNode choice = valid.body().get(ThreadLocalRandom.current().nextInt(valid.body().size()));
+            ApiClient.Response moved = client.move(id, choice.get("from"), choice.get("to"));
+            return moved.status() == 200 ? moved.body() : null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.schachspiel.chess.loadtest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Simulierter Zuschauer: fragt in festem Takt den Stand eines zufälligen
+ * laufenden Spiels ab (mit ETag, also meist 304) und die gültigen Züge eines
+ * zufälligen Feldes – so wie das Frontend beim Beobachten pollt.
+ */
+public class Spectator implements Runnable {
+
+    private final ApiClient client;
+    private final Supplier<List<Long>> activeGames;
+    private final long thinkNanos;
+    private final Map<Long, String> etags = new HashMap<>();
+    private volatile boolean running = true;
+
+    public Spectator(ApiClient client, Supplier<List<Long>> activeGames, long thinkNanos) {
+        this.client = client;
+        this.activeGames = activeGames;
+        this.thinkNanos = thinkNanos;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            try {
+                List<Long> games = activeGames.get();
+                if (!games.isEmpty()) {
+                    long id = games.get(random.nextInt(games.size()));
+                    ApiClient.Response response = client.getGame(id, etags.get(id));
+                    if (response.etag() != null) {
+                        etags.put(id, response.etag());
+                    }
+                    client.validMoves(id, random.nextInt(8), random.nextInt(8));
+                }
+                if (etags.size() > 1000) {
+                    etags.clear();
+                }
+                TimeUnit.NANOSECONDS.sleep(thinkNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // im Histogramm gezählt
+            }
+        }
+    }
+}